@@ -27,12 +27,13 @@ import org.nustaq.kontraktor.*;
 import org.nustaq.kontraktor.remoting.base.ActorClientConnector;
 import org.nustaq.kontraktor.remoting.base.ObjectSink;
 import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
 import org.nustaq.kontraktor.remoting.websockets.WebObjectSocket;
+import org.nustaq.kontraktor.util.HashedWheelTimer;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.serialization.FSTConfiguration;
 
 import java.io.*;
-import java.util.TimerTask;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
@@ -313,18 +314,14 @@ public class HttpClientConnector implements ActorClientConnector {
             }
 
             final AtomicInteger timedout = new AtomicInteger(0); // 1 = reply, 2 = timeout
-            FutureCallback<HttpResponse> callback = getHttpLPFutureCallback(p, timedout);
-            Actor.delayedCalls.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    if (timedout.compareAndSet(0, 2)) {
-                        // long poll timeout, retry
-                        final AtomicInteger timedout = new AtomicInteger(0); // 1 = reply, 2 = timeout
-                        lpHttpClient.execute(req, getHttpLPFutureCallback(p,timedout));
-                    }
+            HashedWheelTimer.Scheduled lpTimeout = Actors.timer().schedule(() -> {
+                if (timedout.compareAndSet(0, 2)) {
+                    // long poll timeout, retry
+                    final AtomicInteger retryTimedout = new AtomicInteger(0); // 1 = reply, 2 = timeout
+                    lpHttpClient.execute(req, getHttpLPFutureCallback(p, retryTimedout, null));
                 }
             }, HttpObjectSocket.LP_TIMEOUT + 1000); // give 1 second trip latency
-            lpHttpClient.execute(req, callback);
+            lpHttpClient.execute(req, getHttpLPFutureCallback(p, timedout, lpTimeout));
             return p;
         }
 
@@ -339,13 +336,18 @@ public class HttpClientConnector implements ActorClientConnector {
             return ""+id;
         }
 
-        private FutureCallback<HttpResponse> getHttpLPFutureCallback(final Promise p, final AtomicInteger timedout) {
+        /**
+         * @param lpTimeout long poll timeout, cancelled once the request completes (may be null)
+         */
+        private FutureCallback<HttpResponse> getHttpLPFutureCallback(final Promise p, final AtomicInteger timedout, HashedWheelTimer.Scheduled lpTimeout) {
             return new FutureCallback<HttpResponse>() {
                 @Override
                 public void completed(HttpResponse result) {
                     if (!timedout.compareAndSet(0, 1)) {
                         return;
                     }
+                    if (lpTimeout != null)
+                        lpTimeout.cancel();
                     Runnable processLPRespponse = getProcessLPRunnable(p, result);
                     getReceiveActor().execute(processLPRespponse);
                 }
@@ -355,6 +357,8 @@ public class HttpClientConnector implements ActorClientConnector {
                     if (!timedout.compareAndSet(0, 1)) {
                         return;
                     }
+                    if (lpTimeout != null)
+                        lpTimeout.cancel();
                     // FIXME: resend
                     ex.printStackTrace();
                     p.reject(ex);
@@ -365,6 +369,8 @@ public class HttpClientConnector implements ActorClientConnector {
                     if (!timedout.compareAndSet(0, 1)) {
                         return;
                     }
+                    if (lpTimeout != null)
+                        lpTimeout.cancel();
                     System.out.println("cancel");
                     p.reject("Canceled");
                 }
@@ -393,7 +399,7 @@ public class HttpClientConnector implements ActorClientConnector {
                             }
                         }
 
-                        Object o = getConf().asObject(b);
+                        Object o = CompressedBatch.inflate(getConf(), getConf().asObject(b));
                         boolean send = true;
                         if (o instanceof Object[]) {
                             Object ar[] = (Object[]) o;
@@ -238,7 +238,7 @@ public class HttpObjectSocket extends WebObjectSocket implements ObjectSink {
             objects.add(sendSequence.incrementAndGet()); // sequence
             Object[] objArr = objects.toArray();
             objects.clear();
-            sendBinary(conf.asByteArray(objArr));
+            sendBinary(encodeBatch(objArr));
         }
     }
 
@@ -23,6 +23,7 @@ import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
 import io.undertow.util.Methods;
 import org.nustaq.kontraktor.*;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
 import org.nustaq.kontraktor.remoting.http.AbstractHttpServerConnector;
 import org.nustaq.kontraktor.remoting.http.HttpObjectSocket;
 import org.nustaq.kontraktor.remoting.http.KHttpExchange;
@@ -191,7 +192,7 @@ public class UndertowHttpServerConnector extends AbstractHttpServerConnector imp
         // executed in facade thread
         httpObjectSocket.updateTimeStamp(); // keep alive
 
-        Object received[] = (Object[]) httpObjectSocket.getConf().asObject(postData);
+        Object received[] = (Object[]) CompressedBatch.inflate(httpObjectSocket.getConf(), httpObjectSocket.getConf().asObject(postData));
 
         boolean isEmptyLP = received.length == 1 && received[0] instanceof Number;
 
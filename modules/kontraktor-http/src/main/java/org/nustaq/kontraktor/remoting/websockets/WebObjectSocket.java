@@ -16,7 +16,9 @@ See https://www.gnu.org/licenses/lgpl.txt
 package org.nustaq.kontraktor.remoting.websockets;
 
 import org.nustaq.kontraktor.remoting.base.ActorClientConnector;
+import org.nustaq.kontraktor.remoting.base.BatchCompressor;
 import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
 import org.nustaq.serialization.FSTConfiguration;
 import org.nustaq.serialization.util.FSTUtil;
 
@@ -39,6 +41,7 @@ public abstract class WebObjectSocket implements ObjectSocket {
     protected Throwable lastError;
     protected AtomicInteger sendSequence = new AtomicInteger(0); // defensive
     protected volatile boolean isClosed;
+    protected BatchCompressor compressor;
 
     public AtomicInteger getSendSequence() {
         return sendSequence;
@@ -101,10 +104,23 @@ public abstract class WebObjectSocket implements ObjectSocket {
             objects.add(sendSequence.incrementAndGet()); // sequence
             Object[] objArr = objects.toArray();
             objects.clear();
-            sendBinary(conf.asByteArray(objArr));
+            sendBinary(encodeBatch(objArr));
         }
     }
 
+    /**
+     * serialize a batch, deflated if it exceeds the compressor's threshold
+     */
+    protected byte[] encodeBatch(Object[] objArr) {
+        byte bytes[] = conf.asByteArray(objArr);
+        if ( compressor != null && compressor.shouldCompress(bytes.length) ) {
+            CompressedBatch packed = compressor.compress(bytes, bytes.length);
+            if ( packed != null )
+                return conf.asByteArray(packed);
+        }
+        return bytes;
+    }
+
     @Override
     public void setLastError(Throwable ex) {
         lastError = ex;
@@ -125,6 +141,16 @@ public abstract class WebObjectSocket implements ObjectSocket {
         return conf;
     }
 
+    @Override
+    public void setCompressor(BatchCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public BatchCompressor getCompressor() {
+        return compressor;
+    }
+
     public boolean isClosed() {
         return isClosed;
     }
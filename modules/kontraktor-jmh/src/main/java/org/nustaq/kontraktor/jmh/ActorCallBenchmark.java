@@ -0,0 +1,134 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.jmh;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages between two actors, either run by different dispatchers ("cross") or by the same one ("same").
+ *
+ * tell/ask are measured in batches issued by the sending actor, so the benchmark thread's await is
+ * amortized. askLatency is a single roundtrip from a non-actor thread (use with -bm sample for percentiles).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorCallBenchmark {
+
+    public static final int BATCH = 1000;
+
+    public static class Receiver extends Actor<Receiver> {
+
+        long sum;
+
+        public void add(int x) {
+            sum += x;
+        }
+
+        public IPromise<Integer> square(int x) {
+            return resolve(x * x);
+        }
+
+        public IPromise<Long> getSum() {
+            return resolve(sum);
+        }
+
+    }
+
+    public static class Sender extends Actor<Sender> {
+
+        Receiver receiver;
+
+        public void init(Receiver receiver) {
+            this.receiver = receiver;
+        }
+
+        // mailbox is FIFO, so getSum resolves after all adds have been processed
+        public IPromise<Long> tellBatch(int count) {
+            for (int i = 0; i < count; i++) {
+                receiver.add(i);
+            }
+            return receiver.getSum();
+        }
+
+        public IPromise<Long> askBatch(int count) {
+            Promise<Long> res = new Promise<>();
+            long sum[] = {0};
+            int received[] = {0};
+            for (int i = 0; i < count; i++) {
+                receiver.square(i & 0xff).then((r, e) -> {
+                    sum[0] += r;
+                    if ( ++received[0] == count )
+                        res.resolve(sum[0]);
+                });
+            }
+            return res;
+        }
+
+    }
+
+    @Param({"cross", "same"})
+    public String dispatch;
+
+    Sender sender;
+    Receiver receiver;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SimpleScheduler senderScheduler = new SimpleScheduler();
+        SimpleScheduler receiverScheduler = "same".equals(dispatch) ? senderScheduler : new SimpleScheduler();
+        sender = Actors.AsActor(Sender.class, senderScheduler);
+        receiver = Actors.AsActor(Receiver.class, receiverScheduler);
+        sender.init(receiver);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sender.stop();
+        receiver.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long tell() {
+        return sender.tellBatch(BATCH).await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long ask() {
+        return sender.askBatch(BATCH).await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int askLatency() {
+        return receiver.square(7).await();
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.jmh;
+
+import org.nustaq.kontraktor.remoting.base.BatchCompressor;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
+import org.nustaq.kontraktor.remoting.encoding.RemoteCallEntry;
+import org.nustaq.serialization.FSTConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of batch compression (see Coding.compressAbove): encoding a batch of record updates as sent
+ * by a table subscription, with and without deflating it, and decoding it. The compression ratio
+ * is printed at the end of each trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchCompressionBenchmark {
+
+    @Param({"10", "100"})
+    public int records;
+
+    FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+    BatchCompressor compressor = new BatchCompressor(0);
+    Object batch[];
+    byte packed[];
+    int lenHolder[] = new int[1];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        batch = new Object[records + 1];
+        for (int i = 0; i < records; i++) {
+            HashMap<String,Object> record = new HashMap<>();
+            record.put("key", "instrument-" + i);
+            record.put("symbol", "SYM" + (i % 20));
+            record.put("bid", 100.0 + i * 0.25);
+            record.put("ask", 100.5 + i * 0.25);
+            record.put("qty", 1000 + i);
+            record.put("state", i % 3 == 0 ? "OPEN" : "CLOSED");
+            record.put("lastModified", 1_500_000_000_000l + i);
+            Object args[] = { "subscription-1", record };
+            RemoteCallEntry rce = new RemoteCallEntry(0, -1, "receive", args, null);
+            rce.pack(conf);
+            batch[i] = rce;
+        }
+        batch[records] = 1; // sequence
+        packed = conf.asByteArray(encodeCompressed());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println("records " + records + ": " + compressor);
+    }
+
+    @Benchmark
+    public int encode() {
+        conf.asSharedByteArray(batch, lenHolder);
+        return lenHolder[0];
+    }
+
+    @Benchmark
+    public CompressedBatch encodeCompressed() {
+        byte bytes[] = conf.asSharedByteArray(batch, lenHolder);
+        return compressor.compress(bytes, lenHolder[0]);
+    }
+
+    @Benchmark
+    public Object decodeCompressed() {
+        return CompressedBatch.inflate(conf, conf.asObject(packed));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.jmh;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of messages from non-actor threads into a single actor's mailbox (SimpleScheduler.put2QueuePolling),
+ * so the mailbox builds up a backlog the dispatcher has to drain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailboxBenchmark {
+
+    public static final int BURST = 10_000;
+
+    public static class Sink extends Actor<Sink> {
+
+        long count;
+
+        public void consume(int x) {
+            count++;
+        }
+
+        public IPromise<Long> getCount() {
+            return resolve(count);
+        }
+
+    }
+
+    Sink sink;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sink = Actors.AsActor(Sink.class, new SimpleScheduler());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sink.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long burst() {
+        for (int i = 0; i < BURST; i++) {
+            sink.consume(i);
+        }
+        return sink.getCount().await();
+    }
+
+    @Benchmark
+    @Threads(2)
+    @OperationsPerInvocation(BURST)
+    public long burstTwoProducers() {
+        return burst();
+    }
+
+}
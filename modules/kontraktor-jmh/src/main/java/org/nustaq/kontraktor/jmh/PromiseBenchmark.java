@@ -0,0 +1,85 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.jmh;
+
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Promise composition without dispatching (single thread): then chains on unsettled and settled
+ * promises and Actors.all.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromiseBenchmark {
+
+    @Param({"1", "10"})
+    public int length;
+
+    @Benchmark
+    public Object thenChain() {
+        Promise<Integer> first = new Promise<>();
+        IPromise<Integer> last = first;
+        for (int i = 0; i < length; i++) {
+            last = last.then((r, e) -> {});
+        }
+        first.resolve(1);
+        return last;
+    }
+
+    @Benchmark
+    public Object thenSettled() {
+        IPromise<Integer> last = new Promise<>(1);
+        for (int i = 0; i < length; i++) {
+            last = last.then((r, e) -> {});
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object thenAndChain() {
+        Promise<Integer> first = new Promise<>();
+        IPromise<Integer> last = first;
+        for (int i = 0; i < length; i++) {
+            last = last.thenAnd(r -> new Promise<>(r + 1));
+        }
+        first.resolve(1);
+        return last.get();
+    }
+
+    @Benchmark
+    public Object all() {
+        Promise<Integer> promises[] = new Promise[length];
+        for (int i = 0; i < promises.length; i++) {
+            promises[i] = new Promise<>();
+        }
+        IPromise<IPromise<Integer>[]> res = Actors.all(promises);
+        for (int i = 0; i < promises.length; i++) {
+            promises[i].resolve(i);
+        }
+        return res.get();
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.jmh;
+
+import org.nustaq.reallive.api.Record;
+import org.nustaq.reallive.query.CompiledQuery;
+import org.nustaq.reallive.query.Query;
+import org.nustaq.reallive.records.MapRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scan of 10_000 MapRecords with a RealLive query, interpreted (CompiledQuery.evaluate) against
+ * generated bytecode (CompiledQuery.test). One op = one scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({
+        "userId == 'u42'",
+        "age >= 30 && age < 40 && country == 'DE'",
+        "score > 0.5 || premium",
+        "lower(name) ** 'smith' && age > 20"
+    })
+    public String query;
+
+    @Param({"false", "true"})
+    public boolean bytecode;
+
+    Record records[];
+    CompiledQuery compiled;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String countries[] = { "DE", "FR", "US", "UK" };
+        records = new Record[10_000];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = MapRecord.New("k" + i)
+                .put("userId", "u" + (i % 100))
+                .put("name", i % 7 == 0 ? "John Smith" : "Jane Doe")
+                .put("age", 18 + i % 60)
+                .put("country", countries[i % countries.length])
+                .put("score", (i % 100) / 100.0)
+                .put("premium", i % 10 == 0);
+        }
+        compiled = Query.compile(query);
+        compiled.test(records[0]); // generate outside of the measurement
+    }
+
+    @Benchmark
+    public int scan() {
+        int hits = 0;
+        if ( bytecode ) {
+            for (int i = 0; i < records.length; i++) {
+                if ( compiled.test(records[i]) )
+                    hits++;
+            }
+        } else {
+            for (int i = 0; i < records.length; i++) {
+                if ( compiled.evaluate(records[i]).isTrue() )
+                    hits++;
+            }
+        }
+        return hits;
+    }
+
+}
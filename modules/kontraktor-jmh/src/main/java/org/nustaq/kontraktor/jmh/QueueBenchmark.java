@@ -0,0 +1,116 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.jmh;
+
+import org.eclipse.jetty.util.ConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConcurrentArrayQueue (actor mailboxes, see ActorsImpl.createQueue) against JDK queues.
+ *
+ * offerPoll: uncontended, one thread. spsc: one producer and one consumer thread, the producer
+ * stays at most MAX_BACKLOG elements ahead to keep memory bounded. Only successful offers/polls
+ * are counted (secondary results "offers", "polls").
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueueBenchmark {
+
+    public static final int MAX_BACKLOG = 64 * 1024;
+    static final Object ELEMENT = new Object();
+
+    @Param({"ConcurrentArrayQueue", "ConcurrentLinkedQueue", "LinkedBlockingQueue"})
+    public String queueType;
+
+    Queue<Object> queue;
+    final AtomicLong produced = new AtomicLong();
+    final AtomicLong consumed = new AtomicLong();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long offers;
+        public long polls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            offers = polls = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        switch (queueType) {
+            case "ConcurrentArrayQueue":
+                queue = new ConcurrentArrayQueue<>(512);
+                break;
+            case "ConcurrentLinkedQueue":
+                queue = new ConcurrentLinkedQueue<>();
+                break;
+            default:
+                queue = new LinkedBlockingQueue<>();
+        }
+        produced.set(0);
+        consumed.set(0);
+    }
+
+    @Benchmark
+    @Group("offerPoll")
+    public Object offerPoll() {
+        queue.offer(ELEMENT);
+        return queue.poll();
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void produce(Counters counters, Blackhole bh) {
+        if ( produced.get() - consumed.get() < MAX_BACKLOG ) {
+            bh.consume(queue.offer(ELEMENT));
+            produced.lazySet(produced.get() + 1);
+            counters.offers++;
+        } else {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void consume(Counters counters, Blackhole bh) {
+        Object res = queue.poll();
+        if ( res != null ) {
+            consumed.lazySet(consumed.get() + 1);
+            counters.polls++;
+            bh.consume(res);
+        } else {
+            Thread.yield();
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.jmh;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.remoting.base.ConnectionRegistry;
+import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.Coding;
+import org.nustaq.kontraktor.remoting.encoding.CompactRemoteCallSerializer;
+import org.nustaq.kontraktor.remoting.encoding.RemoteCallEntry;
+import org.nustaq.kontraktor.remoting.encoding.SerializerType;
+import org.nustaq.serialization.FSTConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Encoding of a remote call batch as done by ConnectionRegistry.send2Remote + ObjectSocket.flush,
+ * with arguments packed into RemoteCallEntry.serializedArgs (default) or inline (ConnectionRegistry.INLINE_ARGS),
+ * FSTSer or CompactBinary coding. Measures steady state, the first message of a connection is sent in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemoteCallEncodingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean inline;
+
+    @Param({"FSTSer", "CompactBinary"})
+    public SerializerType coding;
+
+    FSTConfiguration conf;
+    Object args[] = { "order", 4711, 3.5, new int[] {1, 2, 3, 4, 5, 6, 7, 8}, "some text argument" };
+    byte encoded[];
+    CompactRemoteCallSerializer compact;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ConnectionRegistry registry = new ConnectionRegistry(new Coding(coding)) {
+            @Override
+            public Actor getFacadeProxy() {
+                return null;
+            }
+
+            @Override
+            public AtomicReference<ObjectSocket> getWriteObjectSocket() {
+                return null;
+            }
+        };
+        conf = registry.getConf();
+        Object ser = conf.getCLInfoRegistry().getSerializerRegistry().getSerializer(RemoteCallEntry.class);
+        compact = ser instanceof CompactRemoteCallSerializer ? (CompactRemoteCallSerializer) ser : null;
+        conf.asObject(encode()); // CompactBinary: defines the method index on sender and receiver (same conf)
+        encoded = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        RemoteCallEntry rce = new RemoteCallEntry(1, 2, "placeOrder", args.clone(), null);
+        if ( ! inline )
+            rce.pack(conf);
+        if ( compact != null )
+            rce = compact.assignMethodIndex(rce);
+        return conf.asByteArray(new Object[] { rce, 0 });
+    }
+
+    @Benchmark
+    public Object decode() {
+        Object batch[] = (Object[]) conf.asObject(encoded);
+        RemoteCallEntry rce = (RemoteCallEntry) batch[0];
+        rce.unpackArgs(conf);
+        return rce.getArgs();
+    }
+
+}
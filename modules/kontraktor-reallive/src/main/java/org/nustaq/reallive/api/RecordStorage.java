@@ -4,6 +4,7 @@ package org.nustaq.reallive.api;
 import org.nustaq.reallive.impl.storage.RecordPersistance;
 import org.nustaq.reallive.impl.storage.StorageStats;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -19,4 +20,12 @@ public interface RecordStorage extends RealLiveStreamActor, RecordPersistance {
     Stream<Record> stream();
     // administration level method
     void resizeIfLoadFactorLarger( double loadFactor, long maxGrow );
+
+    /**
+     * @return a point in time view of all records which may be read concurrently by other threads (parallel scans),
+     * null if snapshots are not supported. Use StorageDriver.snapshot, records contained must not be patched afterwards.
+     */
+    default List<Record> snapshot() {
+        return null;
+    }
 }
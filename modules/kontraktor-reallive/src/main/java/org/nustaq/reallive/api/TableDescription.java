@@ -18,6 +18,8 @@ public class TableDescription implements Serializable, Cloneable {
     int shardNo;
     int keyLen = 48;
     String storageType = CACHED;
+    String hashIndexes[] = {};
+    String sortedIndexes[] = {};
 
     public TableDescription() {}
 
@@ -92,6 +94,30 @@ public class TableDescription implements Serializable, Cloneable {
         return keyLen;
     }
 
+    /**
+     * fields with a secondary hash index, used by queries with an equality conjunct like "userId == 'x'"
+     */
+    public TableDescription hashIndex(final String ... fields) {
+        this.hashIndexes = fields;
+        return this;
+    }
+
+    /**
+     * fields with a secondary sorted index, used by queries with a range (< <= > >=) or equality conjunct
+     */
+    public TableDescription sortedIndex(final String ... fields) {
+        this.sortedIndexes = fields;
+        return this;
+    }
+
+    public String[] getHashIndexes() {
+        return hashIndexes;
+    }
+
+    public String[] getSortedIndexes() {
+        return sortedIndexes;
+    }
+
     @Override
     public TableDescription clone() {
         try {
@@ -2,6 +2,7 @@ package org.nustaq.reallive.impl;
 
 import org.nustaq.reallive.impl.actors.RealLiveTableActor;
 import org.nustaq.reallive.api.*;
+import org.nustaq.reallive.impl.index.SubscriberIndex;
 import org.nustaq.reallive.messages.*;
 import org.nustaq.reallive.records.*;
 
@@ -18,10 +19,12 @@ import java.util.List;
  * if ( filter matches old && ! new ) => send Remove
  * if ( filter matches old && new ) => send Update
  * if ( filter ! matches old && new ) => send Add
+ *
+ * subscribers are kept in a SubscriberIndex, so a change is tested only against candidate subscribers
  */
 public class FilterProcessor implements ChangeReceiver {
 
-    List<Subscriber> filterList = new ArrayList();
+    SubscriberIndex subscribers = new SubscriberIndex();
     RealLiveTable table;
 
     public FilterProcessor(RealLiveTable table) {
@@ -30,11 +33,11 @@ public class FilterProcessor implements ChangeReceiver {
 
     //FIXME: benchmark if cloning is faster
     public synchronized void startListening( Subscriber subs ) {
-        filterList.add(subs);
+        subscribers.add(subs);
     }
 
     public synchronized void unsubscribe( Subscriber subs ) {
-        filterList.remove(subs);
+        subscribers.remove(subs);
     }
 
     public synchronized void receive(ChangeMessage change) {
@@ -58,7 +61,7 @@ public class FilterProcessor implements ChangeReceiver {
 
     protected void processPut(PutMessage change) {
         Record record = change.getRecord();
-        for ( Subscriber subscriber : filterList ) {
+        for ( Subscriber subscriber : subscribers.candidates(record) ) {
             if ( subscriber.getFilter().test(record) ) {
                 subscriber.getReceiver().receive(change);
             }
@@ -74,7 +77,7 @@ public class FilterProcessor implements ChangeReceiver {
             String changedField = changedFields[i];
             oldRec.put(changedField, oldValues[i]);
         }
-        for ( Subscriber subscriber : filterList ) {
+        for ( Subscriber subscriber : subscribers.candidates(newRecord, oldRec) ) {
             boolean matchesOld = subscriber.getFilter().test(oldRec);
             boolean matchesNew = subscriber.getFilter().test(newRecord);
 
@@ -105,7 +108,7 @@ public class FilterProcessor implements ChangeReceiver {
 
     protected void processAdd(AddMessage add) {
         Record record = add.getRecord();
-        for ( Subscriber subscriber : filterList ) {
+        for ( Subscriber subscriber : subscribers.candidates(record) ) {
             if ( subscriber.getFilter().test(record) ) {
                 final PatchingRecord patchingRecord = FilterSpore.rec.get();
                 patchingRecord.reset(record);
@@ -117,7 +120,7 @@ public class FilterProcessor implements ChangeReceiver {
 
     protected void processRemove(RemoveMessage remove) {
         Record record = remove.getRecord();
-        for ( Subscriber subscriber : filterList ) {
+        for ( Subscriber subscriber : subscribers.candidates(record) ) {
             if ( subscriber.getFilter().test(record) ) {
                 final PatchingRecord patchingRecord = FilterSpore.rec.get();
                 patchingRecord.reset(record);
@@ -129,7 +132,7 @@ public class FilterProcessor implements ChangeReceiver {
 
     public void unsubscribeById(long subsId) {
         List<Subscriber> toRem = new ArrayList<>();
-        for ( Subscriber subscriber : filterList ) {
+        for ( Subscriber subscriber : subscribers.getSubscribers() ) {
             if ( subscriber.getId() == subsId ) {
                 toRem.add(subscriber);
             }
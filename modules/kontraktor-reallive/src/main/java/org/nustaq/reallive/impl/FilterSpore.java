@@ -26,17 +26,29 @@ public class FilterSpore extends Spore<Record,Record> {
 
     @Override
     public void remote(Record input) {
+        Record res = match(filter, input);
+        if ( res != null )
+            stream(res);
+    }
+
+    /**
+     * test input the way remote does without streaming it, thread safe if the predicate is (see ParallelScan)
+     *
+     * @return the record to stream or null if input does not pass the predicate
+     */
+    public Record match(RLPredicate<Record> predicate, Record input) {
         if (modifiesResult) {
             final PatchingRecord patchingRecord = rec.get();
             patchingRecord.reset(input);
-            if (filter.test(patchingRecord)) {
-                stream(patchingRecord.unwrapOrCopy());
+            if (predicate.test(patchingRecord)) {
+                return patchingRecord.unwrapOrCopy();
             }
         } else {
-            if (filter.test(input)) {
-                stream(input);
+            if (predicate.test(input)) {
+                return input;
             }
         }
+        return null;
     }
 
     public FilterSpore modifiesResult(boolean modifiesResult) {
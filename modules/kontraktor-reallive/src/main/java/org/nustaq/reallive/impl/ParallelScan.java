@@ -0,0 +1,79 @@
+package org.nustaq.reallive.impl;
+
+import org.nustaq.kontraktor.Spore;
+import org.nustaq.reallive.api.RLPredicate;
+import org.nustaq.reallive.api.Record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * fork/join scan of a store snapshot (see RecordStorage.snapshot) with a batch of FilterSpores.
+ *
+ * The index range of the snapshot is split until chunks are smaller than MIN_CHUNK_SIZE, each chunk tests
+ * its records with private copies of the query predicates. Results are the matching records per spore in
+ * snapshot order, streaming them is up to the caller (actor thread).
+ */
+public class ParallelScan extends RecursiveTask<List<Record>[]> {
+
+    public static int MIN_CHUNK_SIZE = 4096;
+
+    final List<Record> snapshot;
+    final FilterSpore spores[];
+    final int from, to;
+    final int chunkSize;
+
+    public ParallelScan(List<Record> snapshot, FilterSpore spores[], int parallelism) {
+        this(snapshot, spores, 0, snapshot.size(), Math.max(MIN_CHUNK_SIZE, snapshot.size() / (parallelism * 4 + 1)));
+    }
+
+    protected ParallelScan(List<Record> snapshot, FilterSpore spores[], int from, int to, int chunkSize) {
+        this.snapshot = snapshot;
+        this.spores = spores;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return true if the spore's filter can be evaluated by other threads
+     */
+    public static boolean supports(Spore spore) {
+        return spore instanceof FilterSpore && ((FilterSpore) spore).getFilter() instanceof QueryPredicate;
+    }
+
+    @Override
+    protected List<Record>[] compute() {
+        if ( to - from <= chunkSize )
+            return scan();
+        int mid = (from + to) >>> 1;
+        ParallelScan left = new ParallelScan(snapshot, spores, from, mid, chunkSize);
+        left.fork();
+        List<Record> res[] = new ParallelScan(snapshot, spores, mid, to, chunkSize).compute();
+        List<Record> leftRes[] = left.join();
+        for (int i = 0; i < res.length; i++) {
+            leftRes[i].addAll(res[i]);
+        }
+        return leftRes;
+    }
+
+    protected List<Record>[] scan() {
+        RLPredicate<Record> filters[] = new RLPredicate[spores.length];
+        List<Record> res[] = new List[spores.length];
+        for (int i = 0; i < spores.length; i++) {
+            filters[i] = ((QueryPredicate) spores[i].getFilter()).copy();
+            res[i] = new ArrayList<>();
+        }
+        for (int i = from; i < to; i++) {
+            Record rec = snapshot.get(i);
+            for (int s = 0; s < spores.length; s++) {
+                Record match = spores[s].match(filters[s], rec);
+                if ( match != null )
+                    res[s].add(match);
+            }
+        }
+        return res;
+    }
+
+}
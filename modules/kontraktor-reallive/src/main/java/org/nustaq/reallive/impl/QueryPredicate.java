@@ -3,6 +3,7 @@ package org.nustaq.reallive.impl;
 import org.nustaq.reallive.api.RLPredicate;
 import org.nustaq.reallive.query.CompiledQuery;
 import org.nustaq.reallive.query.EvalContext;
+import org.nustaq.reallive.query.IndexCondition;
 import org.nustaq.reallive.query.Query;
 
 /**
@@ -20,7 +21,21 @@ public class QueryPredicate<T> implements RLPredicate<T> {
 
     @Override
     public boolean test(T t) {
-        final boolean res = compiled.evaluate((EvalContext) t).isTrue();
+        final boolean res = compiled.test((EvalContext) t);
         return res;
     }
+
+    /**
+     * @return conditions a secondary index can preselect records by (see StorageDriver.forEachIndexed)
+     */
+    public IndexCondition[] getIndexConditions() {
+        return compiled.getIndexConditions();
+    }
+
+    /**
+     * @return an equivalent predicate for another thread, a compiled query holds evaluation state
+     */
+    public QueryPredicate<T> copy() {
+        return new QueryPredicate<>(query);
+    }
 }
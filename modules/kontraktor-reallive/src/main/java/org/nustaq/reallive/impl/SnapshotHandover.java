@@ -0,0 +1,49 @@
+package org.nustaq.reallive.impl;
+
+import org.nustaq.reallive.api.ChangeMessage;
+import org.nustaq.reallive.api.ChangeReceiver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * receiver of a subscription. While the initial query runs against a store snapshot, changes are held back
+ * and passed on after the query results (release), so the subscriber neither misses nor duplicates a change.
+ */
+public class SnapshotHandover implements ChangeReceiver {
+
+    final ChangeReceiver target;
+    transient List<ChangeMessage> pending; // null if not holding back
+
+    public SnapshotHandover(ChangeReceiver target) {
+        this.target = target;
+    }
+
+    @Override
+    public void receive(ChangeMessage change) {
+        if ( pending != null )
+            pending.add(change);
+        else
+            target.receive(change);
+    }
+
+    public void hold() {
+        if ( pending == null )
+            pending = new ArrayList<>();
+    }
+
+    public void release() {
+        List<ChangeMessage> changes = pending;
+        pending = null;
+        if ( changes != null )
+            changes.forEach(target::receive);
+    }
+
+    /**
+     * @return the receiver bypassing held back changes (query results)
+     */
+    public ChangeReceiver getTarget() {
+        return target;
+    }
+
+}
@@ -2,12 +2,16 @@ package org.nustaq.reallive.impl;
 
 import org.nustaq.kontraktor.IPromise;
 import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.Spore;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.reallive.api.*;
+import org.nustaq.reallive.impl.index.RecordIndexes;
 import org.nustaq.reallive.messages.*;
 import org.nustaq.reallive.records.PatchingRecord;
 import org.nustaq.reallive.records.RecordWrapper;
 
+import java.util.List;
+
 /**
  * Created by moelrue on 03.08.2015.
  *
@@ -18,6 +22,8 @@ public class StorageDriver implements ChangeReceiver {
 
     RecordStorage store;
     ChangeReceiver listener = change -> {};
+    RecordIndexes indexes; // null if the table has no secondary indexes
+    int snapshots; // snapshots in use by parallel scans
 
     public StorageDriver(RecordStorage store) {
         this.store = store;
@@ -46,13 +52,13 @@ public class StorageDriver implements ChangeReceiver {
             {
                 Record prevRecord = store.get(change.getKey());
                 if ( prevRecord == null ) {
-                    store.put(change.getKey(),unwrap(change.getRecord()));
+                    storePut(change.getKey(),unwrap(change.getRecord()));
                     receive( new AddMessage(change.getSenderId(),true,change.getRecord()));
                 } else {
                     Diff diff = ChangeUtils.diff(change.getRecord(), prevRecord);
                     if ( ! diff.isEmpty() ) {
                         Record newRecord = unwrap(change.getRecord()); // clarification
-                        store.put(change.getKey(), newRecord);
+                        storePut(change.getKey(), newRecord);
                         listener.receive(new UpdateMessage(change.getSenderId(), diff, newRecord, null));
                     }
                 }
@@ -67,12 +73,13 @@ public class StorageDriver implements ChangeReceiver {
                     return;
                 }
                 if ( prevRecord != null ) {
+                    prevRecord = writable(prevRecord);
                     Diff diff = ChangeUtils.copyAndDiff(addMessage.getRecord(), prevRecord);
                     Record newRecord = unwrap(prevRecord); // clarification
-                    store.put(change.getKey(),newRecord);
+                    storePut(change.getKey(),newRecord);
                     listener.receive( new UpdateMessage(change.getSenderId(), diff,newRecord,null) );
                 } else {
-                    store.put(change.getKey(),unwrap(addMessage.getRecord()));
+                    storePut(change.getKey(),unwrap(addMessage.getRecord()));
                     listener.receive(addMessage);
                 }
                 break;
@@ -80,7 +87,7 @@ public class StorageDriver implements ChangeReceiver {
             case ChangeMessage.REMOVE:
             {
                 RemoveMessage removeMessage = (RemoveMessage) change;
-                Record v = store.remove(removeMessage.getKey());
+                Record v = storeRemove(removeMessage.getKey());
                 if ( v != null ) {
                     listener.receive(new RemoveMessage(change.getSenderId(),unwrap(v)));
                 } else {
@@ -103,22 +110,24 @@ public class StorageDriver implements ChangeReceiver {
                     if ( updateMessage.getNewRecord() == null ) {
                         throw new RuntimeException("updated record does not exist, cannot fall back to 'Add' as UpdateMessage.newRecord is null");
                     }
-                    store.put(change.getKey(),updateMessage.getNewRecord());
+                    storePut(change.getKey(),updateMessage.getNewRecord());
                     listener.receive( new AddMessage(change.getSenderId(), updateMessage.getNewRecord()) );
                 } else if ( updateMessage.getDiff() == null ) {
+                    oldRec = writable(oldRec);
                     Diff diff = ChangeUtils.copyAndDiff(updateMessage.getNewRecord(), oldRec);
                     if ( ! diff.isEmpty() ) {
                         Record newRecord = unwrap(oldRec); // clarification
-                        store.put(change.getKey(), newRecord);
+                        storePut(change.getKey(), newRecord);
                         listener.receive(new UpdateMessage(change.getSenderId(), diff, newRecord, change.getForcedUpdateFields()));
                     }
                 } else {
                     // old values are actually not needed inside the diff
                     // however they are needed in a change notification for filter processing (need to reconstruct prev record)
                     if ( ! updateMessage.getDiff().isEmpty() ) {
+                        oldRec = writable(oldRec);
                         Diff newDiff = ChangeUtils.copyAndDiff(updateMessage.getNewRecord(), oldRec, updateMessage.getDiff().getChangedFields());
                         Record newRecord = unwrap(oldRec); // clarification
-                        store.put(change.getKey(), newRecord);
+                        storePut(change.getKey(), newRecord);
                         listener.receive(new UpdateMessage(change.getSenderId(), newDiff, newRecord, change.getForcedUpdateFields()));
                     }
                 }
@@ -129,6 +138,91 @@ public class StorageDriver implements ChangeReceiver {
         }
     }
 
+    // stored records are patched in place, records of a snapshot in use must stay unchanged
+    private Record writable(Record rec) {
+        if ( snapshots > 0 && rec != null )
+            return unwrap(rec).copied();
+        return rec;
+    }
+
+    private void storePut(String key, Record rec) {
+        store.put(key, rec);
+        if ( indexes != null )
+            indexes.put(key, rec);
+    }
+
+    private Record storeRemove(String key) {
+        Record removed = store.remove(key);
+        if ( removed != null && indexes != null )
+            indexes.remove(key);
+        return removed;
+    }
+
+    /**
+     * create the secondary indexes declared by the description and index the records already present
+     * (persistent tables)
+     */
+    public StorageDriver createIndexes(TableDescription desc) {
+        RecordIndexes newIndexes = desc != null ? new RecordIndexes(desc) : null;
+        if ( newIndexes == null || newIndexes.isEmpty() ) {
+            indexes = null;
+            return this;
+        }
+        store.stream().forEach( rec -> newIndexes.put(rec.getKey(), rec) );
+        indexes = newIndexes;
+        return this;
+    }
+
+    public RecordIndexes getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * if the spore filters by a query with an indexed condition, feed it the index candidates instead of
+     * scanning the store.
+     *
+     * @return false if no index applies, the caller has to scan
+     */
+    public boolean forEachIndexed(Spore<Record,?> spore) {
+        if ( indexes == null || spore instanceof FilterSpore == false )
+            return false;
+        RLPredicate<Record> filter = ((FilterSpore) spore).getFilter();
+        if ( filter instanceof QueryPredicate == false )
+            return false;
+        List<String> keys = indexes.select(((QueryPredicate) filter).getIndexConditions());
+        if ( keys == null )
+            return false;
+        for (int i = 0; i < keys.size() && ! spore.isFinished(); i++) {
+            Record rec = store.get(keys.get(i));
+            if ( rec != null )
+                spore.remote(rec);
+        }
+        spore.finish();
+        return true;
+    }
+
+    /**
+     * @return a snapshot of the store for reading by other threads, null if the store does not support it.
+     * Until releaseSnapshot is called, records are copied before being patched.
+     */
+    public List<Record> snapshot() {
+        List<Record> res = store.snapshot();
+        if ( res != null )
+            snapshots++;
+        return res;
+    }
+
+    /**
+     * register an additional reader of the snapshot in use, each reader calls releaseSnapshot
+     */
+    public void retainSnapshot() {
+        snapshots++;
+    }
+
+    public void releaseSnapshot() {
+        snapshots--;
+    }
+
     public RecordStorage getStore() {
         return store;
     }
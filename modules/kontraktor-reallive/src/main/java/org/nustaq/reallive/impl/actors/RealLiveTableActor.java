@@ -15,8 +15,10 @@ import org.nustaq.reallive.messages.RemoveMessage;
 import org.nustaq.reallive.records.RecordWrapper;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.*;
 
 /**
@@ -29,6 +31,10 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
 
     public static int MAX_QUERY_BATCH_SIZE = 10;
     public static boolean DUMP_QUERY_TIME = false;
+    // scans and subscriptions of tables with at least this number of records run against a snapshot, 0 = off
+    public static int SNAPSHOT_SCAN_MIN_SIZE = 100_000;
+    public static int SCAN_SLICE_SIZE = 10_000;
+    public static ForkJoinPool SCAN_POOL = ForkJoinPool.commonPool();
 
     StorageDriver storageDriver;
     FilterProcessor filterProcessor;
@@ -44,6 +50,7 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
         Thread.currentThread().setName("Table "+(desc==null?"NULL":desc.getName())+" main");
         RecordStorage store = storeFactory.apply(desc);
         storageDriver = new StorageDriver(store);
+        storageDriver.createIndexes(desc);
         filterProcessor = new FilterProcessor(this);
         storageDriver.setListener( filterProcessor );
         return resolve();
@@ -62,7 +69,8 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
     public <T> void forEachDirect(Spore<Record, T> spore) {
         checkThread();
         try {
-            storageDriver.getStore().forEachWithSpore(spore);
+            if ( ! storageDriver.forEachIndexed(spore) )
+                storageDriver.getStore().forEachWithSpore(spore);
         } catch (Exception ex) {
             spore.complete(null,ex);
         }
@@ -82,10 +90,20 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
                 }
             });
             forEachDirect(newSpore);
-        } else
+        } else if ( ! forEachIndexed(spore) )
             forEachQueued(spore, () -> {});
     }
 
+    // a selective indexed query is answered at once instead of joining the next batched scan
+    private boolean forEachIndexed(Spore spore) {
+        try {
+            return storageDriver.forEachIndexed(spore);
+        } catch (Exception ex) {
+            spore.complete(null,ex);
+            return true;
+        }
+    }
+
     private <T> void delayedSend(List<String> keys, int recordLimit, Spore<Record, T> spore) {
         int i = keys.size()-1; int ii = 0;
         RecordStorage store = storageDriver.getStore();
@@ -124,21 +142,25 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
 
     public void _subscribe(RLPredicate pred, Callback cb, int id) {
         checkThread();
-        Subscriber localSubs = new Subscriber(pred, change -> {
-            cb.pipe(change);
-        }).serverSideCB(cb);
+        ChangeReceiver direct = change -> cb.pipe(change);
+        SnapshotHandover handover = new SnapshotHandover(direct);
+        Subscriber localSubs = new Subscriber(pred, handover).serverSideCB(cb);
         String sid = addChannelIdIfPresent(cb, ""+id);
         receiverSideSubsMap.put(sid,localSubs);
 
         FilterSpore spore = new FilterSpore(localSubs.getFilter()).modifiesResult(false);
-        spore.onFinish( () -> localSubs.getReceiver().receive(RLUtil.get().done()) );
+        spore.onFinish( () -> {
+            direct.receive(RLUtil.get().done());
+            handover.release();
+        });
         spore.setForEach((r, e) -> {
             if (Actors.isResult(e)) {
-                localSubs.getReceiver().receive(new AddMessage(0,(Record) r));
+                direct.receive(new AddMessage(0,(Record) r));
             } else {
                 // FIXME: pass errors
                 // FIXME: called in case of error only (see onFinish above)
-                localSubs.getReceiver().receive(RLUtil.get().done());
+                direct.receive(RLUtil.get().done());
+                handover.release();
             }
         });
         if ( pred instanceof KeySetSubscriber.KSPredicate ) {
@@ -146,16 +168,22 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
             p.getKeys().forEach( key -> {
                 Record record = storageDriver.getStore().get(key);
                 if ( record != null ) {
-                    localSubs.getReceiver().receive(new AddMessage(0,record));
+                    direct.receive(new AddMessage(0,record));
                 }
             });
-            localSubs.getReceiver().receive(RLUtil.get().done());
+            direct.receive(RLUtil.get().done());
             filterProcessor.startListening(localSubs);
         } else {
             if ( pred instanceof RLNoQueryPredicate ) {
-                localSubs.getReceiver().receive(RLUtil.get().done());
-            } else {
-                forEachDirect(spore); // removed queuing, ot tested well enough
+                direct.receive(RLUtil.get().done());
+            } else if ( ! forEachIndexed(spore) ) {
+                // changes after the snapshot are passed on once the initial query results are sent
+                handover.hold();
+                if ( ! scanSnapshot(Collections.singletonList(new QueryQEntry(spore, () -> {}))) ) {
+                    // sequential scan completes before startListening, nothing to hold back
+                    handover.release();
+                    forEachDirect(spore); // removed queuing, ot tested well enough
+                }
             }
             filterProcessor.startListening(localSubs);
         }
@@ -178,21 +206,12 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
 
     public void _execQueriesOrDelay(int size, int taCount) {
         if ( (queuedSpores.size() == size && this.taCount == taCount) || queuedSpores.size() > MAX_QUERY_BATCH_SIZE) {
+            if ( scanSnapshot(new ArrayList<>(queuedSpores)) ) {
+                queuedSpores.clear();
+                return;
+            }
             long tim = System.currentTimeMillis();
-            Consumer<Record> recordConsumer = rec -> {
-                for (int i = 0; i < queuedSpores.size(); i++) {
-                    QueryQEntry qqentry = queuedSpores.get(i);
-                    Spore spore = qqentry.spore;
-                    if (!spore.isFinished()) {
-                        try {
-                            spore.remote(rec);
-                        } catch (Throwable ex) {
-                            Log.Warn(this,ex,"exception in spore "+spore);
-                            spore.complete(null, ex);
-                        }
-                    }
-                }
-            };
+            Consumer<Record> recordConsumer = rec -> feed(queuedSpores, rec);
             storageDriver.getStore().stream().forEach(recordConsumer);
             queuedSpores.forEach( qqentry -> {
                 qqentry.spore.finish();
@@ -206,6 +225,103 @@ public class RealLiveTableActor extends Actor<RealLiveTableActor> implements Rea
         _execQueriesOrDelay(queuedSpores.size(),this.taCount);
     }
 
+    private void feed(List<QueryQEntry> entries, Record rec) {
+        for (int i = 0; i < entries.size(); i++) {
+            QueryQEntry qqentry = entries.get(i);
+            Spore spore = qqentry.spore;
+            if (!spore.isFinished()) {
+                try {
+                    spore.remote(rec);
+                } catch (Throwable ex) {
+                    Log.Warn(this,ex,"exception in spore "+spore);
+                    spore.complete(null, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * runs the spores against a snapshot of the store, so the actor keeps processing changes meanwhile.
+     * Query spores are evaluated in SCAN_POOL (results are streamed by _finishParallelScan), other spores
+     * on the actor thread in slices of SCAN_SLICE_SIZE records (_scanSlice).
+     *
+     * @return false if the table is too small or the store does not support snapshots, the caller has to scan
+     */
+    private boolean scanSnapshot(List<QueryQEntry> entries) {
+        if ( SNAPSHOT_SCAN_MIN_SIZE <= 0 || storageDriver.getStore().size() < SNAPSHOT_SCAN_MIN_SIZE )
+            return false;
+        List<Record> snapshot = storageDriver.snapshot();
+        if ( snapshot == null )
+            return false;
+        List<QueryQEntry> parallel = new ArrayList<>();
+        List<QueryQEntry> sliced = new ArrayList<>();
+        entries.forEach( qqentry -> (ParallelScan.supports(qqentry.spore) ? parallel : sliced).add(qqentry) );
+        if ( ! parallel.isEmpty() && ! sliced.isEmpty() )
+            storageDriver.retainSnapshot(); // released by each scan
+        if ( ! parallel.isEmpty() )
+            scanParallel(snapshot, parallel);
+        if ( ! sliced.isEmpty() )
+            _scanSlice(snapshot, sliced, 0);
+        return true;
+    }
+
+    private void scanParallel(List<Record> snapshot, List<QueryQEntry> entries) {
+        FilterSpore spores[] = new FilterSpore[entries.size()];
+        for (int i = 0; i < spores.length; i++)
+            spores[i] = (FilterSpore) entries.get(i).spore;
+        ForkJoinPool pool = SCAN_POOL;
+        RealLiveTableActor self = self();
+        long tim = System.currentTimeMillis();
+        pool.execute( () -> {
+            try {
+                List<Record> results[] = new ParallelScan(snapshot, spores, pool.getParallelism()).invoke();
+                if (DUMP_QUERY_TIME)
+                    System.out.println("parallel scan tim for "+spores.length+" "+(System.currentTimeMillis()-tim));
+                self._finishParallelScan(entries, results, null);
+            } catch (Throwable th) {
+                self._finishParallelScan(entries, null, th);
+            }
+        });
+    }
+
+    @Local
+    public void _finishParallelScan(List<QueryQEntry> entries, List<Record> results[], Throwable error) {
+        storageDriver.releaseSnapshot();
+        for (int i = 0; i < entries.size(); i++) {
+            QueryQEntry qqentry = entries.get(i);
+            Spore spore = qqentry.spore;
+            if ( error != null ) {
+                Log.Warn(this,error,"exception in parallel scan "+spore);
+                spore.complete(null, error);
+            } else {
+                List<Record> matches = results[i];
+                for (int j = 0; j < matches.size() && ! spore.isFinished(); j++) {
+                    spore.complete(matches.get(j), CONT);
+                }
+            }
+            spore.finish();
+            qqentry.onFin.run();
+        }
+    }
+
+    // changes queued meanwhile are processed before the next slice
+    @Local
+    public void _scanSlice(List<Record> snapshot, List<QueryQEntry> entries, int from) {
+        int to = Math.min(snapshot.size(), from + SCAN_SLICE_SIZE);
+        for (int i = from; i < to; i++) {
+            feed(entries, snapshot.get(i));
+        }
+        if ( to < snapshot.size() && ! entries.stream().allMatch(qqentry -> qqentry.spore.isFinished()) ) {
+            self()._scanSlice(snapshot, entries, to);
+            return;
+        }
+        storageDriver.releaseSnapshot();
+        entries.forEach( qqentry -> {
+            qqentry.spore.finish();
+            qqentry.onFin.run();
+        });
+    }
+
     protected String addChannelIdIfPresent(Callback cb, String sid) {
         if ( cb instanceof CallbackWrapper && ((CallbackWrapper) cb).isRemote() ) {
             // hack to get unique id sender#connection
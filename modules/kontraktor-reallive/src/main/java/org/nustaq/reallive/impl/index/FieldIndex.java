@@ -0,0 +1,133 @@
+package org.nustaq.reallive.impl.index;
+
+import org.nustaq.reallive.api.Record;
+import org.nustaq.reallive.query.IndexCondition;
+import org.nustaq.reallive.query.Value;
+
+import java.util.*;
+
+/**
+ * secondary index of a single record field mapping field values to record keys.
+ *
+ * Values are indexed as the query language sees them (Record.getValue): strings as String, numbers as Double.
+ * As query operators compare strings with numbers by their string representation, lookups return a superset
+ * of the matching records, the query has to be evaluated on each candidate. Array values can't be indexed,
+ * those records are always candidates.
+ *
+ * The indexed value of each record is kept, so an update does not need the previous version of the record
+ * (StorageDriver patches stored records in place).
+ */
+public abstract class FieldIndex {
+
+    static final Object UNORDERED = new Object();
+
+    protected final String field;
+    protected final Map<Object,Set<String>> buckets;
+    protected final HashMap<String,Object> indexedValues = new HashMap<>();
+    protected final HashSet<String> unordered = new HashSet<>();
+
+    protected FieldIndex(String field, Map<Object, Set<String>> buckets) {
+        this.field = field;
+        this.buckets = buckets;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void put(String key, Record rec) {
+        Object value = indexValue(rec.getValue(field));
+        Object prev = indexedValues.put(key, value);
+        if ( prev != null ) {
+            if ( prev.equals(value) )
+                return;
+            unlink(key, prev);
+        }
+        if ( value == UNORDERED ) {
+            unordered.add(key);
+        } else {
+            buckets.computeIfAbsent(value, v -> new HashSet<>()).add(key);
+        }
+    }
+
+    public void remove(String key) {
+        Object prev = indexedValues.remove(key);
+        if ( prev != null )
+            unlink(key, prev);
+    }
+
+    protected void unlink(String key, Object value) {
+        if ( value == UNORDERED ) {
+            unordered.remove(key);
+            return;
+        }
+        Set<String> keys = buckets.get(value);
+        if ( keys != null ) {
+            keys.remove(key);
+            if ( keys.isEmpty() )
+                buckets.remove(value);
+        }
+    }
+
+    public abstract boolean supports(IndexCondition condition);
+
+    /**
+     * @return number of candidates of an equality condition, -1 for ranges (not known without iteration)
+     */
+    public int estimate(IndexCondition condition) {
+        if ( ! condition.isEquality() )
+            return -1;
+        int count = unordered.size();
+        for (Object value : equalityValues(condition.getValue())) {
+            Set<String> keys = buckets.get(value);
+            if ( keys != null )
+                count += keys.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return keys of all records possibly matching the condition
+     */
+    public List<String> select(IndexCondition condition) {
+        List<String> res = new ArrayList<>(unordered);
+        if ( condition.isEquality() ) {
+            for (Object value : equalityValues(condition.getValue())) {
+                Set<String> keys = buckets.get(value);
+                if ( keys != null )
+                    res.addAll(keys);
+            }
+        } else {
+            selectRange(condition, res);
+        }
+        return res;
+    }
+
+    protected void selectRange(IndexCondition condition, List<String> res) {
+        throw new UnsupportedOperationException("range queries require a sorted index on "+field);
+    }
+
+    static Object indexValue(Value value) {
+        if ( value == null || value.isArray() )
+            return UNORDERED;
+        if ( value.isString() )
+            return value.getStringValue();
+        return value.getDoubleValue();
+    }
+
+    /**
+     * a string literal equals numbers printing as it, a number literal equals strings printing as it
+     */
+    static Object[] equalityValues(Value literal) {
+        if ( literal.isString() ) {
+            String s = literal.getStringValue();
+            try {
+                return new Object[] { s, Double.parseDouble(s) };
+            } catch (NumberFormatException nfe) {
+                return new Object[] { s };
+            }
+        }
+        return new Object[] { literal.getDoubleValue(), literal.getStringValue() };
+    }
+
+}
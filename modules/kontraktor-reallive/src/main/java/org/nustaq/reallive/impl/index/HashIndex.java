@@ -0,0 +1,21 @@
+package org.nustaq.reallive.impl.index;
+
+import org.nustaq.reallive.query.IndexCondition;
+
+import java.util.HashMap;
+
+/**
+ * secondary index for equality conditions ("field == literal")
+ */
+public class HashIndex extends FieldIndex {
+
+    public HashIndex(String field) {
+        super(field, new HashMap<>());
+    }
+
+    @Override
+    public boolean supports(IndexCondition condition) {
+        return condition.isEquality();
+    }
+
+}
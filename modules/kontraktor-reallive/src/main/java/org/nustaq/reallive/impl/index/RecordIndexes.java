@@ -0,0 +1,74 @@
+package org.nustaq.reallive.impl.index;
+
+import org.nustaq.reallive.api.Record;
+import org.nustaq.reallive.api.TableDescription;
+import org.nustaq.reallive.query.IndexCondition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the secondary indexes of a table as declared by TableDescription.hashIndex/sortedIndex
+ */
+public class RecordIndexes {
+
+    final List<FieldIndex> indexes = new ArrayList<>();
+
+    public RecordIndexes(TableDescription desc) {
+        if ( desc.getHashIndexes() != null ) {
+            for (String field : desc.getHashIndexes())
+                indexes.add(new HashIndex(field));
+        }
+        if ( desc.getSortedIndexes() != null ) {
+            for (String field : desc.getSortedIndexes())
+                indexes.add(new SortedIndex(field));
+        }
+    }
+
+    public boolean isEmpty() {
+        return indexes.isEmpty();
+    }
+
+    public List<FieldIndex> getIndexes() {
+        return indexes;
+    }
+
+    public void put(String key, Record rec) {
+        for (int i = 0; i < indexes.size(); i++)
+            indexes.get(i).put(key, rec);
+    }
+
+    public void remove(String key) {
+        for (int i = 0; i < indexes.size(); i++)
+            indexes.get(i).remove(key);
+    }
+
+    /**
+     * picks the most selective indexed condition: the equality condition with the fewest candidates,
+     * else the first range condition with a sorted index.
+     *
+     * @return keys of candidate records or null if no condition is indexed
+     */
+    public List<String> select(IndexCondition conditions[]) {
+        if ( conditions == null )
+            return null;
+        FieldIndex best = null;
+        IndexCondition bestCondition = null;
+        int bestCount = -1;
+        for (IndexCondition condition : conditions) {
+            for (int i = 0; i < indexes.size(); i++) {
+                FieldIndex index = indexes.get(i);
+                if ( ! index.getField().equals(condition.getField()) || ! index.supports(condition) )
+                    continue;
+                int count = index.estimate(condition);
+                if ( best == null || (count >= 0 && (bestCount < 0 || count < bestCount)) ) {
+                    best = index;
+                    bestCondition = condition;
+                    bestCount = count;
+                }
+            }
+        }
+        return best == null ? null : best.select(bestCondition);
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.nustaq.reallive.impl.index;
+
+import org.nustaq.reallive.query.IndexCondition;
+import org.nustaq.reallive.query.Value;
+
+import java.util.*;
+
+/**
+ * secondary index for range and equality conditions. Numbers sort before strings.
+ * Ranges are selected inclusive, the query itself decides on the bounds.
+ */
+public class SortedIndex extends FieldIndex {
+
+    static final Comparator<Object> ORDER = (a, b) -> {
+        if ( a instanceof Double )
+            return b instanceof Double ? Double.compare((Double) a, (Double) b) : -1;
+        return b instanceof Double ? 1 : ((String) a).compareTo((String) b);
+    };
+
+    static final Double MIN_NUM = Double.NEGATIVE_INFINITY;
+    static final Double MAX_NUM = Double.NaN; // greatest according to Double.compare
+
+    public SortedIndex(String field) {
+        super(field, new TreeMap<>(ORDER));
+    }
+
+    @Override
+    public boolean supports(IndexCondition condition) {
+        return true;
+    }
+
+    @Override
+    protected void selectRange(IndexCondition condition, List<String> res) {
+        NavigableMap<Object,Set<String>> sorted = (NavigableMap<Object, Set<String>>) buckets;
+        Value literal = condition.getValue();
+        boolean below = condition.getOperator().startsWith("<");
+        // strings are compared by their string representation, numbers numerically
+        String s = literal.getStringValue();
+        NavigableMap<Object,Set<String>> strings = below ? sorted.subMap("", true, s, true) : sorted.tailMap(s, true);
+        NavigableMap<Object,Set<String>> numbers;
+        if ( literal.isString() ) {
+            // numbers are compared to a string literal by their string representation, no numeric order
+            numbers = sorted.subMap(MIN_NUM, true, MAX_NUM, true);
+        } else {
+            Double d = literal.getDoubleValue();
+            numbers = below ? sorted.subMap(MIN_NUM, true, d, true) : sorted.subMap(d, true, MAX_NUM, true);
+        }
+        numbers.values().forEach(res::addAll);
+        strings.values().forEach(res::addAll);
+    }
+
+}
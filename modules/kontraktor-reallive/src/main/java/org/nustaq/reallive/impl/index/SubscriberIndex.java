@@ -0,0 +1,125 @@
+package org.nustaq.reallive.impl.index;
+
+import org.nustaq.reallive.api.Record;
+import org.nustaq.reallive.api.Subscriber;
+import org.nustaq.reallive.impl.QueryPredicate;
+import org.nustaq.reallive.query.IndexCondition;
+
+import java.util.*;
+
+/**
+ * inverted index of subscriptions: a subscriber filtering by a query with an equality conjunct
+ * "field == literal" is registered under field and literal, so a changed record only needs to be
+ * tested against the subscribers registered under its own field values (plus all unindexed subscribers).
+ *
+ * Uses the value mapping of FieldIndex, candidates are a superset of the matching subscribers.
+ */
+public class SubscriberIndex {
+
+    // field => indexed value => subscribers
+    final HashMap<String,HashMap<Object,List<Subscriber>>> byField = new HashMap<>();
+    final LinkedHashMap<Subscriber,IndexCondition> conditions = new LinkedHashMap<>();
+    final List<Subscriber> unindexed = new ArrayList<>();
+
+    public void add(Subscriber subs) {
+        IndexCondition condition = pickCondition(subs);
+        if ( condition == null ) {
+            unindexed.add(subs);
+            return;
+        }
+        conditions.put(subs, condition);
+        HashMap<Object, List<Subscriber>> values = byField.computeIfAbsent(condition.getField(), f -> new HashMap<>());
+        for (Object value : FieldIndex.equalityValues(condition.getValue())) {
+            values.computeIfAbsent(value, v -> new ArrayList<>()).add(subs);
+        }
+    }
+
+    public void remove(Subscriber subs) {
+        IndexCondition condition = conditions.remove(subs);
+        if ( condition == null ) {
+            unindexed.remove(subs);
+            return;
+        }
+        HashMap<Object, List<Subscriber>> values = byField.get(condition.getField());
+        for (Object value : FieldIndex.equalityValues(condition.getValue())) {
+            List<Subscriber> subscribers = values.get(value);
+            subscribers.remove(subs);
+            if ( subscribers.isEmpty() )
+                values.remove(value);
+        }
+        if ( values.isEmpty() )
+            byField.remove(condition.getField());
+    }
+
+    // prefer a field other subscribers are indexed by, so a change requires less lookups
+    protected IndexCondition pickCondition(Subscriber subs) {
+        if ( subs == null || subs.getFilter() instanceof QueryPredicate == false )
+            return null;
+        IndexCondition res = null;
+        for (IndexCondition condition : ((QueryPredicate) subs.getFilter()).getIndexConditions()) {
+            if ( ! condition.isEquality() )
+                continue;
+            if ( byField.containsKey(condition.getField()) )
+                return condition;
+            if ( res == null )
+                res = condition;
+        }
+        return res;
+    }
+
+    public int size() {
+        return conditions.size() + unindexed.size();
+    }
+
+    public List<Subscriber> getSubscribers() {
+        List<Subscriber> res = new ArrayList<>(unindexed);
+        res.addAll(conditions.keySet());
+        return res;
+    }
+
+    /**
+     * @return subscribers possibly matching rec
+     */
+    public List<Subscriber> candidates(Record rec) {
+        return candidates(rec, null);
+    }
+
+    /**
+     * @return subscribers possibly matching rec or prev (an update has to be tested against both versions)
+     */
+    public List<Subscriber> candidates(Record rec, Record prev) {
+        List<Subscriber> res = new ArrayList<>(unindexed);
+        if ( byField.isEmpty() )
+            return res;
+        boolean duplicates = false;
+        for (Map.Entry<String, HashMap<Object, List<Subscriber>>> entry : byField.entrySet()) {
+            String field = entry.getKey();
+            HashMap<Object, List<Subscriber>> values = entry.getValue();
+            Object value = FieldIndex.indexValue(rec.getValue(field));
+            addBucket(res, values, value);
+            duplicates |= value == FieldIndex.UNORDERED;
+            if ( prev != null ) {
+                Object prevValue = FieldIndex.indexValue(prev.getValue(field));
+                if ( ! prevValue.equals(value) ) {
+                    addBucket(res, values, prevValue);
+                    duplicates = true;
+                }
+            }
+        }
+        if ( duplicates ) // a subscriber is registered under several values of its field
+            return new ArrayList<>(new LinkedHashSet<>(res));
+        return res;
+    }
+
+    private void addBucket(List<Subscriber> res, HashMap<Object, List<Subscriber>> values, Object value) {
+        if ( value == FieldIndex.UNORDERED ) {
+            // arrays compare by length/"[array]", test all subscribers of the field
+            values.values().forEach(res::addAll);
+            return;
+        }
+        List<Subscriber> subscribers = values.get(value);
+        if ( subscribers != null )
+            res.addAll(subscribers);
+    }
+
+}
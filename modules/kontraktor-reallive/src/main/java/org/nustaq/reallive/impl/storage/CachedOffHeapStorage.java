@@ -78,6 +78,11 @@ public class CachedOffHeapStorage implements RecordStorage {
         return onHeap.stream();
     }
 
+    @Override
+    public List<Record> snapshot() {
+        return onHeap.snapshot();
+    }
+
     @Override
     public void resizeIfLoadFactorLarger(double loadFactor, long maxGrowBytes) {
         persisted.resizeIfLoadFactorLarger(loadFactor,maxGrowBytes);
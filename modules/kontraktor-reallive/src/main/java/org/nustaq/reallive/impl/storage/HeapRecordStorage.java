@@ -4,9 +4,7 @@ import org.nustaq.kontraktor.Spore;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.reallive.api.*;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Stream;
 
 /**
@@ -89,6 +87,11 @@ public class HeapRecordStorage implements RecordStorage {
         return map.entrySet().stream().map( en -> en.getValue() );
     }
 
+    @Override
+    public List<Record> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(map.values()));
+    }
+
     @Override
     public void resizeIfLoadFactorLarger(double loadFactor, long maxGrowBytes) {
         // do nothing
@@ -9,10 +9,23 @@ public class CompiledQuery implements Serializable {
 
     RLSupplier<Value> compiled;
     EvalContext[] ref;
+    IndexCondition[] indexConditions;
+    QueryNode tree;
+    transient QueryMatcher matcher; // generated lazily, also after deserialization
 
     public CompiledQuery(RLSupplier<Value> compiled, EvalContext[] ref) {
+        this(compiled, ref, new IndexCondition[0]);
+    }
+
+    public CompiledQuery(RLSupplier<Value> compiled, EvalContext[] ref, IndexCondition[] indexConditions) {
+        this(compiled, ref, indexConditions, null);
+    }
+
+    public CompiledQuery(RLSupplier<Value> compiled, EvalContext[] ref, IndexCondition[] indexConditions, QueryNode tree) {
         this.compiled = compiled;
         this.ref = ref;
+        this.indexConditions = indexConditions;
+        this.tree = tree;
     }
 
     public Value evaluate( EvalContext rec ) {
@@ -20,4 +33,24 @@ public class CompiledQuery implements Serializable {
         return compiled.get();
     }
 
+    /**
+     * same as evaluate(rec).isTrue(), uses generated bytecode unless Query.USE_BYTECODE is false
+     */
+    public boolean test( EvalContext rec ) {
+        if ( ! Query.USE_BYTECODE )
+            return evaluate(rec).isTrue();
+        QueryMatcher m = matcher;
+        if ( m == null ) {
+            m = matcher = QueryCodeGen.generate(this);
+        }
+        return m.test(rec);
+    }
+
+    /**
+     * @return top level conjuncts a secondary index can be used for, empty if there are none
+     */
+    public IndexCondition[] getIndexConditions() {
+        return indexConditions;
+    }
+
 }
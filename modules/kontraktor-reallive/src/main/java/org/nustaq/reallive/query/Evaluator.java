@@ -15,6 +15,8 @@ public class Evaluator implements Serializable {
     private QStack stackRPN;
     /* stack for holding the lambda calculation tree */
     private QStack stackAnswer = new QStack();
+    /* same tree as QueryNodes, input of QueryCodeGen */
+    private QStack stackNodes = new QStack();
 
     public Evaluator(QStack stackRPN) {
         this.stackRPN = stackRPN;
@@ -32,6 +34,7 @@ public class Evaluator implements Serializable {
 
         /* clean answer stack */
         stackAnswer.clear();
+        stackNodes.clear();
 
         /* get the clone of the RPN stack for further evaluating */
         @SuppressWarnings("unchecked")
@@ -43,23 +46,28 @@ public class Evaluator implements Serializable {
             if (token instanceof ArrayValue ) {
                 ArrayValue val = (ArrayValue) token;
                 stackAnswer.push( val.getEval() );
+                pushNode(token, 0);
             } else
             if (token instanceof Value)
             {
                 stackAnswer.push( (RLSupplier) ()->token );
+                pushNode(token, 0);
             } else if (token instanceof Operator) {
                 int arity = ((Operator) token).getArity();
                 if ( arity == 2 ) {
                     RLSupplier a = (RLSupplier) stackAnswer.pop();
                     RLSupplier b = (RLSupplier) stackAnswer.pop();
                     stackAnswer.push( ((Operator) token).getEval(a,b));
+                    pushNode(token, 2);
                 } else { // assume 1
                     RLSupplier a = (RLSupplier) stackAnswer.pop();
                     stackAnswer.push( ((Operator) token).getEval(a,null));
+                    pushNode(token, 1);
                 }
             } else if (token instanceof VarPath) {
                 VarPath vp = (VarPath) token;
                 stackAnswer.push( vp.getEval() );
+                pushNode(token, 0);
             } else if (token instanceof FuncOperand) {
                 FuncOperand func = (FuncOperand) token;
                 if ( func.getArity() < 0 ) {
@@ -68,12 +76,14 @@ public class Evaluator implements Serializable {
                     for (int i = 0; i < size; i++) {
                         args[size - i - 1] = ((RLSupplier<Value>) stackAnswer.pop());
                     }
+                    stackNodes.clear();
                 } else {
                     RLSupplier<Value> args[] = new RLSupplier[func.getArity()];
                     for (int i = 0; i < args.length; i++) {
                         args[args.length - i - 1] = ((RLSupplier<Value>) stackAnswer.pop());
                     }
                     stackAnswer.push(func.getEval(args));
+                    pushNode(token, args.length);
                 }
             }
         }
@@ -85,6 +95,22 @@ public class Evaluator implements Serializable {
         return valueArray ? null : (RLSupplier<Value>) stackAnswer.pop();
     }
 
+    // mirrors the top of stackAnswer
+    private void pushNode(Object token, int arity) {
+        QueryNode args[] = new QueryNode[arity];
+        for (int i = arity - 1; i >= 0; i--) {
+            args[i] = stackNodes.empty() ? null : (QueryNode) stackNodes.pop();
+        }
+        stackNodes.push(new QueryNode(token, args, (RLSupplier<Value>) stackAnswer.lastElement()));
+    }
+
+    /**
+     * @return expression tree of the last evaluate() or null
+     */
+    public QueryNode getTree() {
+        return stackNodes.size() == 1 ? (QueryNode) stackNodes.get(0) : null;
+    }
+
     private String findNearesToken(QStack stack) {
         int i = stack.size()-1;
         while ( i >= 0 ) {
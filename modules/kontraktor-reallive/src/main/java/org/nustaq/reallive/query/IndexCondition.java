@@ -0,0 +1,58 @@
+package org.nustaq.reallive.query;
+
+import java.io.Serializable;
+
+/**
+ * a conjunct "field operator literal" of a compiled query. As it has to hold for the whole query to be true,
+ * a secondary index on field can preselect candidate records (which are then tested against the full query).
+ */
+public class IndexCondition implements Serializable {
+
+    String field;
+    String operator; // == < <= > >=
+    Value value;
+
+    public IndexCondition(String field, String operator, Value value) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    /**
+     * @return equivalent condition for "literal operator field"
+     */
+    public IndexCondition flip() {
+        switch (operator) {
+            case "<": return new IndexCondition(field, ">", value);
+            case "<=": return new IndexCondition(field, ">=", value);
+            case ">": return new IndexCondition(field, "<", value);
+            case ">=": return new IndexCondition(field, "<=", value);
+            default: return this;
+        }
+    }
+
+    public boolean isEquality() {
+        return "==".equals(operator);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public Value getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexCondition{" +
+                "field='" + field + '\'' +
+                ", operator='" + operator + '\'' +
+                ", value=" + value +
+                '}';
+    }
+}
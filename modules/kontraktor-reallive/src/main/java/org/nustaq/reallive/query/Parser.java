@@ -57,7 +57,84 @@ public class Parser {
     public CompiledQuery compile(String query) {
         ctxRef = new EvalContext[1];
         parse(query);
-        return new CompiledQuery(new Evaluator(stackRPN).evaluate(),ctxRef);
+        Evaluator evaluator = new Evaluator(stackRPN);
+        RLSupplier<Value> compiled = evaluator.evaluate();
+        return new CompiledQuery(compiled,ctxRef,findIndexConditions(),evaluator.getTree());
+    }
+
+    private static final Object OPAQUE = new Object();
+
+    /**
+     * walks the RPN like Evaluator does and collects the conjuncts "field op literal" (op one of == < <= > >=)
+     * of the top level && chain. Anything else (functions, ||, nested paths, computed values) is opaque.
+     */
+    protected IndexCondition[] findIndexConditions() {
+        QStack stack = new QStack();
+        try {
+            for (int i = stackRPN.size() - 1; i >= 0; i--) {
+                Object token = stackRPN.get(i);
+                if (token instanceof VarPath) {
+                    stack.push(((VarPath) token).fields == null ? token : OPAQUE);
+                } else if (token instanceof StringValue || token instanceof LongValue || token instanceof DoubleValue) {
+                    stack.push(token);
+                } else if (token instanceof Operator) {
+                    Operator op = (Operator) token;
+                    if (op.getArity() == 2) {
+                        Object right = stack.pop();
+                        Object left = stack.pop();
+                        stack.push(combine(op.getString(), left, right));
+                    } else {
+                        stack.pop();
+                        stack.push(OPAQUE);
+                    }
+                } else if (token instanceof FuncOperand) {
+                    FuncOperand func = (FuncOperand) token;
+                    if (func.getArity() < 0) {
+                        stack.clear();
+                    } else {
+                        for (int n = 0; n < func.getArity(); n++)
+                            stack.pop();
+                        stack.push(OPAQUE);
+                    }
+                } else {
+                    stack.push(OPAQUE);
+                }
+            }
+        } catch (EmptyStackException ese) {
+            return new IndexCondition[0];
+        }
+        if (stack.size() != 1)
+            return new IndexCondition[0];
+        List<IndexCondition> res = new ArrayList<>();
+        addConditions(res, stack.peek());
+        return res.toArray(new IndexCondition[res.size()]);
+    }
+
+    private Object combine(String op, Object left, Object right) {
+        switch (op) {
+            case "&&":
+                List<IndexCondition> res = new ArrayList<>();
+                addConditions(res, left);
+                addConditions(res, right);
+                return res.isEmpty() ? OPAQUE : res;
+            case "==":
+            case "<":
+            case "<=":
+            case ">":
+            case ">=":
+                if (left instanceof VarPath && right instanceof Value)
+                    return new IndexCondition(((VarPath) left).field, op, (Value) right);
+                if (right instanceof VarPath && left instanceof Value)
+                    return new IndexCondition(((VarPath) right).field, op, (Value) left).flip();
+        }
+        return OPAQUE;
+    }
+
+    private void addConditions(List<IndexCondition> res, Object node) {
+        if (node instanceof IndexCondition)
+            res.add((IndexCondition) node);
+        else if (node instanceof List)
+            res.addAll((List<IndexCondition>) node);
     }
 
     /**
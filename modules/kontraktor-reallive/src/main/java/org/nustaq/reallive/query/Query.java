@@ -7,6 +7,11 @@ import java.util.HashMap;
  */
 public class Query {
 
+    /**
+     * evaluate queries by generated bytecode (QueryCodeGen), set to false to debug with the interpreter
+     */
+    public static boolean USE_BYTECODE = true;
+
     public static synchronized CompiledQuery compile(String query) {
         return newParser().compile(query);
     }
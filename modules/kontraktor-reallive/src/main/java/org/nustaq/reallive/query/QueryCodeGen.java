@@ -0,0 +1,149 @@
+package org.nustaq.reallive.query;
+
+import javassist.*;
+import org.nustaq.kontraktor.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * compiles the expression tree of a query to a QueryMatcher subclass (javassist).
+ *
+ * Comparisons of a plain field with a literal, &&, || and ! are compiled to direct calls of the QueryMatcher
+ * helpers on the raw field values. Any other subexpression (functions, arithmetic, nested paths, ..) calls
+ * the interpreting closure of its node. Literals and fallbacks are passed as instance data, so queries
+ * differing only in literals share a generated class.
+ */
+public class QueryCodeGen {
+
+    static final HashMap<String,Class> generatedClasses = new HashMap<>();
+    static int classCount;
+
+    List<String> strings = new ArrayList<>();
+    List<Long> longs = new ArrayList<>();
+    List<Double> doubles = new ArrayList<>();
+    List<RLSupplier> fallbacks = new ArrayList<>();
+
+    /**
+     * @return a matcher for the query, an interpreting one if the query can't be compiled
+     */
+    public static QueryMatcher generate(CompiledQuery query) {
+        if ( query.tree != null ) {
+            try {
+                return new QueryCodeGen().createMatcher(query.tree, query.ref);
+            } catch (Exception e) {
+                Log.Warn(QueryCodeGen.class, e, "failed to compile query, falling back to interpreter");
+            }
+        }
+        return new QueryMatcher() {
+            @Override
+            public boolean test(EvalContext ctx) {
+                return query.evaluate(ctx).isTrue();
+            }
+        };
+    }
+
+    protected QueryMatcher createMatcher(QueryNode tree, EvalContext ref[]) throws Exception {
+        String expr = genBool(tree);
+        String body = "public boolean test("+EvalContext.class.getName()+" ctx) { " +
+            (fallbacks.isEmpty() ? "" : "ref[0] = ctx; ") +
+            "return "+expr+"; }";
+        Class clazz;
+        synchronized (generatedClasses) {
+            clazz = generatedClasses.get(body);
+            if ( clazz == null ) {
+                clazz = defineClass(body);
+                generatedClasses.put(body, clazz);
+            }
+        }
+        long ls[] = new long[longs.size()];
+        for (int i = 0; i < ls.length; i++)
+            ls[i] = longs.get(i);
+        double ds[] = new double[doubles.size()];
+        for (int i = 0; i < ds.length; i++)
+            ds[i] = doubles.get(i);
+        return ((QueryMatcher) clazz.newInstance()).init(
+            strings.toArray(new String[strings.size()]), ls, ds,
+            fallbacks.toArray(new RLSupplier[fallbacks.size()]), ref
+        );
+    }
+
+    protected Class defineClass(String body) throws Exception {
+        ClassPool pool = ClassPool.getDefault();
+        pool.insertClassPath(new ClassClassPath(QueryMatcher.class));
+        CtClass cc = pool.makeClass(QueryMatcher.class.getName() + "_" + (classCount++));
+        cc.setSuperclass(pool.get(QueryMatcher.class.getName()));
+        cc.addMethod(CtMethod.make(body, cc));
+        // same as ActorProxyFactory.loadProxyClass
+        Loader cl = new Loader(QueryMatcher.class.getClassLoader(), pool) {
+            protected Class loadClassByDelegation(String name) throws ClassNotFoundException {
+                if ( name.equals(cc.getName()) )
+                    return null;
+                return delegateToParent(name);
+            }
+        };
+        Class clazz = cl.loadClass(cc.getName());
+        cc.detach();
+        return clazz;
+    }
+
+    protected String genBool(QueryNode node) {
+        Object token = node.token;
+        if ( token instanceof Operator ) {
+            String name = ((Operator) token).getString();
+            QueryNode args[] = node.args;
+            if ( args.length == 2 && ("&&".equals(name) || "||".equals(name)) )
+                return "(" + genBool(args[0]) + " " + name + " " + genBool(args[1]) + ")";
+            if ( args.length == 1 && "!".equals(name) )
+                return "(!" + genBool(args[0]) + ")";
+            int op = QueryMatcher.operator(name);
+            if ( args.length == 2 && op >= 0 ) {
+                if ( isField(args[0]) && isLiteral(args[1]) )
+                    return genCompare(args[0], op, (Value) args[1].token);
+                if ( isField(args[1]) && isLiteral(args[0]) )
+                    return genCompare(args[1], QueryMatcher.flip(op), (Value) args[0].token);
+            }
+        } else if ( isField(node) ) {
+            return matcher() + ".truth(" + genField(node) + ")";
+        }
+        fallbacks.add(node.eval);
+        return "((" + Value.class.getName() + ")fallbacks[" + (fallbacks.size() - 1) + "].get()).isTrue()";
+    }
+
+    protected String genCompare(QueryNode field, int op, Value literal) {
+        String f = genField(field);
+        strings.add(literal.getStringValue());
+        String litString = "strings[" + (strings.size() - 1) + "]";
+        if ( literal.isString() )
+            return matcher() + ".cmpS(" + f + ", " + litString + ", " + op + ")";
+        if ( literal.isDouble() ) {
+            doubles.add(literal.getDoubleValue());
+            return matcher() + ".cmpD(" + f + ", doubles[" + (doubles.size() - 1) + "], " + litString + ", " + op + ")";
+        }
+        longs.add(literal.getLongValue());
+        return matcher() + ".cmpL(" + f + ", longs[" + (longs.size() - 1) + "], " + litString + ", " + op + ")";
+    }
+
+    protected String genField(QueryNode node) {
+        String field = ((VarPath) node.token).field;
+        String quoted = "\"" + field.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        if ( field.startsWith("_") ) // Record.getValue special fields (_key, _lastModified)
+            return "ctx.getValue(" + quoted + ").getValue()";
+        return "ctx.get(" + quoted + ")";
+    }
+
+    protected boolean isField(QueryNode node) {
+        return node != null && node.token instanceof VarPath && ((VarPath) node.token).fields == null;
+    }
+
+    protected boolean isLiteral(QueryNode node) {
+        return node != null && (node.token instanceof StringValue || node.token instanceof LongValue ||
+            node.token instanceof DoubleValue || node.token instanceof BooleanValue);
+    }
+
+    private String matcher() {
+        return QueryMatcher.class.getName();
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.nustaq.reallive.query;
+
+/**
+ * boolean evaluation of a query against a record. Subclasses are generated by QueryCodeGen.
+ *
+ * The static helpers compare a raw field value (as returned by EvalContext.get) with a literal using the same
+ * rules as the interpreter (Operator.compare on EvalContext.getValue) without creating Value objects:
+ * strings compare with anything by string representation, else doubles numerically, else longs.
+ */
+public abstract class QueryMatcher {
+
+    public static final int EQ = 0;
+    public static final int NE = 1;
+    public static final int LT = 2;
+    public static final int LE = 3;
+    public static final int GT = 4;
+    public static final int GE = 5;
+
+    protected String strings[];
+    protected long longs[];
+    protected double doubles[];
+    protected RLSupplier fallbacks[]; // interpreted subexpressions
+    protected EvalContext ref[]; // record of the interpreted subexpressions
+
+    public abstract boolean test(EvalContext ctx);
+
+    public QueryMatcher init(String strings[], long longs[], double doubles[], RLSupplier fallbacks[], EvalContext ref[]) {
+        this.strings = strings;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.fallbacks = fallbacks;
+        this.ref = ref;
+        return this;
+    }
+
+    public static int operator(String op) {
+        switch (op) {
+            case "==": return EQ;
+            case "!=": return NE;
+            case "<": return LT;
+            case "<=": return LE;
+            case ">": return GT;
+            case ">=": return GE;
+            default: return -1;
+        }
+    }
+
+    /**
+     * @return op with swapped operands (lit < field => field > lit)
+     */
+    public static int flip(int op) {
+        switch (op) {
+            case LT: return GT;
+            case LE: return GE;
+            case GT: return LT;
+            case GE: return LE;
+            default: return op;
+        }
+    }
+
+    public static boolean cmpS(Object field, String lit, int op) {
+        return sop(str(field), lit, op);
+    }
+
+    public static boolean cmpL(Object field, long lit, String litString, int op) {
+        if ( field instanceof Double || field instanceof Float )
+            return dop(((Number) field).doubleValue(), lit, op);
+        if ( field instanceof Number )
+            return lop(((Number) field).longValue(), lit, op);
+        if ( field instanceof Object[] )
+            return lop(((Object[]) field).length, lit, op);
+        return sop(str(field), litString, op);
+    }
+
+    public static boolean cmpD(Object field, double lit, String litString, int op) {
+        if ( field instanceof Double || field instanceof Float )
+            return dop(((Number) field).doubleValue(), lit, op);
+        if ( field instanceof Number )
+            return dop(((Number) field).longValue(), lit, op);
+        if ( field instanceof Object[] )
+            return dop(((Object[]) field).length, lit, op);
+        return sop(str(field), litString, op);
+    }
+
+    /**
+     * Value.isTrue of a field value
+     */
+    public static boolean truth(Object field) {
+        if ( field instanceof Double || field instanceof Float )
+            return (long) ((Number) field).doubleValue() != 0;
+        if ( field instanceof Number )
+            return ((Number) field).longValue() != 0;
+        if ( field instanceof Object[] )
+            return ((Object[]) field).length != 0;
+        String sv = str(field);
+        return !"false".equals(sv) && sv.length() > 0 && !"0".equals(sv);
+    }
+
+    static String str(Object field) {
+        if ( field == null )
+            return "";
+        if ( field instanceof String )
+            return (String) field;
+        if ( field instanceof Double || field instanceof Float )
+            return String.valueOf(((Number) field).doubleValue());
+        if ( field instanceof Number )
+            return String.valueOf(((Number) field).longValue());
+        if ( field instanceof Object[] )
+            return "[array]";
+        return field.toString();
+    }
+
+    static boolean sop(String a, String b, int op) {
+        switch (op) {
+            case EQ: return a.equals(b);
+            case NE: return a.compareTo(b) != 0;
+            case LT: return a.compareTo(b) < 0;
+            case LE: return a.compareTo(b) <= 0;
+            case GT: return a.compareTo(b) > 0;
+            default: return a.compareTo(b) >= 0;
+        }
+    }
+
+    static boolean lop(long a, long b, int op) {
+        switch (op) {
+            case EQ: return a == b;
+            case NE: return a != b;
+            case LT: return a < b;
+            case LE: return a <= b;
+            case GT: return a > b;
+            default: return a >= b;
+        }
+    }
+
+    static boolean dop(double a, double b, int op) {
+        switch (op) {
+            case EQ: return a == b;
+            case NE: return a != b;
+            case LT: return a < b;
+            case LE: return a <= b;
+            case GT: return a > b;
+            default: return a >= b;
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.nustaq.reallive.query;
+
+import java.io.Serializable;
+
+/**
+ * node of the expression tree of a compiled query, kept along with the interpreting closure of the node.
+ * args are in source order (left operand first).
+ */
+public class QueryNode implements Serializable {
+
+    Object token; // VarPath, Value, Operator or FuncOperand
+    QueryNode args[];
+    RLSupplier<Value> eval;
+
+    public QueryNode(Object token, QueryNode[] args, RLSupplier<Value> eval) {
+        this.token = token;
+        this.args = args;
+        this.eval = eval;
+    }
+
+    public Object getToken() {
+        return token;
+    }
+
+    public QueryNode[] getArgs() {
+        return args;
+    }
+
+    public RLSupplier<Value> getEval() {
+        return eval;
+    }
+
+}
@@ -1,6 +1,9 @@
 package newimpl;
 
 import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.nustaq.kontraktor.Actor;
 import org.nustaq.kontraktor.Actors;
 import org.nustaq.kontraktor.IPromise;
@@ -12,10 +15,16 @@ import org.nustaq.reallive.impl.tablespace.TableSpaceActor;
 import org.nustaq.reallive.api.*;
 import org.nustaq.reallive.impl.*;
 import org.nustaq.reallive.impl.storage.*;
+import org.nustaq.reallive.query.CompiledQuery;
+import org.nustaq.reallive.query.Query;
 import org.nustaq.reallive.records.MapRecord;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
@@ -401,4 +410,245 @@ public class Basic {
         rls.stop();
     }
 
+    @Test
+    public void testIndexedQuery() {
+        assertEquals(2, Query.compile("userId == 'u3' && 10 < age && lower(name) ** 'x'").getIndexConditions().length);
+        assertEquals(0, Query.compile("userId == 'u3' || age > 10").getIndexConditions().length);
+
+        RealLiveTableActor indexed = Actors.AsActor(RealLiveTableActor.class);
+        indexed.init( d -> new HeapRecordStorage(), new TableDescription("indexed").hashIndex("userId").sortedIndex("age") ).await();
+        RealLiveTableActor plain = Actors.AsActor(RealLiveTableActor.class);
+        plain.init( d -> new HeapRecordStorage(), new TableDescription("plain") ).await();
+
+        for (int i = 0; i < 2000; i++) {
+            Object age = i % 7 == 0 ? "" + (i % 100) : i % 5 == 0 ? (double) (i % 100) : (Object) (i % 100);
+            for (RealLiveTable table : new RealLiveTable[] {indexed, plain}) {
+                table.setRecord(0, MapRecord.New("k" + i).put("userId", "u" + (i % 50)).put("age", age));
+                if ( i % 3 == 0 )
+                    table.update(0, "k" + i, "userId", "u" + (i % 7));
+                if ( i % 11 == 0 )
+                    table.remove(0, "k" + i);
+            }
+        }
+        String queries[] = {
+            "userId == 'u3'", "'u3' == userId && age > 20", "age == 42", "age == '42'", "age >= 90", "age < 10.5",
+            "age > '5'", "userId == 'nope'", "age > 10 && age <= 20 && userId == 'u4'"
+        };
+        for (String q : queries) {
+            HashSet expected = new HashSet();
+            plain.queryList(new QueryPredicate<>(q)).await().forEach(r -> expected.add(r.getKey()));
+            HashSet actual = new HashSet();
+            indexed.queryList(new QueryPredicate<>(q)).await().forEach(r -> actual.add(r.getKey()));
+            assertEquals(q, expected, actual);
+        }
+        assertTrue(indexed.find(new QueryPredicate<>("userId == 'u3'")).await() != null);
+        indexed.stop();
+        plain.stop();
+    }
+
+    @Test
+    public void testQueryCodeGen() {
+        Object values[] = { null, "", "0", "5", "5.0", "abc", "true", 0, 5, 7L, 5.0, 5.5f, Double.NaN, -3, true, new Object[] {1,2} };
+        String queries[] = {
+            "x == 5", "x == '5'", "x != 5", "x < 5.5", "5 <= x", "x > 'a'", "x >= true", "x", "!x",
+            "x == 5 && y < 3 || ! y", "(x == 5 || y < 3) && x != 'abc'", "x ** [5,7]", "lower(x) == 'abc'",
+            "x + 1 > 6", "_key == 'k'", "x == y", "exists(x) && x >= 5.0", "x == 5 ^ y == 5"
+        };
+        for (String q : queries) {
+            CompiledQuery compiled = Query.compile(q);
+            for (Object x : values) {
+                for (Object y : values) {
+                    MapRecord rec = MapRecord.New("k");
+                    if ( x != null )
+                        rec.put("x", x);
+                    if ( y != null )
+                        rec.put("y", y);
+                    assertEquals(q+" x="+x+" y="+y, compiled.evaluate(rec).isTrue(), compiled.test(rec));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSubscriberIndex() {
+        StorageDriver driver = new StorageDriver(new HeapRecordStorage());
+        FilterProcessor filterProcessor = new FilterProcessor(null);
+        driver.setListener(filterProcessor);
+        String queries[] = { "userId == 'u3'", "userId == 'u4' && age > 10", "age == 5", "age == '6'", "age > 50", "tag == 'x' || age == 6" };
+        List<List<String>> indexed = new ArrayList<>();
+        List<List<String>> plain = new ArrayList<>();
+        for (String q : queries) {
+            for (int i = 0; i < 20; i++) { // many subscribers per query
+                List<String> received = new ArrayList<>();
+                filterProcessor.startListening(new Subscriber(new QueryPredicate<>(q), change -> received.add(change.getType()+":"+change.getKey())));
+                indexed.add(received);
+            }
+            QueryPredicate<Record> predicate = new QueryPredicate<>(q);
+            List<String> received = new ArrayList<>();
+            filterProcessor.startListening(new Subscriber(rec -> predicate.test(rec), change -> received.add(change.getType()+":"+change.getKey())));
+            plain.add(received);
+        }
+        for (int i = 0; i < 3000; i++) {
+            String key = "k" + (i % 300);
+            switch (i % 4) {
+                case 0: driver.put(0, key, "userId", "u" + (i % 7), "age", i % 3 == 0 ? (Object) (i % 100) : (Object) ("" + i % 100)); break;
+                case 1: driver.update(0, key, "userId", "u" + (i % 5)); break;
+                case 2: driver.update(0, key, "age", i % 5 == 0 ? 5.0 : (Object) (i % 60), "tag", new Object[] {i}); break;
+                default: if ( i % 3 == 0 ) driver.remove(0, key);
+            }
+        }
+        for (int i = 0; i < indexed.size(); i++) {
+            assertEquals(queries[i / 20], plain.get(i / 20), indexed.get(i));
+        }
+        assertTrue(plain.stream().allMatch(received -> received.size() > 0));
+    }
+
+    @Test
+    public void testParallelScan() {
+        int minSize = RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE;
+        int chunkSize = ParallelScan.MIN_CHUNK_SIZE;
+        ParallelScan.MIN_CHUNK_SIZE = 100;
+        try {
+            List<RealLiveTableActor> tables = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                RealLiveTableActor table = Actors.AsActor(RealLiveTableActor.class);
+                boolean offHeap = t == 1; // no snapshot support, stays on the sequential scan
+                table.init( d -> offHeap ? new OffHeapRecordStorage(32, 50, 10_000) : new HeapRecordStorage(), new TableDescription("scan"+t) ).await();
+                for (int i = 0; i < 5000; i++) {
+                    table.setRecord(0, MapRecord.New("k" + i).put("userId", "u" + (i % 50)).put("age", i % 100));
+                }
+                tables.add(table);
+            }
+            String queries[] = { "userId == 'u3'", "age > 20 && age < 30", "age == 'x'", "lower(userId) ** 'u1'" };
+            for (RealLiveTableActor table : tables) {
+                for (String q : queries) {
+                    RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = 0;
+                    HashSet expected = new HashSet();
+                    table.queryList(new QueryPredicate<>(q)).await().forEach(r -> expected.add(r.getKey()));
+                    RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = 1;
+                    HashSet actual = new HashSet();
+                    List<Record> res = table.queryList(new QueryPredicate<>(q)).await();
+                    res.forEach(r -> actual.add(r.getKey()));
+                    assertEquals(q, expected.size(), res.size());
+                    assertEquals(q, expected, actual);
+                }
+                table.stop();
+            }
+        } finally {
+            RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = minSize;
+            ParallelScan.MIN_CHUNK_SIZE = chunkSize;
+        }
+
+        // records of a snapshot in use are not patched
+        StorageDriver driver = new StorageDriver(new HeapRecordStorage());
+        driver.put(0, "k", "age", 1);
+        List<Record> snapshot = driver.snapshot();
+        driver.update(0, "k", "age", 2);
+        assertEquals(1, snapshot.get(0).getInt("age"));
+        assertEquals(2, driver.getStore().get("k").getInt("age"));
+        driver.releaseSnapshot();
+    }
+
+    @Test
+    public void testSnapshotSubscription() throws InterruptedException {
+        int minSize = RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE;
+        int sliceSize = RealLiveTableActor.SCAN_SLICE_SIZE;
+        RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = 1;
+        RealLiveTableActor.SCAN_SLICE_SIZE = 50;
+        try {
+            RealLiveTableActor table = Actors.AsActor(RealLiveTableActor.class);
+            table.init( d -> new HeapRecordStorage(), new TableDescription("snapshot") ).await();
+            for (int i = 0; i < 2000; i++) {
+                table.setRecord(0, MapRecord.New("k" + i).put("age", i % 100));
+            }
+            // query predicate (parallel scan) and lambda (sliced scan)
+            RLPredicate<Record> lambda = rec -> rec.getInt("age") < 30;
+            RLPredicate<Record> preds[] = new RLPredicate[] { new QueryPredicate<>("age < 30"), lambda };
+            List<Map<String,Object>> states = new ArrayList<>();
+            AtomicInteger done = new AtomicInteger();
+            for (RLPredicate<Record> pred : preds) {
+                Map<String,Object> state = new ConcurrentHashMap<>();
+                table.subscribe(new Subscriber(pred, change -> {
+                    switch (change.getType()) {
+                        case ChangeMessage.ADD:
+                        case ChangeMessage.UPDATE:
+                        case ChangeMessage.PUT: state.put(change.getKey(), change); break;
+                        case ChangeMessage.REMOVE: state.remove(change.getKey()); break;
+                        case ChangeMessage.QUERYDONE: done.incrementAndGet(); break;
+                    }
+                }));
+                states.add(state);
+            }
+            // changes while the initial queries run
+            for (int i = 0; i < 2000; i++) {
+                if ( i % 3 == 0 )
+                    table.update(0, "k" + i, "age", (i * 7) % 100);
+                if ( i % 5 == 0 )
+                    table.remove(0, "k" + i);
+                if ( i % 7 == 0 )
+                    table.setRecord(0, MapRecord.New("n" + i).put("age", i % 50));
+            }
+            HashSet expected = new HashSet();
+            table.queryList(new QueryPredicate<>("age < 30")).await().forEach(r -> expected.add(r.getKey()));
+            for (int i = 0; i < 100 && ! states.stream().allMatch(state -> state.keySet().equals(expected)); i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(2, done.get());
+            for (Map<String, Object> state : states) {
+                assertEquals(expected, state.keySet());
+            }
+            table.stop();
+        } finally {
+            RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = minSize;
+            RealLiveTableActor.SCAN_SLICE_SIZE = sliceSize;
+        }
+    }
+
+    static volatile boolean failScan;
+
+    @Test
+    public void testSubscriptionScanError() throws InterruptedException {
+        int minSize = RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE;
+        try {
+            // sequential scan, then sliced snapshot scan
+            for (int scanMinSize : new int[] { minSize, 1 }) {
+                RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = scanMinSize;
+                RealLiveTableActor table = Actors.AsActor(RealLiveTableActor.class);
+                table.init( d -> new HeapRecordStorage(), new TableDescription("scanerror") ).await();
+                for (int i = 0; i < 100; i++) {
+                    table.setRecord(0, MapRecord.New("k" + i).put("age", i));
+                }
+                failScan = true;
+                RLPredicate<Record> pred = rec -> {
+                    if ( failScan )
+                        throw new RuntimeException("scan failed");
+                    return rec.getInt("age") < 30;
+                };
+                Map<String,Object> state = new ConcurrentHashMap<>();
+                AtomicInteger done = new AtomicInteger();
+                table.subscribe(new Subscriber(pred, change -> {
+                    if ( change.getType() == ChangeMessage.QUERYDONE )
+                        done.incrementAndGet();
+                    else
+                        state.put(change.getKey(), change);
+                }));
+                for (int i = 0; i < 100 && done.get() == 0; i++) {
+                    Thread.sleep(50);
+                }
+                assertTrue(done.get() > 0);
+                failScan = false;
+                // changes must not be held back after the failed initial query
+                table.setRecord(0, MapRecord.New("n1").put("age", 1));
+                for (int i = 0; i < 100 && ! state.containsKey("n1"); i++) {
+                    Thread.sleep(50);
+                }
+                assertTrue(state.containsKey("n1"));
+                table.stop();
+            }
+        } finally {
+            failScan = false;
+            RealLiveTableActor.SNAPSHOT_SCAN_MIN_SIZE = minSize;
+        }
+    }
+
 }
@@ -123,6 +123,8 @@ public class Actor<SELF extends Actor> extends Actors implements Serializable, M
     public Queue __cbQueue; // queue of callbacks/future results
     public Thread __currentDispatcher; // thread of this actor
     public Scheduler __scheduler;
+    public ActorInvoker __invoker; // generated direct dispatch, null => reflection
+    public volatile int __ready; // 1 if queued as ready at dispatcher (ready queue mode only) or pending at connection (remote refs)
     public volatile boolean __stopped;
     public Actor __self; // the proxy object
     private Map<String,Runnable> _debounceMap;
@@ -382,7 +384,7 @@ public class Actor<SELF extends Actor> extends Actors implements Serializable, M
      *
      */
     protected final void checkThread() {
-        if (getCurrentDispatcher() != null && getCurrentDispatcher() != Thread.currentThread()) {
+        if (getCurrentDispatcher() != null && getCurrentDispatcher() != DispatcherThread.current()) {
             Log.Error(this,"UNEXPECTED MULTITHREADING");
             throw new RuntimeException("Wrong Thread");
         } else if ( getCurrentDispatcher() == null ){
@@ -575,15 +577,16 @@ public class Actor<SELF extends Actor> extends Actors implements Serializable, M
         throw InternalActorStoppedException.Instance;
     }
 
-    // dispatch an outgoing call to the target actor queue. Runs in Caller Thread
-    @CallerSideMethod public Object __enqueueCall( Actor receiver, String methodName, Object args[], boolean isCB ) {
+    // dispatch an outgoing call to the target actor queue. Runs in Caller Thread.
+    // methodId is the id assigned by ActorProxyFactory (see ActorInvoker), methodName is kept for fallback + dead letters
+    @CallerSideMethod public Object __enqueueCall( Actor receiver, String methodName, int methodId, Object args[], boolean isCB ) {
         if ( __stopped ) {
             if ( methodName.equals("stop") ) // ignore double stop
                 return null;
             __addDeadLetter(receiver, methodName);
 //            throw new RuntimeException("Actor " + this + " received message after being stopped " + methodName);
         }
-        return __scheduler.enqueueCall(sender.get(), receiver, methodName, args, isCB);
+        return __scheduler.enqueueCall(sender.get(), receiver, methodName, methodId, args, isCB);
     }
 
     @CallerSideMethod public void __addDeadLetter(Actor receiver, String methodName) {
@@ -657,7 +660,7 @@ public class Actor<SELF extends Actor> extends Actors implements Serializable, M
                             Log.Warn(this, ex, "--");
                         }
                     };
-                    if ( Thread.currentThread() != __currentDispatcher )
+                    if ( DispatcherThread.current() != __currentDispatcher )
                         self().execute(runnable);
                     else
                         runnable.run();
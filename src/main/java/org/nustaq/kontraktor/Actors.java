@@ -17,6 +17,7 @@ See https://www.gnu.org/licenses/lgpl.txt
 package org.nustaq.kontraktor;
 
 import org.nustaq.kontraktor.impl.*;
+import org.nustaq.kontraktor.util.HashedWheelTimer;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.kontraktor.util.PromiseLatch;
 
@@ -76,8 +77,18 @@ public class Actors {
         exec.allowCoreThreadTimeOut(true);
     }
     public static ActorsImpl instance = new ActorsImpl(); // public for testing
+    /**
+     * java.util.Timer formerly used for delayed calls and timeouts, kept for compatibility. Use timer() instead.
+     */
     public static Timer delayedCalls = new Timer();
 
+    /**
+     * number of wheel timers backing delayed calls and promise timeouts. Calls from dispatcher threads
+     * are spread over shards by dispatcher. Must be set before first use.
+     */
+    public static int TIMER_SHARDS = 1;
+    static volatile HashedWheelTimer timers[];
+
     public static Supplier<Scheduler> defaultScheduler = () -> new SimpleScheduler();
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -134,12 +145,31 @@ public class Actors {
      * utility function. Executed in foreign thread. Use Actor::delayed() to have the runnable executed inside actor thread
      */
     public static void SubmitDelayed( long millis, Runnable task ) {
-        Actors.delayedCalls.schedule( new TimerTask() {
-            @Override
-            public void run() {
-                task.run();
+        timer().schedule(task,millis);
+    }
+
+    /**
+     * @return timer used for delayed calls and timeouts. Tasks are executed in the timer thread.
+     */
+    public static HashedWheelTimer timer() {
+        HashedWheelTimer res[] = timers;
+        if ( res == null ) {
+            synchronized (Actors.class) {
+                if ( timers == null ) {
+                    HashedWheelTimer shards[] = new HashedWheelTimer[Math.max(1,TIMER_SHARDS)];
+                    for (int i = 0; i < shards.length; i++) {
+                        shards[i] = new HashedWheelTimer("kontraktor timer "+i);
+                    }
+                    timers = shards;
+                }
+                res = timers;
             }
-        },millis);
+        }
+        if ( res.length == 1 )
+            return res[0];
+        DispatcherThread dispatcher = DispatcherThread.current();
+        int hash = dispatcher != null ? System.identityHashCode(dispatcher) : (int) Thread.currentThread().getId();
+        return res[(hash & Integer.MAX_VALUE) % res.length];
     }
 
     public static void AddDeadLetter(String s) {
@@ -431,16 +461,17 @@ public class Actors {
         if ( timeout > 0 ) {
             endtime = System.currentTimeMillis() + timeout;
         }
-        if ( Thread.currentThread() instanceof DispatcherThread ) {
-            DispatcherThread dt = (DispatcherThread) Thread.currentThread();
-            Scheduler scheduler = dt.getScheduler();
+        DispatcherThread dt = DispatcherThread.current();
+        if ( dt != null ) {
+            long maxPark = dt.getScheduler().getBackoffStrategy().getNanosToPark();
             boolean term = false;
             int idleCount = 0;
             while ( ! term ) {
                 boolean hadSome = dt.pollQs();
                 if ( ! hadSome ) {
                     idleCount++;
-                    scheduler.pollDelay(idleCount);
+                    long parkNanos = endtime != 0 ? Math.min(maxPark, (endtime - System.currentTimeMillis()) * 1_000_000) : maxPark;
+                    dt.pollDelay(idleCount, Math.max(1, parkNanos));
                     if ( endtime == 0 ) {
                         term = true;
                     }
@@ -474,16 +505,17 @@ public class Actors {
         if ( timeout > 0 ) {
             endtime = System.currentTimeMillis() + timeout;
         }
-        if ( Thread.currentThread() instanceof DispatcherThread ) {
-            DispatcherThread dt = (DispatcherThread) Thread.currentThread();
-            Scheduler scheduler = dt.getScheduler();
+        DispatcherThread dt = DispatcherThread.current();
+        if ( dt != null ) {
+            long maxPark = dt.getScheduler().getBackoffStrategy().getNanosToPark();
             boolean term = false;
             int idleCount = 0;
             while ( ! term ) {
                 boolean hadSome = dt.pollQs(dt.POLL_CB_Q);
                 if ( ! hadSome ) {
                     idleCount++;
-                    scheduler.pollDelay(idleCount);
+                    long parkNanos = endtime != 0 ? Math.min(maxPark, (endtime - System.currentTimeMillis()) * 1_000_000) : maxPark;
+                    dt.pollDelay(idleCount, Math.max(1, parkNanos));
                     if ( endtime == 0 ) {
                         term = true;
                     }
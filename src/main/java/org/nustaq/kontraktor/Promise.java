@@ -17,12 +17,13 @@ See https://www.gnu.org/licenses/lgpl.txt
 package org.nustaq.kontraktor;
 
 import org.nustaq.kontraktor.impl.DispatcherThread;
+import org.nustaq.kontraktor.util.HashedWheelTimer;
 import org.nustaq.serialization.util.FSTUtil;
 
-import java.util.TimerTask;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -43,13 +44,14 @@ public class Promise<T> implements IPromise<T> {
     // fixme: use bits
     protected volatile boolean hadResult;
     protected boolean hasFired;
-    // probably unnecessary, increases cost
-    // of allocation. However for now stay safe and optimize
-    // from a proven-working implementation
+    // spin lock, a field updater saves one allocation per promise
     // note: if removed some field must set to volatile
-    final AtomicBoolean lock = new AtomicBoolean(false); // (AtomicFieldUpdater is slower!)
+    static final AtomicIntegerFieldUpdater<Promise> LOCK = AtomicIntegerFieldUpdater.newUpdater(Promise.class, "lock");
+    volatile int lock;
     String id;
     IPromise nextFuture;
+    volatile HashedWheelTimer.Scheduled timeout; // pending timeoutIn, cancelled once settled
+    volatile Thread awaiter; // dispatcher awaiting this, unparked once settled (signal wakeup)
 
     /**
      * create a settled Promise by either providing an result or error.
@@ -248,7 +250,7 @@ public class Promise<T> implements IPromise<T> {
     @Override
     public IPromise then(Callback resultCB) {
         // FIXME: this can be implemented more efficient
-        while( !lock.compareAndSet(false,true) ) {}
+        while( !LOCK.compareAndSet(this,0,1) ) {}
         try {
             if (resultReceiver != null)
                 throw new RuntimeException("Double register of promise listener");
@@ -256,11 +258,13 @@ public class Promise<T> implements IPromise<T> {
             if (hadResult) {
                 hasFired = true;
                 if (nextFuture == null) {
-                    nextFuture = new Promise(result, error);
-                    lock.set(false);
+                    // a promise given as callback is returned as is, no need for a next future
+                    if ( ! (resultCB instanceof IPromise) )
+                        nextFuture = new Promise(result, error);
+                    lock = 0;
                     resultCB.complete(result, error);
                 } else {
-                    lock.set(false);
+                    lock = 0;
                     resultCB.complete(result, error);
                     nextFuture.complete(result, error);
                     return nextFuture;
@@ -269,15 +273,15 @@ public class Promise<T> implements IPromise<T> {
             if (resultCB instanceof IPromise) {
                 return (IPromise) resultCB;
             }
-            lock.set(false);
-            while( !lock.compareAndSet(false,true) ) {}
+            lock = 0;
+            while( !LOCK.compareAndSet(this,0,1) ) {}
             if (nextFuture == null) {
                 return nextFuture = new Promise();
             } else {
                 return nextFuture;
             }
         } finally {
-            lock.set(false);
+            lock = 0;
         }
     }
 
@@ -287,14 +291,14 @@ public class Promise<T> implements IPromise<T> {
      * @return
      */
     public Promise getNext() {
-        while( !lock.compareAndSet(false,true) ) {}
+        while( !LOCK.compareAndSet(this,0,1) ) {}
         try {
             if (nextFuture == null)
                 return new Promise();
             else
                 return (Promise) nextFuture;
         } finally {
-            lock.set(false);
+            lock = 0;
         }
     }
 
@@ -302,14 +306,14 @@ public class Promise<T> implements IPromise<T> {
      * see IPromise (inheriting Callback) interface
      */
     public Promise getLast() {
-        while( !lock.compareAndSet(false,true) ) {}
+        while( !LOCK.compareAndSet(this,0,1) ) {}
         try {
             if (nextFuture == null)
                 return this;
             else
                 return ((Promise)nextFuture).getLast();
         } finally {
-            lock.set(false);
+            lock = 0;
         }
     }
 
@@ -319,18 +323,18 @@ public class Promise<T> implements IPromise<T> {
      */
     public void finallyDo(Callback resultCB) {
         // FIXME: this can be implemented more efficient
-        while( !lock.compareAndSet(false,true) ) {}
+        while( !LOCK.compareAndSet(this,0,1) ) {}
         try {
             if (resultReceiver != null)
                 throw new RuntimeException("Double register of future listener");
             resultReceiver = resultCB;
             if (hadResult) {
                 hasFired = true;
-                lock.set(false);
+                lock = 0;
                 resultCB.complete(result, error);
             }
         } finally {
-            lock.set(false);
+            lock = 0;
         }
     }
 
@@ -342,37 +346,45 @@ public class Promise<T> implements IPromise<T> {
         this.result = res;
         Object prevErr = this.error;
         this.error = error;
-        while( !lock.compareAndSet(false,true) ) {}
+        while( !LOCK.compareAndSet(this,0,1) ) {}
         try {
             if (hadResult) {
                 if ( prevErr instanceof Timeout ) {
                     this.error = prevErr;
-                    lock.set(false);
+                    lock = 0;
                     return;
                 }
-                lock.set(false);
+                lock = 0;
                 throw new RuntimeException("Double result received on future prevErr:" + prevErr +" (res,err) "+res+","+error );
             }
             hadResult = true;
+            HashedWheelTimer.Scheduled to = timeout;
+            if ( to != null ) {
+                timeout = null;
+                to.cancel();
+            }
+            Thread aw = awaiter;
+            if ( aw != null )
+                LockSupport.unpark(aw);
             if (resultReceiver != null) {
                 if (hasFired) {
-                    lock.set(false);
+                    lock = 0;
                     throw new RuntimeException("Double fire on callback");
                 }
                 hasFired = true;
-                lock.set(false);
+                lock = 0;
                 resultReceiver.complete(result, error);
                 resultReceiver = null;
-                while (!lock.compareAndSet(false, true)) {
+                while (!LOCK.compareAndSet(this, 0, 1)) {
                 }
                 if (nextFuture != null) {
-                    lock.set(false);
+                    lock = 0;
                     nextFuture.complete(result, error);
                 }
                 return;
             }
         } finally {
-            lock.set(false);
+            lock = 0;
         }
     }
 
@@ -403,15 +415,17 @@ public class Promise<T> implements IPromise<T> {
         if ( timeout > 0 ) {
             endtime = System.currentTimeMillis() + timeout;
         }
-        if ( Thread.currentThread() instanceof DispatcherThread ) {
-            DispatcherThread dt = (DispatcherThread) Thread.currentThread();
-            Scheduler scheduler = dt.getScheduler();
+        DispatcherThread dt = DispatcherThread.current();
+        if ( dt != null ) {
+            long maxPark = dt.getScheduler().getBackoffStrategy().getNanosToPark();
             int idleCount = 0;
             dt.__stack.add(this);
+            awaiter = Thread.currentThread();
             while( ! isSettled() ) {
                 if ( ! dt.pollQs() ) {
                     idleCount++;
-                    scheduler.pollDelay(idleCount);
+                    long parkNanos = endtime != 0 ? Math.min(maxPark, (endtime - System.currentTimeMillis()) * 1_000_000) : maxPark;
+                    dt.pollDelay(idleCount, Math.max(1, parkNanos));
                 } else {
                     idleCount = 0;
                 }
@@ -420,6 +434,7 @@ public class Promise<T> implements IPromise<T> {
                     break;
                 }
             }
+            awaiter = null;
             dt.__stack.remove(dt.__stack.size()-1);
             return this;
         } else {
@@ -462,17 +477,16 @@ public class Promise<T> implements IPromise<T> {
      */
     @Override
     public IPromise timeoutIn(long millis) {
+        if ( hadResult )
+            return this;
+        Runnable onTimeout = () -> timedOut(Timeout.INSTANCE);
         final Actor actor = Actor.sender.get();
         if ( actor != null )
-            actor.delayed(millis, ()-> timedOut(Timeout.INSTANCE));
-        else {
-            Actors.delayedCalls.schedule( new TimerTask() {
-                @Override
-                public void run() {
-                    timedOut(Timeout.INSTANCE);
-                }
-            },millis);
-        }
+            onTimeout = (Runnable) actor.inThread(actor.self(), onTimeout); // time out in actor thread (see Actor.delayed)
+        HashedWheelTimer.Scheduled to = Actors.timer().schedule(onTimeout, millis);
+        timeout = to;
+        if ( hadResult ) // settled concurrently
+            to.cancel();
         return this;
     }
 
@@ -41,6 +41,14 @@ public interface Scheduler extends Monitorable{
 
     Object enqueueCall(Actor sendingActor, Actor receiver, String methodName, Object args[], boolean isCB);
 
+    /**
+     * enqueue a call using the method id assigned at proxy generation time. methodName is used
+     * as a fallback in case the id can't be resolved. Defaults to the by-name lookup.
+     */
+    default Object enqueueCall(Actor sendingActor, Actor receiver, String methodName, int methodId, Object args[], boolean isCB) {
+        return enqueueCall(sendingActor, receiver, methodName, args, isCB);
+    }
+
     Object enqueueCall(ConnectionRegistry reg, Actor sendingActor, Actor receiver, String methodName, Object[] args, boolean isCB);
 
     Object enqueueCallFromRemote(ConnectionRegistry reg, Actor sendingActor, Actor receiver, String methodName, Object[] args, boolean isCB, Object securityContext, BiFunction<Actor, String, Boolean> callInterceptor);
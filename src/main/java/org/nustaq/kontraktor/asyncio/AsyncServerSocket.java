@@ -18,6 +18,7 @@ package org.nustaq.kontraktor.asyncio;
 
 import org.nustaq.kontraktor.Actor;
 import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
 import org.nustaq.kontraktor.remoting.tcp.TCPServerConnector;
 import org.nustaq.kontraktor.util.Log;
 
@@ -29,7 +30,10 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Iterator;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiFunction;
 
 /**
@@ -37,108 +41,156 @@ import java.util.function.BiFunction;
  *
  * Implements NIO based TCP server
  *
+ * Each Reactor has a dedicated selector thread blocking in select() which hands ready keys to the reactor's
+ * actor. Channels are read, written and registered on this actor's thread only, so connections stay
+ * single threaded. The selector thread does not select again until the actor has processed the
+ * ready keys. OP_WRITE is registered only while a connection has a partially written buffer
+ * (see AsyncSocketConnection.directWrite).
+ *
+ * By default one reactor on the actor calling connect accepts and serves all connections. Given ioThreads > 0,
+ * the calling actor only accepts and connections are assigned round robin to ioThreads reactors, each running
+ * on its own dispatcher thread.
  */
 public class AsyncServerSocket {
 
     ServerSocketChannel socket;
-    Selector selector;
     SelectionKey serverkey;
     BiFunction<SelectionKey,SocketChannel,AsyncSocketConnection> connectionFactory;
+    Reactor acceptor;
+    Reactor reactors[];
+    int nextReactor;
 
     public void connect( int port, BiFunction<SelectionKey,SocketChannel,AsyncSocketConnection> connectionFactory ) throws IOException {
-        selector = Selector.open();
+        connect(port,0,connectionFactory);
+    }
+
+    /**
+     * @param ioThreads - number of reactor threads connections are spread across, 0 = serve connections on the calling actor
+     */
+    public void connect( int port, int ioThreads, BiFunction<SelectionKey,SocketChannel,AsyncSocketConnection> connectionFactory ) throws IOException {
+        this.connectionFactory = connectionFactory;
+        acceptor = new Reactor(Actor.current(), "kontraktor nio server " + port);
         socket = ServerSocketChannel.open();
         socket.configureBlocking(false);
         socket.socket().bind(new java.net.InetSocketAddress(port));
-        serverkey = socket.register(selector, SelectionKey.OP_ACCEPT);
-        this.connectionFactory = connectionFactory;
-        receiveLoop();
+        serverkey = socket.register(acceptor.selector, SelectionKey.OP_ACCEPT);
+        if ( ioThreads > 0 ) {
+            reactors = new Reactor[ioThreads];
+            for (int i = 0; i < reactors.length; i++) {
+                String name = "kontraktor nio reactor " + port + "-" + i;
+                reactors[i] = new Reactor(Actors.AsActor(Actor.class, new SimpleScheduler(SimpleScheduler.DEFQSIZE, false, name)), name + " selector");
+                reactors[i].start();
+            }
+        } else {
+            reactors = new Reactor[] { acceptor };
+        }
+        acceptor.start();
     }
 
-    Thread t = null;
-    public void receiveLoop() {
-        Actor actor = Actor.current();
-        if ( t == null )
-            t = Thread.currentThread();
-        else {
-            if ( t != Thread.currentThread() ) {
-                System.out.println("FATAL");
-                System.exit(-1);
+    public boolean isClosed() {
+        return !socket.isOpen();
+    }
+
+    public void close() throws IOException {
+        socket.close();
+        for (Reactor reactor : reactors) {
+            reactor.wakeup();
+        }
+        acceptor.wakeup();
+    }
+
+    /**
+     * a selector, the thread selecting and the actor processing ready keys
+     */
+    protected class Reactor {
+
+        Selector selector;
+        Actor actor;
+        Thread selectorThread;
+        volatile boolean processing;
+        Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+
+        public Reactor(Actor actor, String threadName) throws IOException {
+            this.actor = actor;
+            selector = Selector.open();
+            selectorThread = new Thread(this::selectLoop, threadName);
+            selectorThread.setDaemon(true);
+        }
+
+        void start() {
+            selectorThread.start();
+        }
+
+        void wakeup() {
+            selector.wakeup();
+            LockSupport.unpark(selectorThread);
+        }
+
+        /**
+         * called by the acceptor, channel gets registered by the selector thread
+         */
+        void addChannel(SocketChannel channel) {
+            newChannels.add(channel);
+            selector.wakeup();
+        }
+
+        /**
+         * runs on the selector thread. Blocks until keys are ready, then waits for the actor to process them.
+         */
+        protected void selectLoop() {
+            try {
+                while ( ! isClosed() ) {
+                    registerNewChannels();
+                    selector.select();
+                    if ( selector.selectedKeys().isEmpty() )
+                        continue; // wakeup (new channel, interest change or close)
+                    processing = true;
+                    actor.execute(this::processSelectedKeys);
+                    while ( processing && ! isClosed() ) {
+                        LockSupport.parkNanos(this, 100_000_000l);
+                    }
+                }
+            } catch (Throwable e) {
+                if ( ! isClosed() )
+                    Log.Warn(this,e,"");
             }
+            closeConnections();
         }
-        boolean hadStuff = false;
-        int iterCount = 10;
-        do {
+
+        void registerNewChannels() throws IOException {
+            SocketChannel channel;
+            while ( (channel = newChannels.poll()) != null ) {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                SocketChannel chan = channel;
+                // queued before any processSelectedKeys involving this key
+                actor.execute( () -> {
+                    AsyncSocketConnection con = connectionFactory.apply(key, chan);
+                    con.myActor = actor;
+                    key.attach(con);
+                });
+            }
+        }
+
+        /**
+         * runs on the actor thread, accepts new connections, writes pending buffers and reads available data
+         */
+        protected void processSelectedKeys() {
             try {
-                selector.selectNow();
                 Set<SelectionKey> selectionKeys = selector.selectedKeys();
                 for (Iterator<SelectionKey> iterator = selectionKeys.iterator(); iterator.hasNext(); ) {
                     SelectionKey key = iterator.next();
+                    iterator.remove();
                     try {
                         if (key == serverkey) {
-                            if (key.isAcceptable()) {
-                                SocketChannel accept = socket.accept();
-                                if (accept != null) {
-                                    hadStuff = true;
+                            if (key.isValid() && key.isAcceptable()) {
+                                SocketChannel accept;
+                                while ( (accept = socket.accept()) != null ) {
                                     accept.configureBlocking(false);
-                                    SelectionKey newKey = accept.register(selector, SelectionKey.OP_READ|SelectionKey.OP_WRITE);
-                                    AsyncSocketConnection con = connectionFactory.apply(key, accept);
-                                    newKey.attach(con);
-                                }
-                            }
-                        } else {
-                            SocketChannel client = (SocketChannel) key.channel();
-                            int written = 0;
-                            if (key.isWritable()) {
-                                AsyncSocketConnection con = (AsyncSocketConnection) key.attachment();
-                                ByteBuffer writingBuffer = con.getWritingBuffer();
-                                if ( writingBuffer != null ) {
-                                    hadStuff = true;
-                                    try {
-                                        written = con.chan.write(writingBuffer);
-                                        if (written<0) {
-                                            iterator.remove();
-                                            key.cancel();
-                                            // closed
-                                            con.writeFinished("disconnected");
-                                        } else if ( writingBuffer.remaining() == 0) {
-                                            iterator.remove();
-                                            con.writeFinished(null);
-                                        }
-                                    } catch (IOException ioe) {
-                                        iterator.remove();
-                                        key.cancel();
-                                        con.writeFinished("disconnected");
-                                    }
-                                }
-                            }
-                            if (key.isReadable() && written == 0) {
-                                iterator.remove();
-                                AsyncSocketConnection con = (AsyncSocketConnection) key.attachment();
-                                if ( con == null || con.isClosed() ) {
-                                    Log.Lg.warn(this, "con is null " + key);
-                                } else {
-                                    hadStuff = true;
-                                    try {
-                                        if ( ! con.readData() ) {
-                                            // yield ?
-                                        }
-                                    } catch (Exception ioe) {
-                                        if ( ioe instanceof EOFException ) {
-                                            Log.Info(this, ""+ioe);
-                                        } else {
-                                            Log.Info(this, ioe);
-                                        }
-                                        con.closed(ioe);
-                                        key.cancel();
-                                        try {
-                                            client.close();
-                                        } catch (IOException e) {
-                                            Log.Warn(this, e);
-                                        }
-                                    }
+                                    reactors[nextReactor++ % reactors.length].addChannel(accept);
                                 }
                             }
+                        } else if ( key.isValid() ) {
+                            handleConnectionKey(key);
                         }
                     } catch (Throwable e) {
                         Log.Warn(this,e,"");
@@ -147,39 +199,86 @@ public class AsyncServerSocket {
             } catch (Throwable e) {
                 Log.Warn(this,e,"");
                 Actors.reject(e);
+            } finally {
+                processing = false;
+                LockSupport.unpark(selectorThread);
             }
-        } while (iterCount-- > 0 && hadStuff );
-        if ( ! isClosed() ) {
-            if ( hadStuff ) {
-                actor.execute( () -> receiveLoop() );
-            } else {
-                actor.delayed( 1, () -> receiveLoop() );
+        }
+
+        protected void handleConnectionKey(SelectionKey key) {
+            SocketChannel client = (SocketChannel) key.channel();
+            AsyncSocketConnection con = (AsyncSocketConnection) key.attachment();
+            if ( con == null ) {
+                Log.Lg.warn(this, "con is null " + key);
+                return;
             }
-        } else {
-            // close open connections
-            try {
-                selector.selectNow();
-                Actors.SubmitDelayed(TCPServerConnector.DELAY_MS_TILL_CLOSE, () -> {
-                    selector.selectedKeys().forEach(key -> {
+            int written = 0;
+            if (key.isWritable()) {
+                ByteBuffer writingBuffer = con.getWritingBuffer();
+                if ( writingBuffer != null ) {
+                    try {
+                        written = con.chan.write(writingBuffer);
+                        if (written<0) {
+                            key.cancel();
+                            // closed
+                            con.writeFinished("disconnected");
+                            return;
+                        } else if ( writingBuffer.remaining() == 0) {
+                            key.interestOps(SelectionKey.OP_READ);
+                            con.writeFinished(null);
+                        }
+                    } catch (IOException ioe) {
+                        key.cancel();
+                        con.writeFinished("disconnected");
+                        return;
+                    }
+                } else {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            if (key.isValid() && key.isReadable() && written == 0) {
+                if ( con.isClosed() ) {
+                    Log.Lg.warn(this, "con is closed " + key);
+                } else {
+                    try {
+                        con.readData();
+                    } catch (Exception ioe) {
+                        if ( ioe instanceof EOFException ) {
+                            Log.Info(this, ""+ioe);
+                        } else {
+                            Log.Info(this, ioe);
+                        }
+                        con.closed(ioe);
+                        key.cancel();
                         try {
-                            key.channel().close();
+                            client.close();
                         } catch (IOException e) {
                             Log.Warn(this, e);
                         }
-                    });
-                });
-            } catch (IOException e) {
-                Log.Warn(this,e);
+                    }
+                }
             }
-
         }
-    }
 
-    public boolean isClosed() {
-        return !socket.isOpen();
+        // close open connections
+        protected void closeConnections() {
+            Actors.SubmitDelayed(TCPServerConnector.DELAY_MS_TILL_CLOSE, () -> {
+                try {
+                    selector.keys().forEach(key -> {
+                        try {
+                            key.channel().close();
+                        } catch (IOException e) {
+                            Log.Warn(this, e);
+                        }
+                    });
+                    selector.close();
+                } catch (Exception e) {
+                    Log.Warn(this, e);
+                }
+                if ( this != acceptor )
+                    actor.stop();
+            });
+        }
     }
 
-    public void close() throws IOException {
-        socket.close();
-    }
 }
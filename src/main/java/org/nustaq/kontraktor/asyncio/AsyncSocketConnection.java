@@ -113,7 +113,11 @@ public abstract class AsyncSocketConnection {
                 writeFinished(new IOException("connection closed"));
             }
             if ( buf.remaining() > 0 ) {
-//                key.interestOps(SelectionKey.OP_WRITE);
+                // socket buffer full, let the selector signal writability
+                if ( key != null && key.isValid() && (key.interestOps() & SelectionKey.OP_WRITE) == 0 ) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    key.selector().wakeup();
+                }
             } else {
                 writeFinished(null);
             }
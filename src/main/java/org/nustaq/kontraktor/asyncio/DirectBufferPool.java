@@ -0,0 +1,89 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.asyncio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct ByteBuffers in power of two size classes, so socket writes don't need a direct buffer
+ * per connection or per write. Buffers larger than MAX_POOLED_SIZE are not pooled.
+ * Thread safe, buffers may be released by another thread than the acquiring one.
+ */
+public class DirectBufferPool {
+
+    public static int MIN_SIZE = 4096;
+    public static int MAX_POOLED_SIZE = 1024 * 1024;
+    public static int MAX_BUFFERS_PER_SIZE = 64;
+
+    public static final DirectBufferPool Shared = new DirectBufferPool();
+
+    final ConcurrentLinkedQueue<ByteBuffer> pools[];
+    final AtomicInteger pooled[];
+    final int minShift;
+
+    public DirectBufferPool() {
+        minShift = 31 - Integer.numberOfLeadingZeros(MIN_SIZE);
+        int classes = 32 - Integer.numberOfLeadingZeros(MAX_POOLED_SIZE - 1) - minShift + 1;
+        pools = new ConcurrentLinkedQueue[Math.max(1, classes)];
+        pooled = new AtomicInteger[pools.length];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new ConcurrentLinkedQueue<>();
+            pooled[i] = new AtomicInteger();
+        }
+    }
+
+    int sizeClass(int size) {
+        if ( size <= MIN_SIZE )
+            return 0;
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - minShift;
+    }
+
+    /**
+     * @return a cleared (position 0, limit capacity, big endian) direct buffer with capacity >= minSize
+     */
+    public ByteBuffer acquire(int minSize) {
+        int sizeClass = sizeClass(minSize);
+        if ( sizeClass >= pools.length )
+            return ByteBuffer.allocateDirect(minSize);
+        ByteBuffer buf = pools[sizeClass].poll();
+        if ( buf == null )
+            return ByteBuffer.allocateDirect(MIN_SIZE << sizeClass);
+        pooled[sizeClass].decrementAndGet();
+        return buf;
+    }
+
+    /**
+     * return a buffer obtained by acquire. The buffer must not be used afterwards.
+     */
+    public void release(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        int sizeClass = sizeClass(capacity);
+        if ( ! buf.isDirect() || sizeClass >= pools.length || capacity != MIN_SIZE << sizeClass )
+            return; // not from this pool
+        if ( pooled[sizeClass].incrementAndGet() > MAX_BUFFERS_PER_SIZE ) {
+            pooled[sizeClass].decrementAndGet();
+            return;
+        }
+        buf.clear();
+        buf.order(ByteOrder.BIG_ENDIAN);
+        pools[sizeClass].add(buf);
+    }
+
+}
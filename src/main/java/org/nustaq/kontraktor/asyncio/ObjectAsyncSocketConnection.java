@@ -18,13 +18,19 @@ package org.nustaq.kontraktor.asyncio;
 
 import org.nustaq.kontraktor.Actor;
 import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.remoting.base.ActorClientConnector;
+import org.nustaq.kontraktor.remoting.base.BatchCompressor;
 import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.offheap.BinaryQueue;
+import org.nustaq.offheap.bytez.onheap.HeapBytez;
 import org.nustaq.serialization.FSTConfiguration;
 import org.nustaq.serialization.util.FSTUtil;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
@@ -34,12 +40,21 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Created by moelrue on 5/7/15.
  */
 public abstract class ObjectAsyncSocketConnection extends QueuingAsyncSocketConnection implements ObjectSocket {
+
+    /**
+     * max number of objects per frame, writeObject flushes once exceeded. Flushes are up to the send loop
+     * (see AdaptiveBatching) below this limit.
+     */
+    public static int MAX_FRAME_OBJECTS = ActorClientConnector.OBJECT_MAX_BATCH_SIZE;
+
     static AtomicInteger idCount = new AtomicInteger(0);
     int id = idCount.incrementAndGet();
 
     FSTConfiguration conf;
     Throwable lastError;
     ArrayList objects = new ArrayList();
+    int lenHolder[] = new int[1];
+    BatchCompressor compressor;
 
     public ObjectAsyncSocketConnection(SelectionKey key, SocketChannel chan) {
         super(key, chan);
@@ -56,6 +71,16 @@ public abstract class ObjectAsyncSocketConnection extends QueuingAsyncSocketConn
         return conf;
     }
 
+    @Override
+    public void setCompressor(BatchCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public BatchCompressor getCompressor() {
+        return compressor;
+    }
+
     @Override
     public void dataReceived(BinaryQueue q) {
         checkThread();
@@ -67,8 +92,7 @@ public abstract class ObjectAsyncSocketConnection extends QueuingAsyncSocketConn
                 return;
             }
             if ( q.available() >= len ) {
-                byte[] bytes = q.readByteArray(len);
-                receivedObject(conf.asObject(bytes));
+                receivedObject(decodeFrame(q, len));
             } else {
                 q.back(4);
                 break;
@@ -76,6 +100,31 @@ public abstract class ObjectAsyncSocketConnection extends QueuingAsyncSocketConn
         }
     }
 
+    byte readFrame[] = new byte[4096];
+    HeapBytez readFrameBytez = new HeapBytez(readFrame);
+
+    /**
+     * decode a frame of len bytes from the queue using a reused array instead of a byte[] per frame.
+     */
+    protected Object decodeFrame(BinaryQueue q, int len) {
+        byte frame[] = readFrame;
+        if ( len > frame.length ) {
+            frame = new byte[len];
+            if ( len <= DirectBufferPool.MAX_POOLED_SIZE ) { // keep, but don't hold on to huge frames
+                readFrame = frame;
+                readFrameBytez = new HeapBytez(frame);
+            }
+        }
+        HeapBytez sink = frame == readFrame ? readFrameBytez : new HeapBytez(frame);
+        q.poll(sink, 0, len);
+        try {
+            return conf.getObjectInput(frame, len).readObject();
+        } catch (Exception e) {
+            FSTUtil.<RuntimeException>rethrow(e);
+            return null; // never reached
+        }
+    }
+
     public int getId() {
         return id;
     }
@@ -97,7 +146,7 @@ public abstract class ObjectAsyncSocketConnection extends QueuingAsyncSocketConn
             myActor = Actor.current();
         checkThread();
         objects.add(o);
-        if (objects.size()>100) {
+        if (objects.size()>MAX_FRAME_OBJECTS) {
             try {
                 flush();
             } catch (Exception e) {
@@ -126,10 +175,27 @@ public abstract class ObjectAsyncSocketConnection extends QueuingAsyncSocketConn
         Object[] objArr = objects.toArray();
         objects.clear();
 
-        byte[] bytes = conf.asByteArray(objArr);
-        write(bytes.length);
-        write(bytes);
-        tryFlush();
+        byte[] bytes = conf.asSharedByteArray(objArr, lenHolder); // conf's internal buffer, valid until next serialization
+        int len = lenHolder[0];
+        if ( compressor != null && compressor.shouldCompress(len) ) {
+            CompressedBatch packed = compressor.compress(bytes, len);
+            if ( packed != null ) {
+                bytes = conf.asSharedByteArray(packed, lenHolder);
+                len = lenHolder[0];
+            }
+        }
+        if ( canWrite() && writeQueue.available() == 0 ) {
+            // nothing queued: frame goes to a pooled direct buffer and the socket without passing the write queue
+            ByteBuffer buf = DirectBufferPool.Shared.acquire(len + 4);
+            buf.order(ByteOrder.LITTLE_ENDIAN).putInt(len); // same as BinaryQueue.addInt
+            buf.put(bytes, 0, len);
+            buf.flip();
+            writePooled(buf);
+        } else {
+            write(len);
+            write(bytes, 0, len);
+            tryFlush();
+        }
     }
 
     public Throwable getLastError() {
@@ -58,6 +58,14 @@ public abstract class QueuingAsyncSocketConnection extends AsyncSocketConnection
         }
     }
 
+    /**
+     * @return bytes queued or being written, may be called from other threads (approximation then)
+     */
+    public long getPendingBytes() {
+        ByteBuffer writing = writingBuffer;
+        return writeQueue.available() + (writing != null ? writing.remaining() : 0);
+    }
+
     public void write( ByteBuffer buf ) {
         checkThread();
         checkQSize();
@@ -86,35 +94,53 @@ public abstract class QueuingAsyncSocketConnection extends AsyncSocketConnection
 
     // quite some fiddling required to deal with various byte abstractions
 
-    ByteBuffer qWriteTmp = ByteBuffer.allocateDirect(128000);
+    public static int MAX_WRITE_CHUNK = 128000;
+
+    /**
+     * writes queued data in chunks of up to MAX_WRITE_CHUNK bytes using pooled direct buffers
+     */
     public void tryFlush() {
         checkThread();
         if ( canWrite() ) {
-            qWriteTmp.position(0);
-            qWriteTmp.limit(qWriteTmp.capacity());
-            tmp.setBuffer(qWriteTmp);
+            long available = writeQueue.available();
+            if ( available <= 0 )
+                return;
+            ByteBuffer buf = DirectBufferPool.Shared.acquire((int) Math.min(available, MAX_WRITE_CHUNK));
+            buf.limit((int) Math.min(buf.capacity(), MAX_WRITE_CHUNK));
+            tmp.setBuffer(buf);
             long poll = writeQueue.poll(tmp, 0, tmp.length());
 //            System.out.println("try write "+poll+" avail:"+writeQueue.available()+" cap:"+writeQueue.capacity());
             if (poll > 0) {
-                qWriteTmp.limit((int) poll);
-                IPromise queueDataAvailablePromise = directWrite(qWriteTmp);
-                queueDataAvailablePromise.then((res, err) -> {
-                    if ( err != null ) {
-                        if (err instanceof Throwable ) {
-                            Log.Lg.error(this, (Throwable) err, "write failure");
-                            closed((Throwable) err);
-                        } else {
-                            Log.Lg.error(this, null, "write failure:"+err);
-                            closed( new IOException(""+err));
-                        }
-                    } else {
-                        tryFlush();
-                    }
-                });
+                buf.limit((int) poll);
+                writePooled(buf);
+            } else {
+                DirectBufferPool.Shared.release(buf);
             }
         }
     }
 
+    /**
+     * write a buffer obtained from DirectBufferPool.Shared, release it once written and continue with queued data.
+     * Requires canWrite()
+     */
+    protected void writePooled(ByteBuffer buf) {
+        IPromise queueDataAvailablePromise = directWrite(buf);
+        queueDataAvailablePromise.then((res, err) -> {
+            DirectBufferPool.Shared.release(buf);
+            if ( err != null ) {
+                if (err instanceof Throwable ) {
+                    Log.Lg.error(this, (Throwable) err, "write failure");
+                    closed((Throwable) err);
+                } else {
+                    Log.Lg.error(this, null, "write failure:"+err);
+                    closed( new IOException(""+err));
+                }
+            } else {
+                tryFlush();
+            }
+        });
+    }
+
     @Override
     public void dataReceived(ByteBuffer buf) {
         wrapper.setBuffer(buf);
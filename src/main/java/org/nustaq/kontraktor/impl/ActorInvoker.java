@@ -0,0 +1,104 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.impl;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class of the per-actor-class invokers generated by ActorProxyFactory.
+ *
+ * Each enqueued (async) method of an actor class gets a stable integer id, which is its position in
+ * ActorProxyFactory.getSortedPublicCtMethods(clz,false). Generated proxies pass this id when enqueuing,
+ * so the sending side resolves the Method by array index instead of a by-name lookup.
+ *
+ * A generated subclass implements invoke() as a switch over the method id, so the DispatcherThread
+ * can call actor methods directly instead of going through java.lang.reflect.Method.invoke.
+ * Methods not handled by invoke() (see isDirect) are dispatched reflective as before.
+ */
+public abstract class ActorInvoker {
+
+    public static final int NO_INDEX = -1;
+
+    protected Method methods[];  // by method id, null if not an enqueued method
+    protected boolean direct[];  // true if handled by invoke()
+    protected Map<String,Integer> indexByName = new HashMap<>(); // not overloaded methods only
+    protected Map<Method,Integer> indexByMethod = new HashMap<>();
+
+    /**
+     * invoke method with given id on target. Exceptions thrown by the actor method are not wrapped.
+     */
+    public abstract Object invoke(Object target, int methodIndex, Object args[]) throws Throwable;
+
+    /**
+     * @return id of the async method with given name or NO_INDEX if unknown or overloaded
+     */
+    public int getMethodIndex(String methodName) {
+        Integer idx = indexByName.get(methodName);
+        return idx == null ? NO_INDEX : idx;
+    }
+
+    /**
+     * @return id of given async method or NO_INDEX if unknown
+     */
+    public int getMethodIndex(Method method) {
+        Integer idx = indexByMethod.get(method);
+        return idx == null ? NO_INDEX : idx;
+    }
+
+    /**
+     * @return method for given id or null if id does not denote an enqueued method
+     */
+    public Method getMethod(int methodIndex) {
+        if ( methodIndex < 0 || methodIndex >= methods.length )
+            return null;
+        return methods[methodIndex];
+    }
+
+    /**
+     * @return true if the method with given id can be called using invoke()
+     */
+    public boolean isDirect(int methodIndex) {
+        return direct[methodIndex];
+    }
+
+    public void __init(Method methods[], boolean direct[]) {
+        this.methods = methods;
+        this.direct = direct;
+        Map<String,Integer> nameCount = new HashMap<>();
+        for (int i = 0; i < methods.length; i++) {
+            if ( methods[i] != null ) {
+                indexByMethod.put(methods[i], i);
+                indexByName.put(methods[i].getName(), i);
+                nameCount.merge(methods[i].getName(), 1, Integer::sum);
+            }
+        }
+        nameCount.forEach((name, count) -> {
+            if ( count > 1 )
+                indexByName.remove(name);
+        });
+    }
+
+    // minbin transmits booleans as byte, used by generated code
+    public static boolean toBoolean(Object o) {
+        if ( o instanceof Boolean )
+            return ((Boolean) o).booleanValue();
+        return ((Number) o).intValue() != 0;
+    }
+
+}
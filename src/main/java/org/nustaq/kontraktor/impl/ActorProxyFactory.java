@@ -62,6 +62,7 @@ import java.util.*;
 public class ActorProxyFactory {
 
     Map<Class,Class> generatedProxyClasses = new HashMap<Class, Class>();
+    Map<Class,ActorInvoker> generatedInvokers = new HashMap<>();
 
     public ActorProxyFactory() {
     }
@@ -162,11 +163,123 @@ public class ActorProxyFactory {
 
                 ccClz = loadProxyClass(clazz, pool, cc);
                 generatedProxyClasses.put(clazz, ccClz);
+                try {
+                    generatedInvokers.put(clazz, createInvoker(clazz, pool));
+                } catch (Exception ex) {
+                    Log.Warn(this, ex, "could not generate invoker for "+clazz.getName()+", falling back to reflection");
+                }
             }
             return ccClz;
         }
     }
 
+    /**
+     * @return the generated invoker for given actor class or null (reflective dispatch then)
+     */
+    public ActorInvoker getInvoker(Class<? extends Actor> clazz) {
+        synchronized (generatedProxyClasses) {
+            return generatedInvokers.get(clazz);
+        }
+    }
+
+    /**
+     * generates a subclass of ActorInvoker dispatching by method id to the enqueued methods of clazz.
+     * Ids are the same as used by the generated proxy (see defineProxyMethods).
+     */
+    protected ActorInvoker createInvoker(Class clazz, ClassPool pool) throws Exception {
+        String invokerName = clazz.getName() + "_ActorInvoker";
+        CtClass orig = pool.get(clazz.getName());
+        CtMethod[] methods = getSortedPublicCtMethods(orig,false);
+        boolean direct[] = new boolean[methods.length];
+        CtClass cc = pool.getOrNull(invokerName);
+        if ( cc == null ) {
+            cc = pool.makeClass(invokerName);
+            cc.setSuperclass(pool.get(ActorInvoker.class.getName()));
+            String target = orig.getName();
+            StringBuilder body = new StringBuilder(
+                "public Object invoke(Object target, int methodIndex, Object[] args) throws Throwable {" +
+                target + " t = (" + target + ")target;" +
+                "switch (methodIndex) {"
+            );
+            for (int i = 0; i < methods.length; i++) {
+                CtMethod method = methods[i];
+                if ( ! isDirectlyInvokable(method) )
+                    continue;
+                CtClass[] parameterTypes = method.getParameterTypes();
+                StringBuilder call = new StringBuilder("t."+method.getName()+"(");
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    if ( j > 0 )
+                        call.append(',');
+                    call.append(unboxArg(parameterTypes[j], "args["+j+"]"));
+                }
+                call.append(')');
+                if ( method.getReturnType() == CtPrimitiveType.voidType )
+                    body.append("case "+i+": "+call+"; return null;");
+                else
+                    body.append("case "+i+": return "+call+";");
+                direct[i] = true;
+            }
+            body.append("} throw new IllegalArgumentException(\"unknown method index \"+methodIndex); }");
+            cc.addMethod(CtMethod.make(body.toString(), cc));
+        } else {
+            for (int i = 0; i < methods.length; i++) {
+                direct[i] = isDirectlyInvokable(methods[i]);
+            }
+        }
+        // by signature, overloads share a name
+        Map<String,Method> bySignature = new HashMap<>();
+        Method[] reflected = clazz.getMethods();
+        for (int i = 0; i < reflected.length; i++) {
+            if ( ! reflected[i].isBridge() ) {
+                StringBuilder sig = new StringBuilder(reflected[i].getName()).append('(');
+                for (Class<?> type : reflected[i].getParameterTypes())
+                    sig.append(type.getTypeName()).append(',');
+                bySignature.put(sig.toString(), reflected[i]);
+            }
+        }
+        Method[] methodsById = new Method[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            if ( isEnqueued(methods[i]) ) {
+                StringBuilder sig = new StringBuilder(methods[i].getName()).append('(');
+                for (CtClass type : methods[i].getParameterTypes())
+                    sig.append(type.getName()).append(',');
+                methodsById[i] = bySignature.get(sig.toString());
+            }
+            direct[i] &= methodsById[i] != null;
+        }
+        ActorInvoker invoker = (ActorInvoker) loadProxyClass(clazz, pool, cc).newInstance();
+        invoker.__init(methodsById, direct);
+        return invoker;
+    }
+
+    // enqueued methods with public signatures only, else generated code would fail access checks (different classloader)
+    protected boolean isDirectlyInvokable(CtMethod method) throws NotFoundException, ClassNotFoundException {
+        if ( ! isEnqueued(method) || ! Modifier.isPublic(method.getDeclaringClass().getModifiers()) )
+            return false;
+        CtClass returnType = method.getReturnType();
+        if ( returnType.isPrimitive() && returnType != CtPrimitiveType.voidType )
+            return false;
+        CtClass[] parameterTypes = method.getParameterTypes();
+        for (int j = 0; j < parameterTypes.length; j++) {
+            CtClass type = parameterTypes[j];
+            while ( type.isArray() )
+                type = type.getComponentType();
+            if ( ! type.isPrimitive() && ! Modifier.isPublic(type.getModifiers()) )
+                return false;
+        }
+        return true;
+    }
+
+    protected String unboxArg(CtClass type, String arg) {
+        if ( type == CtPrimitiveType.booleanType )
+            return ActorInvoker.class.getName()+".toBoolean("+arg+")";
+        if ( type == CtPrimitiveType.charType )
+            return "((java.lang.Character)"+arg+").charValue()";
+        if ( type.isPrimitive() ) // numbers, allow widening like Method.invoke does
+            return "((java.lang.Number)"+arg+")."+type.getName()+"Value()";
+        return "("+type.getName()+")"+arg;
+    }
+
     protected <T> Class loadProxyClass(Class clazz, ClassPool pool, final CtClass cc) throws ClassNotFoundException {
         Class ccClz;
         Loader cl = new Loader(clazz.getClassLoader(), pool) {
@@ -230,36 +343,7 @@ public class ActorProxyFactory {
                 }
             }
 
-            boolean allowed = //((method.getModifiers() & AccessFlag.ABSTRACT) == 0 ) &&
-                    (method.getModifiers() & (AccessFlag.NATIVE|AccessFlag.FINAL|AccessFlag.STATIC)) == 0 &&
-                    (method.getModifiers() & AccessFlag.PUBLIC) != 0 &&
-                    !isCallerSide;
-            // by default lock all method of object and actor
-            allowed &= !originalMethod.getDeclaringClass().getName().equals(Object.class.getName()) &&
-                       !originalMethod.getDeclaringClass().getName().equals(Actor.class.getName());
-
-            // exceptions: async built-in actor methods that can be called
-            if ( //originalMethod.getName().equals("executeInActorThread") || // needed again ! see spore
-                // async methods at actor class. FIXME: add annotation
-                 originalMethod.getName().equals("getSubMonitorables") ||
-                 originalMethod.getName().equals("getReport") ||
-                 originalMethod.getName().equals("askMsg") ||
-                 originalMethod.getName().equals("tellMsg") ||
-                 originalMethod.getName().equals("__unpublish") ||
-                 originalMethod.getName().equals("__republished") ||
-                 originalMethod.getName().equals("router$clientPing") ||
-                 originalMethod.getName().equals("ping") ||
-                 originalMethod.getName().equals("cyclic") ||
-                 originalMethod.getName().equals("__submit") ||
-                 originalMethod.getName().equals("execInThreadPool") ||
-                 originalMethod.getName().equals("asyncstop") ||
-                 originalMethod.getName().equals("receive") ||
-                 originalMethod.getName().equals("complete") ||
-                 originalMethod.getName().equals("close")
-            )
-            {
-                allowed = true;
-            }
+            boolean allowed = isEnqueued(originalMethod);
 
             if (allowed) {
                 boolean isVoid = returnType == CtPrimitiveType.voidType;
@@ -290,7 +374,8 @@ public class ActorProxyFactory {
                         }
                     }
                 }
-                String call = "__target.__enqueueCall( this, \""+method.getName()+"\", args, "+isCallbackCall+" );";
+                // i is the method id, see ActorInvoker
+                String call = "__target.__enqueueCall( this, \""+method.getName()+"\", "+i+", args, "+isCallbackCall+" );";
                 if ( ! isVoid ) {
                     call = "return ("+originalMethod.getReturnType().getName()+") (Object)"+call;
                 }
@@ -346,6 +431,46 @@ public class ActorProxyFactory {
 //        }
     }
 
+    /**
+     * @return true if calls to this method are enqueued to the actor's mailbox by the generated proxy
+     */
+    protected static boolean isEnqueued(CtMethod originalMethod) throws ClassNotFoundException {
+        boolean isCallerSide = // don't touch
+                originalMethod.getAnnotation(CallerSideMethod.class) != null ||
+                (originalMethod.getName().equals("self"));
+        boolean allowed = //((originalMethod.getModifiers() & AccessFlag.ABSTRACT) == 0 ) &&
+                (originalMethod.getModifiers() & (AccessFlag.NATIVE|AccessFlag.FINAL|AccessFlag.STATIC)) == 0 &&
+                (originalMethod.getModifiers() & AccessFlag.PUBLIC) != 0 &&
+                !isCallerSide;
+        // by default lock all method of object and actor
+        allowed &= !originalMethod.getDeclaringClass().getName().equals(Object.class.getName()) &&
+                   !originalMethod.getDeclaringClass().getName().equals(Actor.class.getName());
+
+        // exceptions: async built-in actor methods that can be called
+        if ( //originalMethod.getName().equals("executeInActorThread") || // needed again ! see spore
+            // async methods at actor class. FIXME: add annotation
+             originalMethod.getName().equals("getSubMonitorables") ||
+             originalMethod.getName().equals("getReport") ||
+             originalMethod.getName().equals("askMsg") ||
+             originalMethod.getName().equals("tellMsg") ||
+             originalMethod.getName().equals("__unpublish") ||
+             originalMethod.getName().equals("__republished") ||
+             originalMethod.getName().equals("router$clientPing") ||
+             originalMethod.getName().equals("ping") ||
+             originalMethod.getName().equals("cyclic") ||
+             originalMethod.getName().equals("__submit") ||
+             originalMethod.getName().equals("execInThreadPool") ||
+             originalMethod.getName().equals("asyncstop") ||
+             originalMethod.getName().equals("receive") ||
+             originalMethod.getName().equals("complete") ||
+             originalMethod.getName().equals("close")
+        )
+        {
+            allowed = true;
+        }
+        return allowed;
+    }
+
 //    protected boolean isFastCall(CtMethod m) throws NotFoundException {
 //        CtClass[] parameterTypes = m.getParameterTypes();
 //        if (parameterTypes==null|| parameterTypes.length==0) {
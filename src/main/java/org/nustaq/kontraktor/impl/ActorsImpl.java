@@ -90,6 +90,9 @@ public class ActorsImpl {
             realActor.__scheduler = disp.getScheduler();
             selfproxy.__scheduler = disp.getScheduler();
 
+            realActor.__invoker = getFactory().getInvoker(clz);
+            selfproxy.__invoker = realActor.__invoker;
+
             realActor.__currentDispatcher = disp;
             selfproxy.__currentDispatcher = disp;
 
@@ -112,8 +115,9 @@ public class ActorsImpl {
 
     public Actor newProxy(Actor instance, Class<? extends Actor> clz, Scheduler sched, int qsize) {
         if ( sched == null ) {
-            if (Thread.currentThread() instanceof DispatcherThread) {
-                sched = ((DispatcherThread) Thread.currentThread()).getScheduler();
+            DispatcherThread dt = DispatcherThread.current();
+            if (dt != null) {
+                sched = dt.getScheduler();
             }
         }
         try {
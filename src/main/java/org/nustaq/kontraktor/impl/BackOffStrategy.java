@@ -27,6 +27,11 @@ import java.util.concurrent.locks.*;
  * if a message queue is empty, first busy spin is used for N iterations, then Thread.all, then LockSupport.park, then sleep(nanosToPark)
  *
  * Note that default constants are public static, so one can globally trade higher latency against lower cpu (polling) load
+ *
+ * If signalWakeup is enabled, a sleeping DispatcherThread gets unparked by senders once a message is put to one of its
+ * actors queues, so the first message of a burst does not have to wait for nanosToPark to elapse. This costs a
+ * volatile read per enqueued message and an unpark in case the receiving dispatcher actually sleeps.
+ * An idle dispatcher then parks up to idleNanosToPark (defaults to nanosToPark).
  */
 public class BackOffStrategy {
 
@@ -34,11 +39,14 @@ public class BackOffStrategy {
     public static int SPIN_UNTIL_YIELD = 10;
     public static int YIELD_UNTIL_PARK = 10;
     public static int PARK_UNTIL_SLEEP = 1;
+    public static boolean SIGNAL_WAKEUP = false; // default for new instances, see class comment
 
     int yieldCount;
     int parkCount;
     int sleepCount;
     int nanosToPark  = SLEEP_NANOS; // 1 milli (=latency peak on burst ..)
+    long idleNanosToPark = -1; // signal wakeup only, < 0 => nanosToPark, 0 => until signaled
+    volatile boolean signalWakeup = SIGNAL_WAKEUP;
 
     public BackOffStrategy() {
         setCounters(SPIN_UNTIL_YIELD, YIELD_UNTIL_PARK, PARK_UNTIL_SLEEP);
@@ -67,6 +75,28 @@ public class BackOffStrategy {
         this.nanosToPark = nanosToPark; return this;
     }
 
+    public long getIdleNanosToPark() {
+        return idleNanosToPark < 0 ? nanosToPark : idleNanosToPark;
+    }
+
+    /**
+     * @param idleNanosToPark - max time an idle dispatcher parks in signal wakeup mode, 0 = until signaled.
+     */
+    public BackOffStrategy setIdleNanosToPark(long idleNanosToPark) {
+        this.idleNanosToPark = idleNanosToPark; return this;
+    }
+
+    public boolean isSignalWakeup() {
+        return signalWakeup;
+    }
+
+    /**
+     * @param signalWakeup - if true, senders unpark a sleeping dispatcher. nanosToPark then is an upper bound only
+     */
+    public BackOffStrategy setSignalWakeup(boolean signalWakeup) {
+        this.signalWakeup = signalWakeup; return this;
+    }
+
     public void yield(int count) {
         if ( count > sleepCount || count < 0 ) {
             LockSupport.parkNanos(nanosToPark);
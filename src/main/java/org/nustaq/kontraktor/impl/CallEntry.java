@@ -34,6 +34,7 @@ public class CallEntry<T> {
     transient private Actor targetActor;  // defines actor assignment in case target is callback
     transient private boolean onCBQueue;  // determines queue used
     transient private ConnectionRegistry remoteRefRegistry; // remote connection call came from
+    transient private int methodIndex = ActorInvoker.NO_INDEX; // method id, see ActorInvoker
 
     public CallEntry(T target, Method method, Object[] args, Actor sender, Actor targetActor, boolean isCB) {
         this.target = target;
@@ -52,6 +53,14 @@ public class CallEntry<T> {
         return remoteRefRegistry;
     }
 
+    public int getMethodIndex() {
+        return methodIndex;
+    }
+
+    public void setMethodIndex(int methodIndex) {
+        this.methodIndex = methodIndex;
+    }
+
     public Actor getTargetActor() {
         return targetActor;
     }
@@ -96,11 +96,7 @@ public class CallbackWrapper<T> implements IPromise<T>, Serializable {
         }
         if ( targetActor == null ) {
             // call came from outside the actor world => use current thread => blocking the callback blocks actor, don't !
-            try {
-                receiveRes.invoke(realCallback, result, error);
-            } catch (Exception e) {
-                FSTUtil.rethrow(e);
-            }
+            realCallback.complete(result, error);
         } else {
             CallEntry ce = new CallEntry( realCallback, receiveRes, new Object[]{result,error}, Actor.sender.get(), targetActor, true);
             targetActor.__scheduler.put2QueuePolling(targetActor.__cbQueue, true, ce, targetActor);
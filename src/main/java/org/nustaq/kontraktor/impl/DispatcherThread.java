@@ -18,6 +18,7 @@ package org.nustaq.kontraktor.impl;
 
 import org.nustaq.kontraktor.*;
 import org.nustaq.kontraktor.monitoring.Monitorable;
+import org.nustaq.kontraktor.remoting.base.ConnectionRegistry;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.serialization.util.FSTUtil;
 
@@ -25,6 +26,7 @@ import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.locks.LockSupport;
 
 /**
@@ -66,6 +68,22 @@ import java.util.concurrent.locks.LockSupport;
  * The Actors.Channel method allows to specifiy a dedicated dispatcher on which to run the actor. This way it is possible
  * to exactly balance and control the number of threads created and which thread operates a set of actors.
  *
+ * By default all actors of a dispatcher are polled round robin, so cost per message grows with the number of actors
+ * scheduled. In ready queue mode (see READY_QUEUE_SCHEDULING), senders mark the receiving actor as ready on a
+ * per-dispatcher queue once it transitions from idle to having messages, so polling cost is proportional
+ * to the number of active actors. Useful in case a dispatcher hosts many mostly idle actors.
+ *
+ * A dispatcher processes up to drainBudget (see DRAIN_BUDGET) messages of an actor's queues before moving on
+ * to the next actor. Larger values raise throughput of chatty actors at the cost of fairness.
+ *
+ * A DispatcherThread usually runs its own loop. Alternatively run() can be executed by another thread
+ * (e.g. a virtual thread, see VirtualThreadScheduler), the DispatcherThread instance then is never started and
+ * serves as scheduling context only. Use DispatcherThread.current() instead of Thread.currentThread() to
+ * find the dispatcher of the calling thread.
+ *
+ * Actors can be moved to another dispatcher by their current dispatcher thread only (see moveActor), in between
+ * processing messages. This way an actor is never executed by two threads at the same time.
+ *
  */
 public class DispatcherThread extends Thread implements Monitorable {
 
@@ -74,8 +92,21 @@ public class DispatcherThread extends Thread implements Monitorable {
     public static int QUEUE_PERCENTAGE_TRIGGERING_REBALANCE = 50;      // if queue is X % full, consider rebalance
     public static int MILLIS_AFTER_CREATION_BEFORE_REBALANCING = 2; // give caches a chance to get things going before rebalancing
 
+    /**
+     * default for dispatchers created afterwards, see class comment
+     */
+    public static boolean READY_QUEUE_SCHEDULING = false;
+    /**
+     * default max number of messages processed from one actor before polling the next one
+     */
+    public static int DRAIN_BUDGET = 1;
+
     public static AtomicInteger activeDispatchers = new AtomicInteger(0);
 
+    static final ThreadLocal<DispatcherThread> hostedDispatcher = new ThreadLocal<>(); // set if run() is executed by another thread
+
+    static final AtomicIntegerFieldUpdater<Actor> READY = AtomicIntegerFieldUpdater.newUpdater(Actor.class,"__ready");
+
     public static final int POLL_ALL_Q = 0;
     public static final int POLL_CB_Q = 1;
 
@@ -84,22 +115,55 @@ public class DispatcherThread extends Thread implements Monitorable {
     private Actor actors[] = new Actor[0]; // always refs
     ConcurrentLinkedQueue<Actor> toAdd = new ConcurrentLinkedQueue<>();
 
+    // ready queue mode only
+    protected final boolean useReadyQueue;
+    ConcurrentLinkedQueue<Actor> readyQueue = new ConcurrentLinkedQueue<>(); // actors turned ready, filled by senders
+    ArrayDeque<Actor> activeActors = new ArrayDeque<>(); // actors with pending messages, dispatcher thread only
+
+    protected int drainBudget = DRAIN_BUDGET;
+
+    // values last set to Actor.sender / Actor.connection by this thread, avoids redundant ThreadLocal writes
+    Actor currentSender;
+    ConnectionRegistry currentConnection;
+
     protected boolean shutDown = false;
 
     static AtomicInteger dtcount = new AtomicInteger(0); // thread naming
 
     public ArrayList __stack = new ArrayList();
     volatile boolean isIsolated = false;
+    volatile boolean parked = false; // true while sleeping in signal wakeup mode
+    volatile Thread runner = this;   // thread executing run()
+    volatile boolean idle = false;   // true if queues were found empty repeatedly, reset once a message is polled
+    int migratedOut;                 // actors moved away, written by this thread only
+    AtomicInteger migratedIn = new AtomicInteger(); // actors moved to this
     protected volatile boolean autoShutDown = true;
 
+    /**
+     * @return the dispatcher run by the calling thread, null if not called from a dispatcher
+     */
+    public static DispatcherThread current() {
+        Thread thread = Thread.currentThread();
+        if ( thread instanceof DispatcherThread )
+            return (DispatcherThread) thread;
+        return hostedDispatcher.get();
+    }
+
     public DispatcherThread(Scheduler scheduler) {
-        this.scheduler = scheduler;
-        setName("DispatcherThread "+dtcount.incrementAndGet());
+        this(scheduler,true);
     }
 
     public DispatcherThread(Scheduler scheduler, boolean autoShutDown) {
+        this(scheduler,autoShutDown,READY_QUEUE_SCHEDULING);
+    }
+
+    /**
+     * @param useReadyQueue - poll actors marked ready by senders instead of polling all actors round robin
+     */
+    public DispatcherThread(Scheduler scheduler, boolean autoShutDown, boolean useReadyQueue) {
         this.autoShutDown = autoShutDown;
         this.scheduler = scheduler;
+        this.useReadyQueue = useReadyQueue;
         setName("DispatcherThread "+dtcount.incrementAndGet());
     }
 
@@ -125,6 +189,7 @@ public class DispatcherThread extends Thread implements Monitorable {
         if ( thisActor != null ) // pseudo interface
             thisActor.__currentDispatcher = this;
         toAdd.offer(ref);
+        wakeUp();
     }
 
     public boolean isAutoShutDown() {
@@ -137,8 +202,10 @@ public class DispatcherThread extends Thread implements Monitorable {
 
     // removes immediate must be called from this thread
     void removeActorImmediate(Actor act) {
-        if ( Thread.currentThread() != this )
+        if ( current() != this )
             throw new RuntimeException("wrong thread");
+        if ( toAdd.remove(act) ) // moved here, but not yet scheduled (ready queue mode)
+            return;
         Actor newAct[] = new Actor[actors.length-1];
         int idx = 0;
         for (int i = 0; i < actors.length; i++) {
@@ -158,11 +225,18 @@ public class DispatcherThread extends Thread implements Monitorable {
         long scheduleTickTime = System.nanoTime();
         boolean isShutDown = false;
         activeDispatchers.incrementAndGet();
+        Thread thread = Thread.currentThread();
+        if ( thread != this ) { // hosted
+            runner = thread;
+            hostedDispatcher.set(this);
+        }
         try {
             while( ! isShutDown ) {
                 try {
                     if ( pollQs() ) {
                         emptyCount = 0;
+                        if ( idle )
+                            idle = false;
                         if ( System.nanoTime() - scheduleTickTime > SCHEDULE_TICK_NANOS) {
                             if ( emptySinceLastCheck == 0 ) // no idle during last interval
                             {
@@ -176,7 +250,17 @@ public class DispatcherThread extends Thread implements Monitorable {
                     else {
                         emptyCount++;
                         emptySinceLastCheck++;
-                        scheduler.pollDelay(emptyCount);
+                        BackOffStrategy backOff = scheduler.getBackoffStrategy();
+                        if ( ! idle && backOff.isYielding(emptyCount) )
+                            idle = true;
+                        if ( backOff.isSignalWakeup() && backOff.isSleeping(emptyCount) ) {
+                            long parkNanos = backOff.getIdleNanosToPark();
+                            if ( parkNanos <= 0 && actors.length == 0 ) // no signal expected, check for termination
+                                parkNanos = backOff.getNanosToPark();
+                            parkUntilSignaled(parkNanos);
+                        }
+                        else
+                            scheduler.pollDelay(emptyCount);
                         if (shutDown) // access volatile only when idle
                             isShutDown = true;
                         if ( scheduler.getBackoffStrategy().isSleeping(emptyCount) ) {
@@ -206,7 +290,45 @@ public class DispatcherThread extends Thread implements Monitorable {
                 Log.Debug(this,"dispatcher thread terminated "+getName());
         } finally {
             activeDispatchers.decrementAndGet();
+            hostedDispatcher.remove();
+        }
+    }
+
+    /**
+     * park until a sender calls wakeUp() or nanos elapsed (nanos <= 0: no timeout). Publishing 'parked' before
+     * re-checking the queues guarantees a concurrent sender either sees the flag or its message is seen here.
+     */
+    protected boolean parkUntilSignaled(long nanos) {
+        parked = true;
+        boolean empty = useReadyQueue ? readyQueue.peek() == null && activeActors.isEmpty() : isEmpty();
+        boolean park = empty && toAdd.peek() == null && ! shutDown;
+        if ( park ) {
+            if ( nanos > 0 )
+                LockSupport.parkNanos(this, nanos);
+            else
+                LockSupport.park(this);
         }
+        parked = false;
+        return park;
+    }
+
+    /**
+     * back off in a polling loop nested into an actor method (await, Actors.yield). In signal wakeup mode a sleeping
+     * dispatcher parks until signaled, at most maxNanos, else (or if messages are pending the caller does
+     * not poll) the scheduler's pollDelay applies.
+     */
+    public void pollDelay(int count, long maxNanos) {
+        BackOffStrategy backOff = scheduler.getBackoffStrategy();
+        if ( ! backOff.isSignalWakeup() || ! backOff.isSleeping(count) || ! parkUntilSignaled(maxNanos) )
+            scheduler.pollDelay(count);
+    }
+
+    /**
+     * unpark this dispatcher in case it sleeps (signal wakeup mode only). Called by senders after enqueuing.
+     */
+    public void wakeUp() {
+        if ( parked )
+            LockSupport.unpark(runner);
     }
 
     /**
@@ -224,15 +346,121 @@ public class DispatcherThread extends Thread implements Monitorable {
             for (int i = 0; i < newOnes.size(); i++) {
                 Actor actor = newOnes.get(i);
                 newQueue[actors.length+i] = actor;
+                if ( ! actor.isEmpty() ) // messages sent before actor was assigned
+                    actorReady(actor);
             }
             actors = newQueue;
         }
 
     }
 
+    public int getDrainBudget() {
+        return drainBudget;
+    }
+
+    /**
+     * max number of messages processed from one actor before polling the next one. Must be called before start
+     * or from this thread.
+     */
+    public DispatcherThread setDrainBudget(int drainBudget) {
+        this.drainBudget = Math.max(1,drainBudget);
+        return this;
+    }
+
+    /**
+     * move an actor scheduled by this dispatcher to another one. Must be called from this thread
+     * while the actor is not executing (e.g. not from inside one of its methods or an await).
+     */
+    public void moveActor(Actor act, DispatcherThread target) {
+        Actor ref = act.getActorRef();
+        removeActorImmediate(ref);
+        boolean wasReady = useReadyQueue && activeActors.remove(ref);
+        target.addActor(ref);
+        // senders unaware of the move might still mark it ready here, such entries are forwarded (see pollReadyQueues)
+        if ( wasReady )
+            target.handOverReady(ref);
+        migratedOut++;
+        target.migratedIn.incrementAndGet();
+        target.wakeUp();
+    }
+
+    // take over an actor already marked ready by another dispatcher
+    void handOverReady(Actor ref) {
+        if ( useReadyQueue )
+            readyQueue.offer(ref);
+        else
+            ref.__ready = 0;
+    }
+
+    /**
+     * @return true if this dispatcher did not find any messages recently
+     */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    public int getMigratedOut() {
+        return migratedOut;
+    }
+
+    public int getMigratedIn() {
+        return migratedIn.get();
+    }
+
+    public boolean isUseReadyQueue() {
+        return useReadyQueue;
+    }
+
+    /**
+     * called by senders after a message has been put to one of the queues of given actor.
+     * NOP if not in ready queue mode.
+     */
+    public void actorReady(Actor receiver) {
+        if ( useReadyQueue ) {
+            Actor ref = receiver.__self;
+            if ( ref != null && ref.__ready == 0 && READY.compareAndSet(ref, 0, 1) ) {
+                readyQueue.offer(ref);
+            }
+        }
+    }
+
+    // ready queue mode: poll actors marked ready round robin
+    protected CallEntry pollReadyQueues() {
+        Actor ready;
+        while ( (ready = readyQueue.poll()) != null ) {
+            activeActors.addLast(ready);
+        }
+        int count = activeActors.size();
+        while ( count-- > 0 ) {
+            Actor actor = activeActors.pollFirst();
+            if ( actor.__currentDispatcher != this ) {
+                // marked by a sender unaware the actor has been moved, pass on to current dispatcher
+                ((DispatcherThread) actor.__currentDispatcher).handOverReady(actor);
+                continue;
+            }
+            CallEntry res = (CallEntry) actor.__cbQueue.poll();
+            if ( res == null )
+                res = (CallEntry) actor.__mailbox.poll();
+            if ( res != null ) {
+                activeActors.addLast(actor);
+                return res;
+            }
+            // looks idle. Senders mark after enqueuing, so reset flag first, then recheck
+            // in order to not miss a message enqueued concurrently
+            actor.__ready = 0;
+            if ( ! actor.isEmpty() && READY.compareAndSet(actor, 0, 1) ) {
+                activeActors.addLast(actor);
+            }
+        }
+        return null;
+    }
+
     // poll all actors in queue arr round robin
     int currentPolledActor = 0;
     protected CallEntry pollQueues(Actor[] actors, int queues) {
+        if ( useReadyQueue && queues == POLL_ALL_Q && actors == this.actors ) {
+            return pollReadyQueues();
+        }
         if ( actors.length == 0 ) {
             return null;
         }
@@ -274,59 +502,88 @@ public class DispatcherThread extends Thread implements Monitorable {
      */
     public boolean pollQs(Actor actors[], int queues) {
         CallEntry callEntry = pollQueues(actors,queues);
-        if (callEntry != null) {
-            try {
-                // before calling the actor method, set current sender
-                // to target, so for each method/callback invoked by the actor method,
-                // sender has correct value
-                Actor targetActor = callEntry.getTargetActor();
+        if (callEntry == null) {
+            return false;
+        }
+        boolean res = dispatch(callEntry);
+        // drain further messages of the same actor up to budget
+        Actor target = callEntry.getTargetActor();
+        boolean ok = res;
+        for ( int budget = drainBudget-1; budget > 0 && ok; budget-- ) {
+            callEntry = (CallEntry) target.__cbQueue.poll();
+            if ( callEntry == null && queues == POLL_ALL_Q )
+                callEntry = (CallEntry) target.__mailbox.poll();
+            if ( callEntry == null )
+                break;
+            ok = dispatch(callEntry);
+        }
+        return res;
+    }
+
+    /**
+     * process a single message
+     * @return false if an unhandled exception occured
+     */
+    protected boolean dispatch(CallEntry callEntry) {
+        try {
+            // before calling the actor method, set current sender
+            // to target, so for each method/callback invoked by the actor method,
+            // sender has correct value
+            Actor targetActor = callEntry.getTargetActor();
+            if ( targetActor != currentSender ) {
+                currentSender = targetActor;
                 Actor.sender.set(targetActor);
-                Actor.connection.set(callEntry.getRemoteRefRegistry());
-                if (targetActor.__stopped) {
-                    targetActor.__addDeadLetter(targetActor,callEntry.getMethod().getName());
-                    return true;
-                }
-                Object invoke = null;
-                try {
-                    invoke = invoke(callEntry);
-                } catch (IllegalArgumentException iae) {
-                    // FIXME: boolean is translated wrong by minbin .. this fix is expensive
-                    final Class<?>[] parameterTypes = callEntry.getMethod().getParameterTypes();
-                    final Object[] args = callEntry.getArgs();
-                    if ( args.length == parameterTypes.length ) {
-                        for (int i = 0; i < args.length; i++) {
-                            Object arg = args[i];
-                            if ( (parameterTypes[i] == boolean.class || parameterTypes[i] == Boolean.class) &&
-                                 arg instanceof Byte ) {
-                                args[i] = ((Byte) arg).intValue()!=0;
-                            }
-                        }
-                        invoke = invoke(callEntry);
-                    } else {
-                        System.out.println("mismatch when invoking method " + callEntry);
-                        for (int i = 0; i < callEntry.getArgs().length; i++) {
-                            Object o = callEntry.getArgs()[i];
-                            System.out.println("arg " + i + " " + o + (o != null ? " " + o.getClass().getSimpleName() : "") + ",");
+            }
+            ConnectionRegistry registry = callEntry.getRemoteRefRegistry();
+            if ( registry != currentConnection ) {
+                currentConnection = registry;
+                Actor.connection.set(registry);
+            }
+            if (targetActor.__stopped) {
+                targetActor.__addDeadLetter(targetActor,callEntry.getMethod().getName());
+                return true;
+            }
+            Object invoke = null;
+            try {
+                invoke = invoke(callEntry);
+            } catch (IllegalArgumentException iae) {
+                // FIXME: boolean is translated wrong by minbin .. this fix is expensive
+                final Class<?>[] parameterTypes = callEntry.getMethod().getParameterTypes();
+                final Object[] args = callEntry.getArgs();
+                if ( args.length == parameterTypes.length ) {
+                    for (int i = 0; i < args.length; i++) {
+                        Object arg = args[i];
+                        if ( (parameterTypes[i] == boolean.class || parameterTypes[i] == Boolean.class) &&
+                             arg instanceof Byte ) {
+                            args[i] = ((Byte) arg).intValue()!=0;
                         }
-                        System.out.println();
-                        throw iae;
                     }
-                }
-                if (callEntry.getFutureCB() != null) {
-                    final IPromise futureCB = callEntry.getFutureCB();   // the future of caller side
-                    final Promise invokeResult = (Promise) invoke;  // the future returned sync from call
-                    if ( invokeResult != null ) { // if return null instead a promise, method is handled like void
-                        invokeResult.then( futureCB );
+                    invoke = invoke(callEntry);
+                } else {
+                    System.out.println("mismatch when invoking method " + callEntry);
+                    for (int i = 0; i < callEntry.getArgs().length; i++) {
+                        Object o = callEntry.getArgs()[i];
+                        System.out.println("arg " + i + " " + o + (o != null ? " " + o.getClass().getSimpleName() : "") + ",");
                     }
+                    System.out.println();
+                    throw iae;
                 }
-                return true;
-            } catch ( Throwable e) {
-                if ( e instanceof InvocationTargetException && ((InvocationTargetException) e).getTargetException() == InternalActorStoppedException.Instance ) {
-
-                    // fixme: rare classcast exception with elasticscheduler seen here when stop is called from a callback ..
-                    Actor actor = (Actor) callEntry.getTarget();
-                    actor.__stopped = true;
-                    removeActorImmediate(actor.getActorRef());
+            }
+            if (callEntry.getFutureCB() != null) {
+                final IPromise futureCB = callEntry.getFutureCB();   // the future of caller side
+                final Promise invokeResult = (Promise) invoke;  // the future returned sync from call
+                if ( invokeResult != null ) { // if return null instead a promise, method is handled like void
+                    invokeResult.then( futureCB );
+                }
+            }
+            return true;
+        } catch ( Throwable e) {
+            if ( e instanceof InvocationTargetException && ((InvocationTargetException) e).getTargetException() == InternalActorStoppedException.Instance ) {
+
+                // fixme: rare classcast exception with elasticscheduler seen here when stop is called from a callback ..
+                Actor actor = (Actor) callEntry.getTarget();
+                actor.__stopped = true;
+                removeActorImmediate(actor.getActorRef());
 // FIXME: Many Testcases fail if uncommented. Rethink
 //                    if (callEntry.getFutureCB() != null)
 //                        callEntry.getFutureCB().complete(null, e);
@@ -336,21 +593,20 @@ public class DispatcherThread extends Thread implements Monitorable {
 //                        callEntry.getFutureCB().complete(null, e);
 //                    else
 //                        Log.Warn(this,e,"");
-                    return true;
-                }
-                if ( e instanceof InvocationTargetException ) {
-                    e = e.getCause();
-                }
-                if (callEntry.getFutureCB() != null) {
-                    Log.Warn(this, e, "unhandled exception in message: '"+callEntry+"'.returned catched exception to future " + e + " set DispatcherThread.DUMP_CATCHED to true in order to dump stack.");
-                    if ( DUMP_CATCHED ) {
-                        e.printStackTrace();
-                    }
-                    callEntry.getFutureCB().complete(null, e);
+                return true;
+            }
+            if ( e instanceof InvocationTargetException ) {
+                e = e.getCause();
+            }
+            if (callEntry.getFutureCB() != null) {
+                Log.Warn(this, e, "unhandled exception in message: '"+callEntry+"'.returned catched exception to future " + e + " set DispatcherThread.DUMP_CATCHED to true in order to dump stack.");
+                if ( DUMP_CATCHED ) {
+                    e.printStackTrace();
                 }
-                else
-                    Log.Warn(this,e,"");
+                callEntry.getFutureCB().complete(null, e);
             }
+            else
+                Log.Warn(this,e,"");
         }
         return false;
     }
@@ -359,6 +615,25 @@ public class DispatcherThread extends Thread implements Monitorable {
         final Object target = poll.getTarget();
         Object invoke = null;
         Method method = poll.getMethod();
+        int methodIndex = poll.getMethodIndex();
+        if ( methodIndex >= 0 && ((Actor) target).__invoker.isDirect(methodIndex) ) {
+            // generated invoker, direct call. wrap exceptions as Method.invoke does
+            try {
+                return ((Actor) target).__invoker.invoke(target, methodIndex, poll.getArgs());
+            } catch (Throwable th) {
+                throw new InvocationTargetException(th);
+            }
+        }
+        if ( method == CallbackWrapper.receiveRes ) {
+            // promise results + callbacks
+            try {
+                Object[] args = poll.getArgs();
+                ((Callback) target).complete(args[0], args[1]);
+                return null;
+            } catch (Throwable th) {
+                throw new InvocationTargetException(th);
+            }
+        }
         try {
             invoke = method.invoke(target, poll.getArgs());
         } catch (IllegalArgumentException iea) {
@@ -369,15 +644,11 @@ public class DispatcherThread extends Thread implements Monitorable {
         return invoke;
     }
 
+    // called from run() only, so no actor is executing currently and actors can be moved
     private void checkForSplit() {
-        // uncessesary as auto balance has been abandonned. FIXME: clean up !
-//        int load = getLoad();
-//        if (load > QUEUE_PERCENTAGE_TRIGGERING_REBALANCE &&
-//            actors.length > 1 &&
-//            System.currentTimeMillis()-created > MILLIS_AFTER_CREATION_BEFORE_REBALANCING )
-//        {
-//            scheduler.rebalance(this);
-//        }
+        if ( actors.length > 1 ) {
+            scheduler.rebalance(this);
+        }
     }
 
 
@@ -441,6 +712,7 @@ public class DispatcherThread extends Thread implements Monitorable {
      */
     public void shutDown() {
         shutDown=true;
+        wakeUp();
     }
 
     /**
@@ -491,7 +763,7 @@ public class DispatcherThread extends Thread implements Monitorable {
      * @return
      */
     public boolean schedules(Object receiverRef) {
-        if ( Thread.currentThread() != this ) {
+        if ( current() != this ) {
             throw new RuntimeException("cannot call from foreign thread");
         }
         if ( receiverRef instanceof Actor ) {
@@ -508,7 +780,7 @@ public class DispatcherThread extends Thread implements Monitorable {
 
     @Override
     public IPromise getReport() {
-        return new Promise(new DispatcherReport(getName(), actors.length, getLoad(),getAccumulatedQSizes() ));
+        return new Promise(new DispatcherReport(getName(), actors.length, getLoad(),getAccumulatedQSizes(), getMigratedIn(), getMigratedOut() ));
     }
 
     @Override
@@ -522,6 +794,8 @@ public class DispatcherThread extends Thread implements Monitorable {
         int numActors;
         int loadPerc;
         int qSizes;
+        int migratedIn;
+        int migratedOut;
 
         public DispatcherReport() {
         }
@@ -533,6 +807,12 @@ public class DispatcherThread extends Thread implements Monitorable {
             this.qSizes = qSizes;
         }
 
+        public DispatcherReport(String name, int numActors, int loadPerc, int qSizes, int migratedIn, int migratedOut) {
+            this(name, numActors, loadPerc, qSizes);
+            this.migratedIn = migratedIn;
+            this.migratedOut = migratedOut;
+        }
+
         public String getName() {
             return name;
         }
@@ -540,6 +820,14 @@ public class DispatcherThread extends Thread implements Monitorable {
         public int getNumActors() {
             return numActors;
         }
+
+        public int getMigratedIn() {
+            return migratedIn;
+        }
+
+        public int getMigratedOut() {
+            return migratedOut;
+        }
     }
 
 }
@@ -0,0 +1,234 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.impl;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.monitoring.Monitorable;
+import org.nustaq.kontraktor.util.Log;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A scheduler running up to N dispatcher threads (default: number of cores). Actors are assigned
+ * round robin, threads are created on demand.
+ *
+ * Each dispatcher which has been busy for a whole DispatcherThread.SCHEDULE_TICK_NANOS interval calls rebalance()
+ * in between two messages. If another dispatcher of this scheduler is idle, the busy one hands over
+ * its hottest actors (by queue size) to the idle one. As actors are moved only by the thread currently
+ * running them and only while none of their methods is executing, an actor is still never run by two
+ * threads at the same time.
+ */
+public class ElasticScheduler extends SimpleScheduler {
+
+    public static boolean DEBUG_MIGRATION = false;
+    /**
+     * actors with less queued messages are not considered hot
+     */
+    public static int MIN_QSIZE_TO_MIGRATE = 4;
+
+    final DispatcherThread threads[];
+    final Object balanceLock = new Object();
+    final AtomicLong migrations = new AtomicLong();
+    boolean keepAlive = false;
+    int nextThread = 0;
+
+    public ElasticScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ElasticScheduler(int maxThreads) {
+        this(maxThreads, DEFQSIZE);
+    }
+
+    public ElasticScheduler(int maxThreads, int qsize) {
+        super("dummy");
+        this.qsize = qsize;
+        threads = new DispatcherThread[Math.max(1,maxThreads)];
+    }
+
+    /**
+     * @return an UNSTARTED dispatcher thread
+     */
+    protected DispatcherThread createDispatcherThread() {
+        return new DispatcherThread(this, !keepAlive);
+    }
+
+    public int getMaxThreads() {
+        return threads.length;
+    }
+
+    /**
+     * @return number of actors moved between dispatchers so far
+     */
+    public long getMigrations() {
+        return migrations.get();
+    }
+
+    @Override
+    public DispatcherThread assignDispatcher(int minLoadPerc) {
+        synchronized (balanceLock) {
+            for (int i = 0; i < threads.length; i++) {
+                DispatcherThread thread = threads[i];
+                if ( thread == null || thread.isShutDown() ) {
+                    thread = createDispatcherThread();
+                    threads[i] = thread;
+                    thread.start();
+                    return thread;
+                }
+            }
+            nextThread = (nextThread+1) % threads.length;
+            return threads[nextThread];
+        }
+    }
+
+    /**
+     * called by a dispatcher thread busy for at least one schedule tick. Moves hot actors to an idle dispatcher.
+     */
+    @Override
+    public void rebalance(DispatcherThread dispatcherThread) {
+        if ( DispatcherThread.current() != dispatcherThread )
+            return;
+        synchronized (balanceLock) {
+            DispatcherThread idle = findIdleThread(dispatcherThread);
+            if ( idle == null )
+                return;
+            Actor actors[] = dispatcherThread.getActors();
+            int qSizes[] = new int[actors.length];
+            int load = 0;
+            for (int i = 0; i < actors.length; i++) {
+                qSizes[i] = actors[i].getQSizes();
+                load += qSizes[i];
+            }
+            int moved = 0;
+            int count = 0;
+            while ( true ) {
+                int max = -1;
+                for (int i = 0; i < actors.length; i++) {
+                    if ( qSizes[i] >= 0 && (max < 0 || qSizes[i] > qSizes[max]) )
+                        max = i;
+                }
+                // move only if this reduces the imbalance, so at least one busy actor remains
+                if ( max < 0 || qSizes[max] < MIN_QSIZE_TO_MIGRATE || qSizes[max] >= load - moved )
+                    break;
+                if ( DEBUG_MIGRATION )
+                    Log.Info(this, "move " + actors[max].getActor().getClass().getSimpleName() + " qsize " + qSizes[max] + " from " + dispatcherThread.getName() + " to " + idle.getName());
+                dispatcherThread.moveActor(actors[max], idle);
+                load -= qSizes[max];
+                moved += qSizes[max];
+                qSizes[max] = -1;
+                count++;
+            }
+            if ( count > 0 ) {
+                idle.idle = false; // avoid other dispatchers flooding it
+                migrations.addAndGet(count);
+            }
+        }
+    }
+
+    private DispatcherThread findIdleThread(DispatcherThread exclude) {
+        DispatcherThread res = null;
+        for (int i = 0; i < threads.length; i++) {
+            DispatcherThread thread = threads[i];
+            if ( thread != null && thread != exclude && thread.isIdle() && ! thread.isShutDown() ) {
+                if ( res == null || thread.getActorsNoCopy().length < res.getActorsNoCopy().length )
+                    res = thread;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * called by a dispatcher thread after termination if actors have been added to it concurrently.
+     * Moves those to running dispatchers.
+     */
+    @Override
+    public void tryStopThread(DispatcherThread dispatcherThread) {
+        if ( DispatcherThread.current() != dispatcherThread || ! dispatcherThread.isShutDown() )
+            return;
+        dispatcherThread.schedulePendingAdds();
+        Actor actors[] = dispatcherThread.getActors();
+        for (int i = 0; i < actors.length; i++) {
+            dispatcherThread.moveActor(actors[i], assignDispatcher(0));
+            migrations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void threadStopped(DispatcherThread th) {
+        synchronized (balanceLock) {
+            for (int i = 0; i < threads.length; i++) {
+                if ( threads[i] == th ) {
+                    threads[i] = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void terminateIfIdle() {
+        setKeepAlive(false);
+    }
+
+    @Override
+    public void setKeepAlive(boolean b) {
+        synchronized (balanceLock) {
+            keepAlive = b;
+            for (int i = 0; i < threads.length; i++) {
+                if ( threads[i] != null )
+                    threads[i].setAutoShutDown(!b);
+            }
+        }
+    }
+
+    @Override
+    public int getNumActors() {
+        int res = 0;
+        DispatcherThread current[] = getThreads();
+        for (int i = 0; i < current.length; i++) {
+            res += current[i].getActorsNoCopy().length;
+        }
+        return res;
+    }
+
+    /**
+     * @return currently running dispatchers
+     */
+    public DispatcherThread[] getThreads() {
+        ArrayList<DispatcherThread> res = new ArrayList<>();
+        synchronized (balanceLock) {
+            for (int i = 0; i < threads.length; i++) {
+                if ( threads[i] != null )
+                    res.add(threads[i]);
+            }
+        }
+        return res.toArray(new DispatcherThread[res.size()]);
+    }
+
+    @Override
+    public IPromise getReport() {
+        return new Promise<>(new SchedulingReport(getThreads().length,getDefaultQSize(),0,migrations.get()));
+    }
+
+    @Override
+    public IPromise<Monitorable[]> getSubMonitorables() {
+        return new Promise<>(getThreads());
+    }
+
+}
@@ -21,6 +21,7 @@ import org.nustaq.kontraktor.Callback;
 import org.nustaq.kontraktor.remoting.base.ConnectionRegistry;
 
 import java.lang.reflect.Method;
+import java.util.Queue;
 import java.util.concurrent.Callable;
 
 /**
@@ -37,7 +38,7 @@ public class RemoteScheduler extends SimpleScheduler {
     public RemoteScheduler(int defQSize) {
         super("dummy");
         this.qsize = defQSize;
-        myThread = new DispatcherThread(this) {
+        myThread = new DispatcherThread(this,true,false) { // messages are polled by ConnectionRegistry
             @Override
             public synchronized void start() {
                 // fake thread, just don't start
@@ -49,6 +50,17 @@ public class RemoteScheduler extends SimpleScheduler {
         };
     }
 
+    @Override
+    public void put2QueuePolling(Queue q, boolean isCBQ, Object o, Object receiver) {
+        super.put2QueuePolling(q, isCBQ, o, receiver);
+        if ( receiver instanceof Actor ) {
+            Actor ref = ((Actor) receiver).getActorRef();
+            ConnectionRegistry reg = ref != null ? ref.__clientConnection : null;
+            if ( reg != null )
+                reg.messagePending(ref); // event driven send, see RemoteRefPolling
+        }
+    }
+
     // fixme: might execute on remoteref poller ?
 
     @Override
@@ -26,6 +26,7 @@ public class SchedulingReport implements Serializable {
     int numDispatchers;
     int defQSize;
     int isolatedThreads;
+    long migrations;
 
     public SchedulingReport() {
     }
@@ -36,6 +37,11 @@ public class SchedulingReport implements Serializable {
         this.isolatedThreads = isolatedThreads;
     }
 
+    public SchedulingReport(int numDispatchers, int defQSize, int isolatedThreads, long migrations) {
+        this(numDispatchers, defQSize, isolatedThreads);
+        this.migrations = migrations;
+    }
+
     public int getNumDispatchers() {
         return numDispatchers;
     }
@@ -43,4 +49,11 @@ public class SchedulingReport implements Serializable {
     public int getDefQSize() {
         return defQSize;
     }
+
+    /**
+     * @return number of actors moved between dispatchers
+     */
+    public long getMigrations() {
+        return migrations;
+    }
 }
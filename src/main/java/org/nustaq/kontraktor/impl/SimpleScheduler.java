@@ -138,18 +138,22 @@ public class SimpleScheduler implements Scheduler {
                 }
             }
         }
+        if ( receiver instanceof Actor ) {
+            Thread dispatcher = ((Actor) receiver).__currentDispatcher;
+            if ( dispatcher instanceof DispatcherThread ) {
+                ((DispatcherThread) dispatcher).actorReady((Actor) receiver);
+                if ( backOffStrategy.isSignalWakeup() )
+                    ((DispatcherThread) dispatcher).wakeUp();
+            }
+        }
     }
 
     public IPromise put2QueuePolling(CallEntry e) {
         final IPromise fut;
         if (e.hasFutureResult() && ! (e.getFutureCB() instanceof CallbackWrapper) ) {
             fut = new Promise();
-            e.setFutureCB(new CallbackWrapper( e.getSendingActor() ,new Callback() {
-                @Override
-                public void complete(Object result, Object error) {
-                    fut.complete(result, error);
-                }
-            }));
+            // the promise is completed directly by the wrapper, no intermediate callback
+            e.setFutureCB(new CallbackWrapper( e.getSendingActor(), fut ));
         } else
             fut = null;
         Actor targetActor = e.getTargetActor();
@@ -162,6 +166,15 @@ public class SimpleScheduler implements Scheduler {
         return enqueueCallFromRemote((ConnectionRegistry) receiver.__clientConnection,sendingActor,receiver,methodName,args,isCB, null, null);
     }
 
+    @Override
+    public Object enqueueCall(Actor sendingActor, Actor receiver, String methodName, int methodId, Object[] args, boolean isCB) {
+        Actor actor = receiver.getActor();
+        Method method = actor.__invoker != null ? actor.__invoker.getMethod(methodId) : null;
+        if ( method == null ) // no invoker generated
+            return enqueueCall(sendingActor, receiver, methodName, args, isCB);
+        return enqueueResolvedCall((ConnectionRegistry) receiver.__clientConnection, sendingActor, actor, method, methodId, args, isCB);
+    }
+
     @Override
     public Object enqueueCall(ConnectionRegistry reg, Actor sendingActor, Actor receiver, String methodName, Object[] args, boolean isCB) {
         return enqueueCallFromRemote( reg,sendingActor,receiver,methodName,args,isCB, null, null);
@@ -176,6 +189,11 @@ public class SimpleScheduler implements Scheduler {
 
         if ( method == null )
             throw new RuntimeException("unknown method "+methodName+" on "+actor);
+        int methodId = actor.__invoker != null ? actor.__invoker.getMethodIndex(method) : ActorInvoker.NO_INDEX;
+        return enqueueResolvedCall(reg, sendingActor, actor, method, methodId, args, isCB);
+    }
+
+    protected Object enqueueResolvedCall(ConnectionRegistry reg, Actor sendingActor, Actor actor, Method method, int methodId, Object[] args, boolean isCB) {
         // scan for callbacks in arguments ..
         for (int i = 0; i < args.length; i++) {
             Object arg = args[i];
@@ -185,6 +203,7 @@ public class SimpleScheduler implements Scheduler {
         }
 
         CallEntry e = createCallentry(reg, args, isCB, actor, method);
+        e.setMethodIndex(methodId);
         return put2QueuePolling(e);
     }
 
@@ -283,13 +302,7 @@ public class SimpleScheduler implements Scheduler {
 
     @Override
     public void delayedCall(long millis, Runnable toRun) {
-        Actors.delayedCalls.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                toRun.run();
-            }
-        }, millis);
-
+        Actors.timer().schedule(toRun, millis);
     }
 
     @Override
@@ -0,0 +1,168 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.impl;
+
+import org.nustaq.kontraktor.*;
+import org.nustaq.kontraktor.monitoring.Monitorable;
+import org.nustaq.kontraktor.util.Log;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Scheduler giving each actor a dispatcher of its own, run by a virtual thread (java 21+). The dispatcher
+ * loop is hosted by the virtual thread (see DispatcherThread class comment), so actor semantics are unchanged:
+ * an actor's messages are processed one at a time in order.
+ *
+ * Idle dispatchers park until a message is enqueued (signal wakeup), awaiting inside an actor (Promise.await())
+ * parks the virtual thread until a message arrives or the promise settles, so a large number of mostly idle
+ * actors does not require a platform thread each. Blocking calls (runBlockingCall, Actor.execInThreadPool) are run on a fresh virtual thread
+ * instead of Actors.exec.
+ *
+ * On older JVMs (no Thread.ofVirtual) this scheduler falls back to SimpleScheduler behaviour: all its actors
+ * share a single dispatcher thread. Note virtual threads are daemon threads, so actors of this scheduler do
+ * not keep the VM alive.
+ */
+public class VirtualThreadScheduler extends SimpleScheduler {
+
+    /**
+     * max time an idle dispatcher parks, 0 = until signaled (a message, an added actor or shutdown). Dispatchers
+     * without actors still park bounded to check for termination.
+     */
+    public static long IDLE_PARK_NANOS = 0;
+
+    static final ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+    static boolean fallbackLogged = false;
+
+    protected final ThreadFactory threadFactory;
+    protected final Set<DispatcherThread> dispatchers = ConcurrentHashMap.newKeySet();
+    protected volatile boolean keepAlive = false;
+
+    public VirtualThreadScheduler() {
+        this(DEFQSIZE);
+    }
+
+    public VirtualThreadScheduler(int qsize) {
+        super("dummy");
+        this.qsize = qsize;
+        threadFactory = virtualThreadFactory;
+        if ( virtualThreadFactory != null ) {
+            backOffStrategy.setSignalWakeup(true).setIdleNanosToPark(IDLE_PARK_NANOS);
+        } else {
+            if ( ! fallbackLogged ) {
+                fallbackLogged = true;
+                Log.Warn(this, "virtual threads not supported by this VM, actors share a single dispatcher thread");
+            }
+            myThread = new DispatcherThread(this, true);
+            myThread.start();
+        }
+    }
+
+    // Thread.ofVirtual().factory(), looked up reflective as kontraktor is compiled for java 8
+    static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if actors are run by virtual threads
+     */
+    public static boolean isVirtual() {
+        return virtualThreadFactory != null;
+    }
+
+    @Override
+    public DispatcherThread assignDispatcher(int minLoadPerc) {
+        if ( myThread != null )
+            return super.assignDispatcher(minLoadPerc);
+        DispatcherThread dispatcher = new DispatcherThread(this, !keepAlive, false);
+        Thread thread = threadFactory.newThread(dispatcher);
+        thread.setName(dispatcher.getName());
+        dispatchers.add(dispatcher);
+        thread.start();
+        return dispatcher;
+    }
+
+    @Override
+    public <T> void runBlockingCall(Actor emitter, Callable<T> toCall, Callback<T> resultHandler) {
+        if ( virtualThreadFactory == null ) {
+            super.runBlockingCall(emitter, toCall, resultHandler);
+            return;
+        }
+        final CallbackWrapper<T> resultWrapper = new CallbackWrapper<>(emitter,resultHandler);
+        virtualThreadFactory.newThread(() -> {
+            try {
+                resultWrapper.complete(toCall.call(), null);
+            } catch (Throwable th) {
+                resultWrapper.complete(null, th);
+            }
+        }).start();
+    }
+
+    @Override
+    public void threadStopped(DispatcherThread th) {
+        dispatchers.remove(th);
+    }
+
+    @Override
+    public void terminateIfIdle() {
+        setKeepAlive(false);
+    }
+
+    @Override
+    public void setKeepAlive(boolean b) {
+        super.setKeepAlive(b); // fallback dispatcher
+        keepAlive = b;
+        for (DispatcherThread dispatcher : dispatchers) {
+            dispatcher.setAutoShutDown(!b);
+        }
+    }
+
+    @Override
+    public int getNumActors() {
+        if ( myThread != null )
+            return super.getNumActors();
+        int res = 0;
+        for (DispatcherThread dispatcher : dispatchers) {
+            res += dispatcher.getActorsNoCopy().length;
+        }
+        return res;
+    }
+
+    @Override
+    public IPromise getReport() {
+        if ( myThread != null )
+            return super.getReport();
+        return new Promise<>(new SchedulingReport(dispatchers.size(),getDefaultQSize(),0));
+    }
+
+    @Override
+    public IPromise<Monitorable[]> getSubMonitorables() {
+        if ( myThread != null )
+            return super.getSubMonitorables();
+        return new Promise<>(dispatchers.toArray(new Monitorable[0]));
+    }
+
+}
@@ -41,7 +41,7 @@ public class ActorServer {
     protected ThreadLocal<RemoteRefPolling> poller = new ThreadLocal<RemoteRefPolling>() {
         @Override
         protected RemoteRefPolling initialValue() {
-            if ( pollerCount.get() > 0 ) {
+            if ( pollerCount.get() >= connector.getIOThreads() ) {
                 System.out.println("more than one poller started. used poller from wrong thread ?");
                 Thread.dumpStack();
             }
@@ -94,6 +94,7 @@ public class ActorServer {
             reg.setDisconnectHandler(disconnectHandler);
             //reg.constraints(connector.getConstraints());
             writesocket.setConf(reg.getConf());
+            writesocket.setCompressor(BatchCompressor.create(coding));
             Actor.current(); // ensure running in actor thread
             poller.get().scheduleSendLoop(reg);
             reg.setFacadeActor(facade);
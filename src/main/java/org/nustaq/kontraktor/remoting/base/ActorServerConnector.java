@@ -31,4 +31,11 @@ public interface ActorServerConnector {
     void connect(Actor facade, Function<ObjectSocket, ObjectSink> factory) throws Exception;
     IPromise closeServer();
 
+    /**
+     * @return number of threads the ObjectSink factory is called from, each of them runs its own send loop
+     */
+    default int getIOThreads() {
+        return 1;
+    }
+
 }
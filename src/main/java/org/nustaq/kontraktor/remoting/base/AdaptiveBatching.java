@@ -0,0 +1,155 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.remoting.base;
+
+/**
+ * Flush policy of a ConnectionRegistry's send loop (Nagle style coalescing). Remote calls polled from remote refs
+ * are written to the ObjectSocket, but the flush (= one network frame) is held back as long as fewer messages
+ * than the target batch size are unflushed and the oldest of them waits less than MAX_ADDED_LATENCY_NANOS.
+ * The target batch size is the number of messages expected to arrive within the latency budget (smoothed
+ * arrival rate * max added latency), so at low rates each message is flushed immediately, while a streaming
+ * connection coalesces. A deferred flush is not polled for, the send loop schedules a timer retry shortly before
+ * getFlushDelayNanos and polls again for the remaining delay (see RemoteRefPolling.FLUSH_REPOLL_NANOS), so
+ * budgets below the timer resolution are honored.
+ *
+ * Accessed by the send loop thread only, statistics may be read from other threads.
+ */
+public class AdaptiveBatching {
+
+    /**
+     * default max latency added to a message by coalescing. 0 = flush after each poll (no coalescing), e.g. 50_000 (50 micros)
+     */
+    public static long MAX_ADDED_LATENCY_NANOS = 0;
+    public static int HISTOGRAM_BUCKETS = 12;
+
+    protected long maxAddedLatencyNanos = MAX_ADDED_LATENCY_NANOS;
+    protected double nanosPerMsg = Double.MAX_VALUE; // smoothed inter arrival time of polled messages
+    protected long lastPollNanos;   // nanos of last poll finding messages
+    protected int unflushed;        // messages written since last flush
+    protected long unflushedSince;  // nanos of first unflushed message
+    protected volatile long maxAddedNanos; // max time a flush has been held back
+    protected final long histogram[] = new long[HISTOGRAM_BUCKETS];
+
+    /**
+     * @param sent number of messages a poll found queued and wrote to the socket
+     */
+    public void polled(int sent) {
+        if ( sent > 0 && maxAddedLatencyNanos > 0 )
+            polled(sent, System.nanoTime());
+        else
+            polled(sent, 0);
+    }
+
+    /**
+     * @param now System.nanoTime() of the poll
+     */
+    public void polled(int sent, long now) {
+        if ( sent <= 0 )
+            return;
+        if ( maxAddedLatencyNanos > 0 ) {
+            if ( unflushed == 0 )
+                unflushedSince = now;
+            if ( lastPollNanos != 0 ) {
+                double sample = (double) (now - lastPollNanos) / sent;
+                nanosPerMsg = nanosPerMsg == Double.MAX_VALUE ? sample : nanosPerMsg + (sample - nanosPerMsg) / 8;
+            }
+            lastPollNanos = now;
+        }
+        unflushed += sent;
+    }
+
+    /**
+     * @return true if unflushed messages have reached the target batch size or waited long enough
+     */
+    public boolean shouldFlush() {
+        if ( unflushed == 0 )
+            return false;
+        return maxAddedLatencyNanos <= 0 || unflushed >= getTargetBatchSize() || getFlushDelayNanos() <= 0;
+    }
+
+    /**
+     * @return true if messages have been written but their flush is held back
+     */
+    public boolean isDeferred() {
+        return unflushed > 0;
+    }
+
+    /**
+     * @return nanos until a deferred flush is due (<= 0 = overdue), Long.MAX_VALUE if there is none
+     */
+    public long getFlushDelayNanos() {
+        if ( unflushed == 0 )
+            return Long.MAX_VALUE;
+        return unflushedSince + maxAddedLatencyNanos - System.nanoTime();
+    }
+
+    public void flushed() {
+        if ( unflushed == 0 )
+            return;
+        if ( maxAddedLatencyNanos > 0 ) {
+            long added = System.nanoTime() - unflushedSince;
+            if ( added > maxAddedNanos )
+                maxAddedNanos = added;
+        }
+        int bucket = 31 - Integer.numberOfLeadingZeros(unflushed);
+        histogram[Math.min(bucket, histogram.length - 1)]++;
+        unflushed = 0;
+    }
+
+    /**
+     * @return messages expected to arrive within the max added latency (1 = no coalescing)
+     */
+    public int getTargetBatchSize() {
+        if ( maxAddedLatencyNanos <= 0 || nanosPerMsg == Double.MAX_VALUE )
+            return 1;
+        double expected = maxAddedLatencyNanos / Math.max(1, nanosPerMsg);
+        return (int) Math.max(1, Math.min(ConnectionRegistry.MAX_BATCH_CALLS, Math.round(expected)));
+    }
+
+    public long getMaxAddedLatencyNanos() {
+        return maxAddedLatencyNanos;
+    }
+
+    public void setMaxAddedLatencyNanos(long maxAddedLatencyNanos) {
+        this.maxAddedLatencyNanos = maxAddedLatencyNanos;
+    }
+
+    /**
+     * @return max latency added to a message by holding back its flush
+     */
+    public long getMaxAddedNanos() {
+        return maxAddedNanos;
+    }
+
+    /**
+     * @return copy of the batch size histogram, bucket i counts flushes of [2^i, 2^(i+1)) messages, the last
+     * bucket includes all larger batches
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("AdaptiveBatching{target=").append(getTargetBatchSize()).append(", batches=");
+        for (int i = 0; i < histogram.length; i++) {
+            if ( histogram[i] > 0 )
+                sb.append(' ').append(1 << i).append(i == histogram.length - 1 ? "+:" : ":").append(histogram[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
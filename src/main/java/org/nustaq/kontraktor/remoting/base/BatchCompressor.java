@@ -0,0 +1,148 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.base;
+
+import org.nustaq.kontraktor.remoting.encoding.Coding;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
+import org.nustaq.serialization.FSTConfiguration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Per connection compression stage of an ObjectSocket. Batches whose encoding is at least threshold bytes are deflated
+ * and sent as CompressedBatch, smaller ones (typically single calls and results) are sent as is.
+ * Enabled by Coding.compressAbove on the sending side, receivers always accept compressed batches.
+ *
+ * Keeps statistics on compressed frames, thread safe.
+ */
+public class BatchCompressor {
+
+    public static int LEVEL = Deflater.BEST_SPEED;
+
+    /**
+     * @return a compressor as configured by coding or null (compression disabled or text coding)
+     */
+    public static BatchCompressor create(Coding coding) {
+        if ( coding == null || coding.getCompressionThreshold() < 0 || ! ConnectionRegistry.isBinary(coding) )
+            return null;
+        return new BatchCompressor(coding.getCompressionThreshold());
+    }
+
+    protected final int threshold;
+    protected final Deflater deflater = new Deflater(LEVEL);
+    protected byte buffer[] = new byte[4096];
+
+    protected long frames;          // frames >= threshold
+    protected long compressedFrames; // frames sent compressed (smaller after compression)
+    protected long rawBytes;
+    protected long compressedBytes;
+    protected long nanos;
+
+    public BatchCompressor(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public boolean shouldCompress(int len) {
+        return len >= threshold;
+    }
+
+    /**
+     * @return compressed batch or null if compression does not pay off
+     */
+    public synchronized CompressedBatch compress(byte[] bytes, int len) {
+        long tim = System.nanoTime();
+        deflater.reset();
+        deflater.setInput(bytes, 0, len);
+        deflater.finish();
+        int n = 0;
+        while ( ! deflater.finished() && n < len ) {
+            if ( n == buffer.length )
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            n += deflater.deflate(buffer, n, buffer.length - n);
+        }
+        frames++;
+        rawBytes += len;
+        CompressedBatch res = null;
+        if ( deflater.finished() && n < len ) {
+            res = new CompressedBatch(Arrays.copyOf(buffer, n), len);
+            compressedFrames++;
+            compressedBytes += n;
+        } else {
+            compressedBytes += len;
+        }
+        nanos += System.nanoTime() - tim;
+        return res;
+    }
+
+    /**
+     * for sockets writing FST frames to a stream (TCPObjectSocket): encodes toWrite once and writes it, compressed
+     * if that pays off, in the frame format of FSTConfiguration.encodeToStream (little endian length + bytes).
+     * Must not encode twice, CompactBinary encoding defines connection state.
+     */
+    public void writeFrame(FSTConfiguration conf, Object toWrite, OutputStream out) throws IOException {
+        int lenHolder[] = new int[1];
+        byte bytes[] = conf.asSharedByteArray(toWrite, lenHolder);
+        int len = lenHolder[0];
+        if ( shouldCompress(len) ) {
+            CompressedBatch packed = compress(bytes, len);
+            if ( packed != null ) {
+                bytes = conf.asSharedByteArray(packed, lenHolder);
+                len = lenHolder[0];
+            }
+        }
+        out.write(len & 0xff);
+        out.write((len >>> 8) & 0xff);
+        out.write((len >>> 16) & 0xff);
+        out.write((len >>> 24) & 0xff);
+        out.write(bytes, 0, len);
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public synchronized long getCompressedFrames() {
+        return compressedFrames;
+    }
+
+    /**
+     * @return compressed/raw size of frames >= threshold (1 = no gain)
+     */
+    public synchronized double getCompressionRatio() {
+        return rawBytes == 0 ? 1 : (double) compressedBytes / rawBytes;
+    }
+
+    /**
+     * @return average nanos spent compressing a frame >= threshold
+     */
+    public synchronized long getAvgCompressNanos() {
+        return frames == 0 ? 0 : nanos / frames;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BatchCompressor{" +
+                   "threshold=" + threshold +
+                   ", frames=" + frames +
+                   ", compressed=" + compressedFrames +
+                   ", ratio=" + String.format("%.3f", getCompressionRatio()) +
+                   ", avgNanos=" + getAvgCompressNanos() +
+                   '}';
+    }
+}
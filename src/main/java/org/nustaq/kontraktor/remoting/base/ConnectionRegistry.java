@@ -34,6 +34,8 @@ import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
@@ -52,6 +54,13 @@ public abstract class ConnectionRegistry {
     public static final Object OUT_OF_ORDER_SEQ = "OOOS";
     public static int MAX_BATCH_CALLS = 500;
 
+    protected static final int SENT = 1;
+    protected static final int SKIPPED = 0;
+    protected static final int SEND_FAILED = -1;
+    protected static final int SEND_FAILED_IO = -2;
+
+    static final AtomicIntegerFieldUpdater<Actor> PENDING = AtomicIntegerFieldUpdater.newUpdater(Actor.class, "__ready");
+
     public static void registerDefaultClassMappings(FSTConfiguration conf) {
         conf.registerCrossPlatformClassMapping(new String[][]{
             {"call", RemoteCallEntry.class.getName()},
@@ -61,6 +70,21 @@ public abstract class ConnectionRegistry {
 
     public static BiFunction remoteCallMapper; // if set, each remote call and callback is mapped through
 
+    /**
+     * default for new registries with binary coding (FSTSer, UnsafeBinary, CompactBinary). If true, remote call arguments and
+     * callback results are serialized inline with their RemoteCallEntry in one pass instead of being packed
+     * into RemoteCallEntry.serializedArgs first. Requires the receiver to know the argument classes.
+     * Registries of Krouters and of connections to Krouters (see Routing) always send packed entries, as
+     * routing forwards arguments opaque.
+     */
+    public static boolean INLINE_ARGS = false;
+
+    /**
+     * default high water mark of bytes a connection's transport may hold unsent (see isCongested). <= 0 disables
+     * back pressure, so the send loop drains remote refs regardless of the transport's backlog.
+     */
+    public static long MAX_PENDING_BYTES = 8_000_000;
+
     public AtomicReference<Object> userData = new AtomicReference<>();
 
     private ActorServer server;
@@ -77,11 +101,27 @@ public abstract class ConnectionRegistry {
     // have disabled dispacther thread
     protected ConcurrentLinkedQueue<Actor> remoteActors = new ConcurrentLinkedQueue<>();
     protected ConcurrentHashMap<Long,Actor> remoteActorMap = new ConcurrentHashMap<>();
+    // event driven send: remote refs with pending messages
+    protected ConcurrentLinkedQueue<Actor> pendingRefs = new ConcurrentLinkedQueue<>();
+    protected volatile Consumer<ConnectionRegistry> sendSignal;
+    protected final AtomicBoolean signaled = new AtomicBoolean(false);
+    protected volatile boolean needsFlush; // callback results are written directly, flush is up to the send loop
     protected volatile boolean terminated = false;
+    protected boolean inlineArgs;
+    protected final AdaptiveBatching batching = new AdaptiveBatching();
+    // back pressure, see isCongested
+    protected long maxPendingBytes = MAX_PENDING_BYTES;
+    protected volatile boolean congested;
+    protected final ConcurrentLinkedQueue<Runnable> writableListeners = new ConcurrentLinkedQueue<>();
+    protected volatile long congestions;
+    protected volatile long congestedSince;
+    protected volatile long congestedNanos;
+    protected volatile long peakPendingBytes;
     protected Consumer<Actor> disconnectHandler;
     protected boolean isObsolete;
     protected Map<String,RateLimitEntry> rateLimits;
     private Actor facadeActor;
+    protected CompactRemoteCallSerializer compactSerializer; // != null for SerializerType.CompactBinary
     protected BiFunction<Actor,String,Boolean> remoteCallInterceptor =
     (actor,methodName) -> {
         Method method = actor.__getCachedMethod(methodName, actor, null);
@@ -116,6 +156,7 @@ public abstract class ConnectionRegistry {
     public ConnectionRegistry(FSTConfiguration conf, Coding coding) {
         this.conf = conf;
         configureSerialization(coding);
+        inlineArgs = INLINE_ARGS && isBinary(coding);
     }
 
     public ConnectionRegistry(Coding code) {
@@ -124,8 +165,142 @@ public abstract class ConnectionRegistry {
 	    conf = code.createConf();
         registerDefaultClassMappings(conf);
         configureSerialization(code);
+        inlineArgs = INLINE_ARGS && isBinary(code);
 	}
 
+    protected static boolean isBinary(Coding coding) {
+        return coding == null || coding.getCoding() == SerializerType.FSTSer || coding.getCoding() == SerializerType.UnsafeBinary ||
+            coding.getCoding() == SerializerType.CompactBinary;
+    }
+
+    public boolean isInlineArgs() {
+        return inlineArgs;
+    }
+
+    /**
+     * see INLINE_ARGS
+     */
+    public void setInlineArgs(boolean inlineArgs) {
+        this.inlineArgs = inlineArgs;
+    }
+
+    /**
+     * flush policy and batch size histogram of this connection's send loop, see AdaptiveBatching
+     */
+    public AdaptiveBatching getBatching() {
+        return batching;
+    }
+
+    /**
+     * @return true if the transport holds more than maxPendingBytes unsent (slow peer). Cleared once the backlog
+     * drops to half of it. While congested the send loop leaves outgoing messages in the remote refs' mailboxes,
+     * so producers should throttle (see onWritable) instead of filling them up.
+     */
+    public boolean isCongested() {
+        return congested;
+    }
+
+    /**
+     * run toRun once the connection is not congested, immediately if it is not. If called from inside an actor,
+     * toRun is executed by that actor.
+     */
+    public void onWritable(Runnable toRun) {
+        if ( ! congested ) {
+            toRun.run();
+            return;
+        }
+        if ( Actor.inside() ) {
+            Actor actor = Actor.current();
+            writableListeners.add(() -> actor.execute(toRun));
+        } else {
+            writableListeners.add(toRun);
+        }
+        if ( ! congested ) // cleared concurrently
+            runWritableListeners();
+    }
+
+    /**
+     * @return a promise resolved once the connection is not congested, see onWritable
+     */
+    public IPromise awaitWritable() {
+        Promise res = new Promise();
+        onWritable(() -> res.resolve());
+        return res;
+    }
+
+    protected void runWritableListeners() {
+        Runnable listener;
+        while ( ! congested && (listener = writableListeners.poll()) != null ) {
+            try {
+                listener.run();
+            } catch (Throwable t) {
+                Log.Warn(this, t);
+            }
+        }
+    }
+
+    /**
+     * update back pressure state from the transport's backlog, called by the send loop
+     *
+     * @return true if congested
+     */
+    protected boolean updateCongestion(ObjectSocket chan) {
+        if ( maxPendingBytes <= 0 )
+            return false;
+        long pending = chan.getPendingBytes();
+        if ( pending > peakPendingBytes )
+            peakPendingBytes = pending;
+        if ( ! congested ) {
+            if ( pending > maxPendingBytes ) {
+                congestedSince = System.nanoTime();
+                congestions++;
+                congested = true;
+            }
+        } else if ( pending <= maxPendingBytes / 2 ) {
+            congestedNanos += System.nanoTime() - congestedSince;
+            congested = false;
+            runWritableListeners();
+        }
+        return congested;
+    }
+
+    public long getMaxPendingBytes() {
+        return maxPendingBytes;
+    }
+
+    /**
+     * see MAX_PENDING_BYTES
+     */
+    public void setMaxPendingBytes(long maxPendingBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * @return bytes currently held unsent by the transport
+     */
+    public long getPendingBytes() {
+        ObjectSocket chan = getWriteObjectSocket() != null ? getWriteObjectSocket().get() : null;
+        return chan != null ? chan.getPendingBytes() : 0;
+    }
+
+    public long getPeakPendingBytes() {
+        return peakPendingBytes;
+    }
+
+    /**
+     * @return number of times the connection became congested
+     */
+    public long getCongestions() {
+        return congestions;
+    }
+
+    /**
+     * @return total nanos the connection has been congested
+     */
+    public long getCongestedNanos() {
+        return congestedNanos + (congested ? System.nanoTime() - congestedSince : 0);
+    }
+
     public BiFunction<Actor, String, Boolean> getRemoteCallInterceptor() {
         return remoteCallInterceptor;
     }
@@ -140,6 +315,10 @@ public abstract class ConnectionRegistry {
 		conf.registerSerializer(CallbackWrapper.class, new CallbackRefSerializer(this), true);
 		conf.registerSerializer(Spore.class, new SporeRefSerializer(), true);
         conf.registerSerializer(Timeout.class, new TimeoutSerializer(), false);
+        if ( code != null && code.getCoding() == SerializerType.CompactBinary ) {
+            compactSerializer = new CompactRemoteCallSerializer();
+            conf.registerSerializer(RemoteCallEntry.class, compactSerializer, false);
+        }
         conf.registerClass(RemoteCallEntry.class);
         conf.registerClass(Spore.class);
         conf.registerClass(CallbackWrapper.class);
@@ -309,13 +488,14 @@ public abstract class ConnectionRegistry {
      * process a remote call entry or an array of remote call entries.
      *
      * @param responseChannel - writer required to route callback messages
-     * @param response
+     * @param received - RemoteCallEntry, batch or CompressedBatch
      * @param createdFutures - can be null. Contains futures created by the submitted callsequence
      * @param authContext
      * @return
      * @throws Exception
      */
-    public boolean receiveObject(ObjectSocket responseChannel, ObjectSink receiver, Object response, List<IPromise> createdFutures, Object authContext) throws Exception {
+    public boolean receiveObject(ObjectSocket responseChannel, ObjectSink receiver, Object received, List<IPromise> createdFutures, Object authContext) throws Exception {
+        Object response = CompressedBatch.inflate(conf, received);
         if ( response == ConnectionRegistry.OUT_OF_ORDER_SEQ ) {
             Log.Warn(this,"out of sequence remote call received");
             return false;
@@ -501,7 +681,13 @@ public abstract class ConnectionRegistry {
 
     protected void writeObject(ObjectSocket chan, RemoteCallEntry rce) throws Exception {
         try {
-            chan.writeObject(rce);
+            if ( compactSerializer != null ) {
+                // method indices have to be assigned in frame order
+                synchronized (compactSerializer) {
+                    chan.writeObject(compactSerializer.assignMethodIndex(rce));
+                }
+            } else
+                chan.writeObject(rce);
         } catch (Exception e) {
             Log.Debug(this,"a connection closed '"+e.getMessage()+"', terminating registry");
             disconnect();
@@ -510,7 +696,7 @@ public abstract class ConnectionRegistry {
 
     public void inFacadeThread(Runnable toRun) {
         if (facadeActor!=null) {
-            if ( Thread.currentThread() != facadeActor.getCurrentDispatcher() ) {
+            if ( DispatcherThread.current() != facadeActor.getCurrentDispatcher() ) {
                 facadeActor.execute( toRun );
                 return;
             }
@@ -530,11 +716,14 @@ public abstract class ConnectionRegistry {
     }
 
     public void receiveCBResult(ObjectSocket chan, long id, Object result, Object error) {
-        RemoteCallEntry rce = new RemoteCallEntry(0, id, null, null, conf.asByteArray(new Object[] {result,error}));
+        RemoteCallEntry rce = inlineArgs ?
+            new RemoteCallEntry(0, id, null, new Object[] {result,error}, null) :
+            new RemoteCallEntry(0, id, null, null, conf.asByteArray(new Object[] {result,error}));
         rce.setQueue(rce.CBQ);
         rce.setContinue( error == Actors.CONT );
         try {
             writeObject(chan, rce);
+            flushPending();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -581,7 +770,7 @@ public abstract class ConnectionRegistry {
      */
     public boolean pollAndSend2Remote(AtomicReference<ObjectSocket> chanHolder) throws Exception {
         ObjectSocket chan = chanHolder.get();
-        if ( chan == null || ! chan.canWrite() )
+        if ( chan == null || ! chan.canWrite() || updateCongestion(chan) )
             return false;
         boolean hadAnyMsg = false;
         ArrayList<Actor> toRemove = null;
@@ -591,46 +780,19 @@ public abstract class ConnectionRegistry {
             sumQueued = 0;
             for (Iterator<Actor> iterator = remoteActors.iterator(); iterator.hasNext(); ) {
                 Actor remoteActor = iterator.next();
-                boolean cb = false; // true; FIXME
-                CallEntry ce = (CallEntry) remoteActor.__cbQueue.poll();
-                if ( ce == null ) {
-                    cb = false;
-                    ce = (CallEntry) remoteActor.__mailbox.poll();
-                }
+                CallEntry ce = pollCallEntry(remoteActor);
                 if ( ce != null) {
-                    if ( ce.getMethod().getName().equals("close") ) {
-                        closeRef(ce,chan);
-                    } else
-                    if ( ce.getMethod().getName().equals("asyncstop") ) {
-                        Log.Lg.error(this, null, "cannot stop remote actors" );
-                    } else {
-                        long futId = 0;
-                        if (ce.hasFutureResult()) {
-                            futId = registerPublishedCallback(ce.getFutureCB());
-                        }
-                        try {
-                            RemoteCallEntry rce = new RemoteCallEntry(futId, remoteActor.__remoteId, ce.getMethod().getName(), ce.getArgs(), null );
-                            rce.setQueue(cb ? rce.CBQ : rce.MAILBOX);
-                            rce.pack(conf);
-                            writeObject(chan, rce);
-                            sumQueued++;
-                            hadAnyMsg = true;
-                        } catch (Throwable ex) {
-                            if ( ex instanceof InvocationTargetException && ((InvocationTargetException) ex).getTargetException() != null ) {
-                                ex = ((InvocationTargetException) ex).getTargetException();
-                            }
-                            if ( ex instanceof IOError || ex instanceof IOException ) {
-                                chan.setLastError(ex);
-                                if (toRemove == null)
-                                    toRemove = new ArrayList();
-                                toRemove.add(remoteActor);
-                                remoteActor.__stop();
-                                Log.Lg.infoLong(this, ex, "connection closed");
-                            } else {
-                                Log.Error(this,ex);
-                            }
-                            break;
-                        }
+                    int res = send2Remote(remoteActor, ce, chan);
+                    if ( res == SENT ) {
+                        sumQueued++;
+                        hadAnyMsg = true;
+                    } else if ( res == SEND_FAILED_IO ) {
+                        if (toRemove == null)
+                            toRemove = new ArrayList();
+                        toRemove.add(remoteActor);
+                        break;
+                    } else if ( res == SEND_FAILED ) {
+                        break;
                     }
                 }
             }
@@ -639,8 +801,164 @@ public abstract class ConnectionRegistry {
             }
             fullqueued += sumQueued;
         } while ( sumQueued > 0 && fullqueued < MAX_BATCH_CALLS);
-        chan.flush();
-        return hadAnyMsg;
+        batching.polled(fullqueued);
+        if ( batching.shouldFlush() || ! batching.isDeferred() ) {
+            batching.flushed(); // before writing, flush duration is not added by batching
+            chan.flush();
+        }
+        return hadAnyMsg; // deferred flushes are retried by the send loop at getFlushDelayNanos
+    }
+
+    /**
+     * enables event driven sending (see RemoteRefPolling.EVENT_DRIVEN_SEND). Once a message is enqueued to a remote
+     * ref of this registry, signal is called by the enqueuing thread. It is not called again until
+     * pollPendingAndSend2Remote has been called.
+     */
+    public void setSendSignal(Consumer<ConnectionRegistry> signal) {
+        sendSignal = signal;
+        if ( signal != null ) {
+            // messages enqueued before
+            for (Actor remoteActor : remoteActors) {
+                if ( ! remoteActor.__mailbox.isEmpty() || ! remoteActor.__cbQueue.isEmpty() )
+                    messagePending(remoteActor);
+            }
+        }
+    }
+
+    /**
+     * called after a message has been enqueued to given remote ref (see RemoteScheduler). Marks the ref pending,
+     * its Actor.__ready flag is used as there is no dispatcher for remote refs.
+     */
+    public void messagePending(Actor remoteRef) {
+        Consumer<ConnectionRegistry> signal = sendSignal;
+        if ( signal == null )
+            return;
+        if ( remoteRef.__ready == 0 && PENDING.compareAndSet(remoteRef, 0, 1) ) {
+            pendingRefs.offer(remoteRef);
+            if ( ! signaled.get() && signaled.compareAndSet(false, true) )
+                signal.accept(this);
+        }
+    }
+
+    /**
+     * event driven send: have the send loop flush after a message has been written directly to the socket
+     */
+    protected void flushPending() {
+        Consumer<ConnectionRegistry> signal = sendSignal;
+        if ( signal == null )
+            return;
+        needsFlush = true;
+        if ( ! signaled.get() && signaled.compareAndSet(false, true) )
+            signal.accept(this);
+    }
+
+    /**
+     * @return true if remote refs have been signaled pending but not yet been polled or a flush is pending
+     */
+    public boolean hasPendingSends() {
+        return needsFlush || batching.isDeferred() || ! pendingRefs.isEmpty();
+    }
+
+    /**
+     * event driven variant of pollAndSend2Remote, polls only remote refs signaled pending.
+     *
+     * @return true if there are messages left (send batch limit reached). A deferred flush is not reported, see
+     * getFlushDelayNanos
+     */
+    public boolean pollPendingAndSend2Remote(AtomicReference<ObjectSocket> chanHolder) throws Exception {
+        signaled.set(false);
+        boolean flush = needsFlush;
+        needsFlush = false;
+        ObjectSocket chan = chanHolder.get();
+        if ( chan == null || ! chan.canWrite() ) {
+            needsFlush |= flush;
+            return false; // retried by RemoteRefPolling's fallback poll
+        }
+        if ( updateCongestion(chan) ) {
+            needsFlush |= flush;
+            return false; // retried by RemoteRefPolling, messages stay in the remote refs' mailboxes
+        }
+        int sent = 0;
+        Actor remoteActor;
+        while ( sent < MAX_BATCH_CALLS && (remoteActor = pendingRefs.poll()) != null ) {
+            remoteActor.__ready = 0; // cleared before polling, so concurrent enqueues mark it pending again
+            CallEntry ce;
+            int res = SENT;
+            while ( sent < MAX_BATCH_CALLS && (ce = pollCallEntry(remoteActor)) != null ) {
+                res = send2Remote(remoteActor, ce, chan);
+                if ( res == SENT ) {
+                    sent++;
+                } else if ( res != SKIPPED ) {
+                    break;
+                }
+            }
+            if ( res == SEND_FAILED_IO ) {
+                removeRemoteActor(remoteActor);
+            } else if ( ! remoteActor.__mailbox.isEmpty() || ! remoteActor.__cbQueue.isEmpty() ) {
+                if ( PENDING.compareAndSet(remoteActor, 0, 1) )
+                    pendingRefs.offer(remoteActor);
+            }
+        }
+        batching.polled(sent);
+        if ( batching.isDeferred() ? batching.shouldFlush() : flush ) {
+            batching.flushed(); // before writing, flush duration is not added by batching
+            chan.flush();
+        }
+        return ! pendingRefs.isEmpty();
+    }
+
+    /**
+     * @return nanos until the send loop has to poll again to flush messages held back by batching
+     * (Long.MAX_VALUE if none are)
+     */
+    public long getFlushDelayNanos() {
+        return batching.getFlushDelayNanos();
+    }
+
+    protected CallEntry pollCallEntry(Actor remoteActor) {
+        CallEntry ce = (CallEntry) remoteActor.__cbQueue.poll();
+        if ( ce == null )
+            ce = (CallEntry) remoteActor.__mailbox.poll();
+        return ce;
+    }
+
+    /**
+     * @return SENT, SKIPPED (handled locally), SEND_FAILED or SEND_FAILED_IO (remote ref has been stopped)
+     */
+    protected int send2Remote(Actor remoteActor, CallEntry ce, ObjectSocket chan) throws IOException {
+        boolean cb = false; // true; FIXME
+        if ( ce.getMethod().getName().equals("close") ) {
+            closeRef(ce,chan);
+            return SKIPPED;
+        }
+        if ( ce.getMethod().getName().equals("asyncstop") ) {
+            Log.Lg.error(this, null, "cannot stop remote actors" );
+            return SKIPPED;
+        }
+        long futId = 0;
+        if (ce.hasFutureResult()) {
+            futId = registerPublishedCallback(ce.getFutureCB());
+        }
+        try {
+            RemoteCallEntry rce = new RemoteCallEntry(futId, remoteActor.__remoteId, ce.getMethod().getName(), ce.getArgs(), null );
+            rce.setQueue(cb ? rce.CBQ : rce.MAILBOX);
+            if ( ! inlineArgs )
+                rce.pack(conf);
+            writeObject(chan, rce);
+            return SENT;
+        } catch (Throwable ex) {
+            if ( ex instanceof InvocationTargetException && ((InvocationTargetException) ex).getTargetException() != null ) {
+                ex = ((InvocationTargetException) ex).getTargetException();
+            }
+            if ( ex instanceof IOError || ex instanceof IOException ) {
+                chan.setLastError(ex);
+                remoteActor.__stop();
+                Log.Lg.infoLong(this, ex, "connection closed");
+                return SEND_FAILED_IO;
+            }
+            Log.Error(this,ex);
+            return SEND_FAILED;
+        }
     }
 
     public abstract AtomicReference<ObjectSocket> getWriteObjectSocket();
@@ -671,6 +989,9 @@ public abstract class ConnectionRegistry {
         if ( facadeActor.getActor().getClass().getAnnotation(Secured.class) != null) {
             secured = true;
         }
+        if ( facadeActor instanceof AbstractKrouter ) {
+            inlineArgs = false; // forwarded opaque
+        }
     }
 
     public Actor getFacadeActor() {
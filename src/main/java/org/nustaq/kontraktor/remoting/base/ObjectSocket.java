@@ -45,12 +45,30 @@ public interface ObjectSocket {
 
     FSTConfiguration getConf();
 
+    /**
+     * set by outer machinery if the connection's coding enables compression. Implementations
+     * send batches the compressor accepts as CompressedBatch.
+     */
+    default void setCompressor(BatchCompressor compressor) {}
+
+    default BatchCompressor getCompressor() {
+        return null;
+    }
+
     void close() throws IOException;
 
     default boolean canWrite() {
         return true;
     }
 
+    /**
+     * @return bytes flushed to this socket but not yet handed to the network/peer (used for back pressure,
+     * see ConnectionRegistry.isCongested). Blocking transports return 0.
+     */
+    default long getPendingBytes() {
+        return 0;
+    }
+
     boolean isClosed();
 
     int getId();
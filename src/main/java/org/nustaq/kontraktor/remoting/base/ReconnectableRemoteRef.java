@@ -1,12 +1,11 @@
 package org.nustaq.kontraktor.remoting.base;
 
 import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
 import org.nustaq.kontraktor.IPromise;
 import org.nustaq.kontraktor.Promise;
 import org.nustaq.kontraktor.util.Log;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
@@ -41,7 +40,6 @@ public class ReconnectableRemoteRef<T extends Actor> {
         }
     };
 
-    Timer timer = new Timer();
     Supplier<ConnectableActor> connectableSup;
     T current;
     ReconnectableListener conListener;
@@ -97,14 +95,7 @@ public class ReconnectableRemoteRef<T extends Actor> {
         // immediately try reconnection
         connect().then( (r,e) -> {
            if ( ! isOnline() && ! terminate ) {
-               timer.schedule(
-                   new TimerTask() {
-                       @Override public void run() {
-                           connectWithRetry();
-                       }
-                   },
-                   RETRY_INTERVAL
-               );
+               Actors.timer().schedule(this::connectWithRetry, RETRY_INTERVAL);
            }
         });
     }
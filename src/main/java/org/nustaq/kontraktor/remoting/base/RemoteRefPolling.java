@@ -26,6 +26,9 @@ import java.io.IOError;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -51,9 +54,29 @@ public class RemoteRefPolling implements Runnable {
 
     public static long EMPTY_Q_BACKOFF_WAIT_MILLIS = BackOffStrategy.SLEEP_NANOS/1000/1000;
     public static long NONE_CONNETCED_WAIT_MILLIS = 100;
-
+    /**
+     * if true, enqueuing a message to a remote ref signals the send loop directly (see ConnectionRegistry.setSendSignal)
+     * and polls are limited to connections with pending messages. The periodic poll then runs every
+     * NONE_CONNETCED_WAIT_MILLIS only to detect terminated connections and retry unwritable sockets.
+     */
+    public static boolean EVENT_DRIVEN_SEND = false;
+    /**
+     * event driven mode: delay until a congested connection (see ConnectionRegistry.isCongested) is polled again
+     */
+    public static long CONGESTED_RETRY_MILLIS = 1;
+    /**
+     * a deferred flush (see AdaptiveBatching) is scheduled on the (1 milli resolution) timer up to this early.
+     * The remaining delay is awaited by polling again, so a latency budget below the timer resolution is not
+     * exceeded. Default is one timer tick.
+     */
+    public static long FLUSH_REPOLL_NANOS = 1000 * 1000;
 
     ArrayList<ScheduleEntry> sendJobs = new ArrayList<>();
+    IdentityHashMap<ConnectionRegistry,ScheduleEntry> entries = new IdentityHashMap<>();
+
+    final ConcurrentLinkedQueue<ConnectionRegistry> signaledRegs = new ConcurrentLinkedQueue<>();
+    final AtomicBoolean sendScheduled = new AtomicBoolean(false);
+    Actor pollActor;
 
     AtomicInteger instanceCount = new AtomicInteger(0);
     public RemoteRefPolling() {
@@ -70,13 +93,19 @@ public class RemoteRefPolling implements Runnable {
      */
     public IPromise scheduleSendLoop(ConnectionRegistry reg) {
         Promise promise = new Promise();
-        sendJobs.add(new ScheduleEntry(reg, promise));
+        ScheduleEntry entry = new ScheduleEntry(reg, promise);
+        entry.eventDriven = EVENT_DRIVEN_SEND;
+        sendJobs.add(entry);
+        entries.put(reg, entry);
         synchronized (this) {
             if ( ! loopStarted ) {
                 loopStarted = true;
-                Actor.current().execute(this);
+                pollActor = Actor.current();
+                pollActor.execute(this);
             }
         }
+        if ( entry.eventDriven )
+            reg.setSendSignal(this::signal);
         return promise;
     }
 
@@ -85,6 +114,7 @@ public class RemoteRefPolling implements Runnable {
     Thread pollThread;
 
     int remoteRefCounter = 0; // counts active remote refs, if none backoff remoteref polling massively eats cpu
+    long minFlushDelayNanos = Long.MAX_VALUE; // earliest deferred flush found by last onePoll
     public void run() {
         pollThread = Thread.currentThread();
         if ( underway )
@@ -99,12 +129,18 @@ public class RemoteRefPolling implements Runnable {
                         int debug =1;
                     }
                     else {
-                        if ( remoteRefCounter == 0 ) // no remote actors registered
+                        long backoff;
+                        if ( remoteRefCounter == 0 ) // no remote actors registered (or sends are signaled)
                         {
-                            Actor.current().delayed(NONE_CONNETCED_WAIT_MILLIS, this); // backoff massively
+                            backoff = NONE_CONNETCED_WAIT_MILLIS; // backoff massively
                         } else {
-                            Actor.current().delayed(EMPTY_Q_BACKOFF_WAIT_MILLIS, this); // backoff a bit (remoteactors present, no messages)
+                            backoff = EMPTY_Q_BACKOFF_WAIT_MILLIS; // backoff a bit (remoteactors present, no messages)
                         }
+                        // come back in time for flushes held back by batching
+                        if ( isRepollDue(minFlushDelayNanos) )
+                            Actor.current().execute(this);
+                        else
+                            Actor.current().delayed(Math.min(backoff, Math.max(1, flushTimerMillis(minFlushDelayNanos))), this);
                     }
                 } else {
                     // no schedule entries (== no clients)
@@ -120,12 +156,13 @@ public class RemoteRefPolling implements Runnable {
         int count = 1;
         int maxit = 1;
         remoteRefCounter = 0;
+        minFlushDelayNanos = Long.MAX_VALUE;
         //while ( maxit > 0 && count > 0)
         {
             count = 0;
             for (int i = 0; i < sendJobs.size(); i++) {
                 ScheduleEntry entry = sendJobs.get(i);
-                if ( entry.reg.getRemoteActorSize() > 0 ) {
+                if ( entry.reg.getRemoteActorSize() > 0 && ! entry.eventDriven ) {
                     remoteRefCounter++;
                 }
                 if ( entry.reg.isTerminated() ) {
@@ -134,17 +171,17 @@ public class RemoteRefPolling implements Runnable {
                     continue;
                 }
                 try {
-                    if (entry.reg.pollAndSend2Remote(entry.reg.getWriteObjectSocket())) {
+                    if ( entry.eventDriven ) {
+                        // fallback for signaled sends which could not be written
+                        if ( entry.reg.hasPendingSends() && entry.reg.pollPendingAndSend2Remote(entry.reg.getWriteObjectSocket()) )
+                            count++;
+                    } else if (entry.reg.pollAndSend2Remote(entry.reg.getWriteObjectSocket())) {
                         count++;
                     }
+                    minFlushDelayNanos = Math.min(minFlushDelayNanos, entry.reg.getFlushDelayNanos());
                 } catch (Throwable e) {
-                    if ( e instanceof InvocationTargetException && ((InvocationTargetException) e).getTargetException() != null )
-                        e = ((InvocationTargetException) e).getTargetException();
-                    Log.Error(this,e);
-                    if ( e instanceof IOException || e instanceof IOError ) {
-                        terminateEntry(i, entry, null, e);
+                    if ( handleSendError(entry, e) )
                         i--;
-                    }
                 }
             }
             maxit--;
@@ -153,12 +190,104 @@ public class RemoteRefPolling implements Runnable {
         return count;
     }
 
+    /**
+     * @return true if entry has been terminated
+     */
+    protected boolean handleSendError(ScheduleEntry entry, Throwable e) {
+        if ( e instanceof InvocationTargetException && ((InvocationTargetException) e).getTargetException() != null )
+            e = ((InvocationTargetException) e).getTargetException();
+        Log.Error(this,e);
+        if ( e instanceof IOException || e instanceof IOError ) {
+            terminateEntry(sendJobs.indexOf(entry), entry, null, e);
+            return true;
+        }
+        return false;
+    }
+
     protected void terminateEntry(int i, ScheduleEntry entry, Object res, Throwable e) {
         entry.reg.stopRemoteRefs();
+        entry.reg.setSendSignal(null);
         sendJobs.remove(i);
+        entries.remove(entry.reg);
         entry.promise.complete(res,e);
     }
 
+    /**
+     * called by the thread enqueuing a message to a remote ref of reg (event driven mode)
+     */
+    protected void signal(ConnectionRegistry reg) {
+        signaledRegs.offer(reg);
+        if ( ! sendScheduled.get() && sendScheduled.compareAndSet(false, true) )
+            pollActor.execute(this::sendSignaled);
+    }
+
+    // event driven mode, runs in poller thread
+    protected void sendSignaled() {
+        sendScheduled.set(false);
+        ArrayList<ConnectionRegistry> notDone = null;
+        ConnectionRegistry reg;
+        while ( (reg = signaledRegs.poll()) != null ) {
+            ScheduleEntry entry = entries.get(reg);
+            if ( entry == null )
+                continue;
+            if ( reg.isTerminated() ) {
+                terminateEntry(sendJobs.indexOf(entry), entry, "terminated", null);
+                continue;
+            }
+            try {
+                if ( reg.pollPendingAndSend2Remote(reg.getWriteObjectSocket()) ) {
+                    if ( notDone == null )
+                        notDone = new ArrayList<>();
+                    notDone.add(reg);
+                } else if ( reg.isCongested() ) {
+                    ConnectionRegistry congested = reg;
+                    pollActor.delayed(CONGESTED_RETRY_MILLIS, () -> signal(congested));
+                } else if ( reg.getFlushDelayNanos() != Long.MAX_VALUE ) {
+                    if ( isRepollDue(reg.getFlushDelayNanos()) ) {
+                        if ( notDone == null )
+                            notDone = new ArrayList<>();
+                        notDone.add(reg);
+                    } else
+                        scheduleFlush(entry);
+                }
+            } catch (Throwable e) {
+                handleSendError(entry, e);
+            }
+        }
+        if ( notDone != null ) {
+            // batch limit reached or flush due soon, continue after other messages of poller actor
+            notDone.forEach(this::signal);
+        }
+    }
+
+    /**
+     * event driven mode: poll a registry again once its deferred flush is due (instead of re-signaling it)
+     */
+    protected void scheduleFlush(ScheduleEntry entry) {
+        if ( entry.flushScheduled )
+            return;
+        entry.flushScheduled = true;
+        pollActor.delayed(Math.max(1, flushTimerMillis(entry.reg.getFlushDelayNanos())), () -> {
+            entry.flushScheduled = false;
+            signal(entry.reg);
+        });
+    }
+
+    /**
+     * @return timer delay for a flush due in nanos, rounded down as the timer may fire up to a tick late
+     */
+    public static long flushTimerMillis(long nanos) {
+        return nanos == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, (nanos - FLUSH_REPOLL_NANOS) / 1_000_000);
+    }
+
+    /**
+     * @return true if a flush due in nanos is too close for the timer. Flushes overdue longer (socket not writable)
+     * are left to the timer
+     */
+    public static boolean isRepollDue(long nanos) {
+        return flushTimerMillis(nanos) == 0 && nanos > -FLUSH_REPOLL_NANOS;
+    }
+
     public static class ScheduleEntry {
         public ScheduleEntry(ConnectionRegistry reg, Promise promise) {
             this.reg = reg;
@@ -167,5 +296,7 @@ public class RemoteRefPolling implements Runnable {
 
         ConnectionRegistry reg;
         IPromise promise;
+        boolean eventDriven;
+        boolean flushScheduled; // poller thread only
     }
 }
@@ -29,6 +29,7 @@ import java.io.Serializable;
 public class Coding implements Serializable {
     SerializerType coding;
     Class crossPlatformShortClazzNames[];
+    int compressionThreshold = -1;
 
     public Coding(SerializerType coding) {
         this.coding = coding;
@@ -43,6 +44,22 @@ public class Coding implements Serializable {
         return crossPlatformShortClazzNames;
     }
 
+    /**
+     * deflate outgoing batches of at least thresholdBytes encoded size (binary codings only, see BatchCompressor).
+     * The peer does not need to enable compression to receive compressed batches.
+     */
+    public Coding compressAbove(int thresholdBytes) {
+        this.compressionThreshold = thresholdBytes;
+        return this;
+    }
+
+    /**
+     * @return threshold set by compressAbove or -1 (no compression)
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
     public SerializerType getCoding() {
         return coding;
     }
@@ -63,6 +80,7 @@ public class Coding implements Serializable {
                 conf = FSTConfiguration.createUnsafeBinaryConfiguration();
                 break;
             case FSTSer:
+            case CompactBinary: // + per connection serializer, see ConnectionRegistry.configureSerialization
                 conf = FSTConfiguration.createDefaultConfiguration();
                 break;
             default:
@@ -75,6 +93,7 @@ public class Coding implements Serializable {
     public String toString() {
         return "Coding{" +
                    "coding=" + coding +
+                   (compressionThreshold >= 0 ? ", compressAbove=" + compressionThreshold : "") +
                    '}';
     }
 }
@@ -0,0 +1,170 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.remoting.encoding;
+
+import org.nustaq.kontraktor.Callback;
+import org.nustaq.serialization.FSTBasicObjectSerializer;
+import org.nustaq.serialization.FSTClazzInfo;
+import org.nustaq.serialization.FSTObjectInput;
+import org.nustaq.serialization.FSTObjectOutput;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * RemoteCallEntry encoding of SerializerType.CompactBinary. Instead of FST's field by field encoding an entry is
+ * written as
+ *
+ *   flags | varint receiverKey | varint futureKey | [method] [serializedArgs] [args] [cb]
+ *
+ * Method names are replaced by a varint index into a per connection method table. Indices are assigned by the
+ * connection's frame writer only (assignMethodIndex, called in send order), the first entry of a method carries
+ * the definition "-index name", later ones just "index". Encoding does not touch the table, so entries can be
+ * encoded any number of times (retransmission, compression, size estimates). Entries encoded outside the frame
+ * writer (e.g. nested in serialized args) fall back to "0 name". Each ConnectionRegistry registers its own
+ * instance, the transport has to deliver frames in send order (TCP, NIO, websockets, shm).
+ */
+public class CompactRemoteCallSerializer extends FSTBasicObjectSerializer {
+
+    static final int CBQ = 1;
+    static final int CONTINUE = 2;
+    static final int METHOD = 4;
+    static final int SERIALIZED_ARGS = 8;
+    static final int ARGS = 16;
+    static final int CB = 32;
+
+    // outgoing: method name => index (1 based), incoming: index => method name
+    final HashMap<String,Integer> sentMethods = new HashMap<>();
+    final HashMap<Integer,String> receivedMethods = new HashMap<>();
+
+    /**
+     * assign the method index of an entry about to be written to this serializer's connection. Must be called in
+     * frame order, i.e. atomically with handing the entry to the socket.
+     *
+     * @return rce or a copy of it in case rce already has been assigned by another connection (forwarding)
+     */
+    public RemoteCallEntry assignMethodIndex(RemoteCallEntry rce) {
+        if ( rce.method == null )
+            return rce;
+        if ( rce.methodTable != null && rce.methodTable != this )
+            rce = rce.createCopy();
+        synchronized (sentMethods) {
+            Integer index = sentMethods.get(rce.method);
+            if ( index == null ) {
+                index = sentMethods.size() + 1;
+                sentMethods.put(rce.method, index);
+                rce.methodIndex = -index;
+            } else if ( rce.methodTable != this ) {
+                rce.methodIndex = index;
+            }
+        }
+        rce.methodTable = this;
+        return rce;
+    }
+
+    @Override
+    public void writeObject(FSTObjectOutput out, Object toWrite, FSTClazzInfo clzInfo, FSTClazzInfo.FSTFieldInfo referencedBy, int streamPosition) throws IOException {
+        RemoteCallEntry rce = (RemoteCallEntry) toWrite;
+        int flags = (rce.queue == RemoteCallEntry.CBQ ? CBQ : 0) |
+                    (rce.isContinue ? CONTINUE : 0) |
+                    (rce.method != null ? METHOD : 0) |
+                    (rce.serializedArgs != null ? SERIALIZED_ARGS : 0) |
+                    (rce.args != null ? ARGS : 0) |
+                    (rce.cb != null ? CB : 0);
+        out.writeByte(flags);
+        writeVarLong(out, rce.receiverKey);
+        writeVarLong(out, rce.futureKey);
+        if ( rce.method != null )
+            writeMethod(out, rce);
+        if ( rce.serializedArgs != null )
+            out.writeObject(rce.serializedArgs);
+        if ( rce.args != null )
+            out.writeObject(rce.args);
+        if ( rce.cb != null )
+            out.writeObject(rce.cb);
+    }
+
+    @Override
+    public Object instantiate(Class objectClass, FSTObjectInput in, FSTClazzInfo serializationInfo, FSTClazzInfo.FSTFieldInfo referencee, int streamPosition) throws Exception {
+        RemoteCallEntry rce = new RemoteCallEntry();
+        in.registerObject(rce, streamPosition, serializationInfo, referencee);
+        int flags = in.readByte();
+        rce.queue = (flags & CBQ) != 0 ? RemoteCallEntry.CBQ : RemoteCallEntry.MAILBOX;
+        rce.isContinue = (flags & CONTINUE) != 0;
+        rce.receiverKey = readVarLong(in);
+        rce.futureKey = readVarLong(in);
+        if ( (flags & METHOD) != 0 )
+            rce.method = readMethod(in);
+        if ( (flags & SERIALIZED_ARGS) != 0 )
+            rce.serializedArgs = (byte[]) in.readObject();
+        if ( (flags & ARGS) != 0 )
+            rce.args = (Object[]) in.readObject();
+        if ( (flags & CB) != 0 )
+            rce.cb = (Callback) in.readObject();
+        return rce;
+    }
+
+    protected void writeMethod(FSTObjectOutput out, RemoteCallEntry rce) throws IOException {
+        int index = rce.methodTable == this ? rce.methodIndex : 0;
+        writeVarLong(out, index);
+        if ( index <= 0 )
+            out.writeStringUTF(rce.method);
+    }
+
+    protected String readMethod(FSTObjectInput in) throws IOException {
+        int index = (int) readVarLong(in);
+        if ( index > 0 ) {
+            String method;
+            synchronized (receivedMethods) {
+                method = receivedMethods.get(index);
+            }
+            if ( method == null )
+                throw new IOException("undefined method index "+index);
+            return method;
+        }
+        String method = in.readStringUTF();
+        if ( index < 0 ) {
+            synchronized (receivedMethods) {
+                receivedMethods.put(-index, method);
+            }
+        }
+        return method;
+    }
+
+    // zigzag varint, receiver keys of forwarded callbacks are negative
+    static void writeVarLong(FSTObjectOutput out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ( (v & ~0x7FL) != 0 ) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(FSTObjectInput in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ( (b & 0x80) != 0 );
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.encoding;
+
+import org.nustaq.serialization.FSTConfiguration;
+import org.nustaq.serialization.util.FSTUtil;
+
+import java.io.Serializable;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A deflated batch (serialized message Object[]) as sent by an ObjectSocket with a BatchCompressor.
+ * Receivers of any transport decode it in ConnectionRegistry.receiveObject.
+ */
+public class CompressedBatch implements Serializable {
+
+    static final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * @return received decoded if it is a CompressedBatch, else received
+     */
+    public static Object inflate(FSTConfiguration conf, Object received) {
+        if ( received instanceof CompressedBatch == false )
+            return received;
+        try {
+            return ((CompressedBatch) received).decode(conf);
+        } catch (DataFormatException e) {
+            FSTUtil.<RuntimeException>rethrow(e);
+            return null; // never reached
+        }
+    }
+
+    byte data[];
+    int len; // uncompressed length
+
+    public CompressedBatch(byte[] data, int len) {
+        this.data = data;
+        this.len = len;
+    }
+
+    public int getLength() {
+        return len;
+    }
+
+    public int getCompressedLength() {
+        return data.length;
+    }
+
+    /**
+     * inflate and deserialize the batch using given conf (the one it has been serialized with)
+     */
+    public Object decode(FSTConfiguration conf) throws DataFormatException {
+        Inflater inf = inflater.get();
+        inf.reset();
+        inf.setInput(data);
+        byte raw[] = new byte[len];
+        int n = 0;
+        while ( n < len && ! inf.finished() ) {
+            int read = inf.inflate(raw, n, len - n);
+            if ( read == 0 && (inf.needsInput() || inf.needsDictionary()) )
+                break;
+            n += read;
+        }
+        if ( n != len )
+            throw new DataFormatException("truncated batch, expected "+len+" bytes, got "+n);
+        return conf.asObject(raw);
+    }
+
+}
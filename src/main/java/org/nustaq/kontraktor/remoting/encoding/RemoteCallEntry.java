@@ -43,6 +43,9 @@ public class RemoteCallEntry implements Serializable {
     int queue;
     boolean isContinue;
     Callback cb;
+    // CompactBinary: method index assigned by the frame writer of 'methodTable' (see CompactRemoteCallSerializer)
+    transient Object methodTable;
+    transient int methodIndex;
 
     public RemoteCallEntry() {}
 
@@ -124,6 +127,11 @@ public class RemoteCallEntry implements Serializable {
         this.serializedArgs = serializedArgs;
     }
 
+    /**
+     * serialize args into serializedArgs, a trailing callback is kept separate (cb). Packed entries can be forwarded
+     * without knowing argument classes (routing). Entries sent unpacked (ConnectionRegistry.INLINE_ARGS) have their
+     * args serialized inline with the entry.
+     */
     public void pack(FSTConfiguration conf) {
         if ( args != null && serializedArgs == null ) {
             if ( args.length > 0 && args[args.length-1] instanceof Callback ) {
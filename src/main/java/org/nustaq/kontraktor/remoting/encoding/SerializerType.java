@@ -28,5 +28,10 @@ public enum SerializerType {
 //    Json,
     JsonNoRef,
     JsonNoRefPretty,
-    UnsafeBinary
+    UnsafeBinary,
+    /**
+     * FSTSer with a compact RemoteCallEntry header (varint keys, method names sent once per connection), see
+     * CompactRemoteCallSerializer. Requires a transport delivering frames in send order (TCP, websockets, shm).
+     */
+    CompactBinary
 }
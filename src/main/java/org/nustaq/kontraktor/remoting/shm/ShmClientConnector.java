@@ -0,0 +1,105 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.shm;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.Callback;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.remoting.base.ActorClientConnector;
+import org.nustaq.kontraktor.remoting.base.ObjectSink;
+import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Connects to an actor published by ShmServerConnector on the same host.
+ */
+public class ShmClientConnector implements ActorClientConnector {
+
+    public static class RemotingHelper extends Actor<RemotingHelper> {}
+    protected static AtomicReference<RemotingHelper> singleton =  new AtomicReference<>();
+
+    public static long CONNECT_TIMEOUT_MILLIS = 5000;
+    public static int DEFAULT_RING_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * in case clients are connected from non actor world, provide a global actor(thread) for remote client processing
+     * (=polling queues, encoding)
+     */
+    protected static RemotingHelper get() {
+        synchronized (singleton) {
+            if ( singleton.get() == null ) {
+                singleton.set(Actors.AsActor(RemotingHelper.class));
+            }
+            return singleton.get();
+        }
+    }
+
+    protected String name;
+    protected int ringSize;
+    protected ShmObjectSocket socket;
+    protected Callback<ActorClientConnector> disconnectCallback;
+
+    public ShmClientConnector(String name, int ringSize, Callback<ActorClientConnector> disconnectCallback) {
+        this.name = name;
+        this.ringSize = ringSize;
+        this.disconnectCallback = disconnectCallback;
+    }
+
+    @Override
+    public IPromise connect(Function<ObjectSocket, ObjectSink> factory) throws Exception {
+        File dir = ShmServerConnector.getServerDir(name);
+        if ( ! dir.isDirectory() )
+            throw new IOException("no shm server published as " + name);
+        String id = UUID.randomUUID().toString();
+        ShmRing out = new ShmRing(new File(dir, id + ".c2s"), ringSize, true);
+        ShmRing in = new ShmRing(new File(dir, id + ".s2c"), ringSize, true);
+        out.lockWriter();
+        socket = new ShmObjectSocket(in, out, id);
+        new File(dir, id + ".con").createNewFile();
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while ( ! in.isAccepted() ) {
+            if ( System.currentTimeMillis() > deadline ) {
+                new File(dir, id + ".con").delete();
+                socket.close();
+                throw new IOException("shm server " + name + " did not accept connection");
+            }
+            Thread.sleep(1);
+        }
+        ObjectSink sink = factory.apply(socket);
+        Thread receiver = new Thread(() -> {
+            socket.receiveLoop(sink);
+            if ( disconnectCallback != null )
+                disconnectCallback.complete(this, null);
+        }, "shm client receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        return new Promise<>(null);
+    }
+
+    @Override
+    public IPromise closeClient() {
+        socket.close();
+        return new Promise<>(null);
+    }
+
+}
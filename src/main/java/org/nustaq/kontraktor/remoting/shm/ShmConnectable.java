@@ -0,0 +1,129 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.shm;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Callback;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+import org.nustaq.kontraktor.remoting.base.ActorClient;
+import org.nustaq.kontraktor.remoting.base.ActorClientConnector;
+import org.nustaq.kontraktor.remoting.base.ConnectableActor;
+import org.nustaq.kontraktor.remoting.encoding.Coding;
+import org.nustaq.kontraktor.remoting.encoding.SerializerType;
+
+import java.util.function.Consumer;
+
+/**
+ * Describes a remote actor published by a ShmPublisher on the same host
+ */
+public class ShmConnectable implements ConnectableActor {
+
+    String name;
+    Class actorClz;
+    Coding coding = new Coding(SerializerType.FSTSer);
+    int inboundQueueSize = SimpleScheduler.DEFQSIZE;
+    int ringSize = ShmClientConnector.DEFAULT_RING_SIZE;
+
+    public ShmConnectable() {
+    }
+
+    /**
+     * @param actorClz - actor clazz to connect to
+     * @param name - name the actor has been published with
+     */
+    public ShmConnectable(Class actorClz, String name) {
+        this.actorClz = actorClz;
+        this.name = name;
+    }
+
+    @Override
+    public <T extends Actor> IPromise<T> connect(Callback<ActorClientConnector> disconnectCallback, Consumer<Actor> actorDisconnecCB) {
+        if ( actorClz == null )
+            throw new RuntimeException("actor class cannot be null on ShmConnectable");
+        if ( name == null )
+            throw new RuntimeException("name cannot be null on ShmConnectable");
+        Promise result = new Promise();
+        Runnable connect = () -> {
+            ShmClientConnector client = new ShmClientConnector(name,ringSize,disconnectCallback);
+            ActorClient connector = new ActorClient(client,actorClz,coding);
+            connector.connect(inboundQueueSize, actorDisconnecCB).then(result);
+        };
+        if ( ! Actor.inside() ) {
+            ShmClientConnector.get().execute(() -> Thread.currentThread().setName("shm singleton remote client actor polling"));
+            ShmClientConnector.get().execute(connect);
+        }
+        else
+            connect.run();
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ShmConnectable name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public ShmConnectable actorClass(Class actorClz) {
+        this.actorClz = actorClz;
+        return this;
+    }
+
+    @Override
+    public Class<? extends Actor> getActorClass() {
+        return actorClz;
+    }
+
+    public ShmConnectable coding(Coding coding) {
+        this.coding = coding;
+        return this;
+    }
+
+    public ShmConnectable serType(SerializerType sertype) {
+        this.coding = new Coding(sertype);
+        return this;
+    }
+
+    /**
+     * size of each of the connection's two rings in bytes, default 4MB. Larger messages are streamed through.
+     */
+    public ShmConnectable ringSize(int ringSize) {
+        this.ringSize = ringSize;
+        return this;
+    }
+
+    @Override
+    public ShmConnectable inboundQueueSize(final int inboundQueueSize) {
+        this.inboundQueueSize = inboundQueueSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ShmConnectable{" +
+            "name='" + name + '\'' +
+            ", actorClz=" + actorClz +
+            ", coding=" + coding +
+            ", ringSize=" + ringSize +
+            ", inboundQueueSize=" + inboundQueueSize +
+            '}';
+    }
+}
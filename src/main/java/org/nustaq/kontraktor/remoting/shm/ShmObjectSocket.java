@@ -0,0 +1,314 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.shm;
+
+import org.nustaq.kontraktor.remoting.base.ActorClientConnector;
+import org.nustaq.kontraktor.remoting.base.BatchCompressor;
+import org.nustaq.kontraktor.remoting.base.ObjectSink;
+import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.CompressedBatch;
+import org.nustaq.kontraktor.util.Log;
+import org.nustaq.serialization.FSTConfiguration;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ObjectSocket over a pair of ShmRings. Batches are framed like the tcp transports ([int len][serialized Object[]]).
+ * Reads are done by a dedicated thread (see receiveLoop). While idle it spins (multi core only), yields, then
+ * blocks on a loopback udp doorbell, which the writing side rings once it has written to the ring (see
+ * ShmRing.prepareSleep). A writer waiting for ring space parks with escalating park time.
+ */
+public class ShmObjectSocket implements ObjectSocket {
+
+    public static int SPIN_UNTIL_YIELD = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+    public static int YIELD_UNTIL_PARK = 100;
+    /**
+     * first park of a writer waiting for ring space, doubled up to MAX_PARK_NANOS
+     */
+    public static long PARK_NANOS = 10_000;
+    public static long MAX_PARK_NANOS = 1000_000;
+    public static long LIVENESS_CHECK_MILLIS = 1000;
+
+    static AtomicInteger idCount = new AtomicInteger(0);
+    int id = idCount.incrementAndGet();
+
+    protected final ShmRing in;
+    protected final ShmRing out;
+    protected final String connectionId;
+    protected FSTConfiguration conf;
+    protected BatchCompressor compressor;
+    protected Throwable lastError;
+    protected ArrayList objects = new ArrayList();
+    protected int lenHolder[] = new int[1];
+    protected byte header[] = new byte[4];
+    protected byte readBuf[] = new byte[4096];
+    protected volatile boolean isClosed;
+    protected volatile DatagramSocket doorbell; // blocked on by the reader thread while idle
+    protected final DatagramPacket doorbellPacket = new DatagramPacket(new byte[1], 1);
+    protected DatagramSocket bell; // rings the peer's doorbell, guarded by this
+    protected final DatagramPacket bellPacket = new DatagramPacket(new byte[1], 1, InetAddress.getLoopbackAddress(), 0);
+    protected final AtomicBoolean disposed = new AtomicBoolean(false);
+
+    public ShmObjectSocket(ShmRing in, ShmRing out, String connectionId) {
+        this.in = in;
+        this.out = out;
+        this.connectionId = connectionId;
+    }
+
+    @Override
+    public synchronized void writeObject(Object toWrite) throws Exception {
+        objects.add(toWrite);
+        if ( objects.size() > ActorClientConnector.OBJECT_MAX_BATCH_SIZE )
+            flush();
+    }
+
+    @Override
+    public synchronized void flush() throws Exception {
+        if ( objects.size() == 0 )
+            return;
+        objects.add(0); // sequence
+        Object[] objArr = objects.toArray();
+        objects.clear();
+        byte bytes[] = conf.asSharedByteArray(objArr, lenHolder);
+        int len = lenHolder[0];
+        if ( compressor != null && compressor.shouldCompress(len) ) {
+            CompressedBatch packed = compressor.compress(bytes, len);
+            if ( packed != null ) {
+                bytes = conf.asSharedByteArray(packed, lenHolder);
+                len = lenHolder[0];
+            }
+        }
+        header[0] = (byte) (len >>> 24);
+        header[1] = (byte) (len >>> 16);
+        header[2] = (byte) (len >>> 8);
+        header[3] = (byte) len;
+        writeFully(header, 4);
+        writeFully(bytes, len);
+    }
+
+    // blocks while the ring is full (slow reader), like a socket write
+    protected void writeFully(byte[] bytes, int len) throws IOException {
+        int off = 0;
+        int count = 0;
+        while ( off < len ) {
+            if ( isClosed() )
+                throw new EOFException("connection closed");
+            int n = out.write(bytes, off, len - off);
+            off += n;
+            if ( n > 0 ) {
+                count = 0;
+                ringDoorbell();
+            } else {
+                count = awaitSpace(count);
+            }
+        }
+    }
+
+    // wake up the peer's reader in case it blocks
+    protected synchronized void ringDoorbell() throws IOException {
+        int port = out.getSleepingReaderDoorbell();
+        if ( port == 0 )
+            return;
+        if ( bell == null )
+            bell = new DatagramSocket();
+        bellPacket.setPort(port);
+        bell.send(bellPacket);
+    }
+
+    protected void readFully(byte[] bytes, int len) throws IOException {
+        int off = 0;
+        int count = 0;
+        while ( off < len ) {
+            int n = in.read(bytes, off, len - off);
+            off += n;
+            if ( n == 0 ) {
+                if ( isClosed() && in.available() == 0 )
+                    throw new EOFException("connection closed");
+                count = awaitData(count);
+            } else {
+                count = 0;
+            }
+        }
+    }
+
+    protected long lastLivenessCheck;
+
+    // reader backoff: spin, yield, then block on the doorbell. Detects a died peer on doorbell timeout
+    protected int awaitData(int count) throws IOException {
+        count++;
+        if ( count > SPIN_UNTIL_YIELD + YIELD_UNTIL_PARK ) {
+            DatagramSocket db = doorbell;
+            if ( db == null ) {
+                db = doorbell = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+                db.setSoTimeout((int) LIVENESS_CHECK_MILLIS);
+                if ( isClosed ) // raced with close
+                    db.close();
+            }
+            try {
+                if ( in.prepareSleep(db.getLocalPort()) )
+                    db.receive(doorbellPacket);
+                return 0;
+            } catch (SocketTimeoutException e) {
+                checkLiveness();
+            } catch (SocketException e) {
+                if ( ! isClosed() )
+                    throw e;
+            } finally {
+                in.awake();
+            }
+        } else if ( count > SPIN_UNTIL_YIELD ) {
+            Thread.yield();
+        }
+        return count;
+    }
+
+    // writer backoff (ring full): spin, yield, then park with escalating park time
+    protected int awaitSpace(int count) {
+        count++;
+        int parks = count - SPIN_UNTIL_YIELD - YIELD_UNTIL_PARK;
+        if ( parks > 0 ) {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, PARK_NANOS << Math.min(parks - 1, 20)));
+            checkLiveness();
+        } else if ( count > SPIN_UNTIL_YIELD ) {
+            Thread.yield();
+        }
+        return count;
+    }
+
+    protected void checkLiveness() {
+        long now = System.currentTimeMillis();
+        if ( now - lastLivenessCheck > LIVENESS_CHECK_MILLIS ) {
+            lastLivenessCheck = now;
+            if ( ! in.isWriterAlive() ) {
+                Log.Warn(this, "shm peer died " + connectionId);
+                isClosed = true;
+            }
+        }
+    }
+
+    @Override
+    public long getPendingBytes() {
+        return out.available();
+    }
+
+    public Object readObject() throws Exception {
+        readFully(header, 4);
+        int len = ((header[0] & 0xff) << 24) | ((header[1] & 0xff) << 16) | ((header[2] & 0xff) << 8) | (header[3] & 0xff);
+        if ( len > readBuf.length )
+            readBuf = new byte[Math.max(len, readBuf.length * 2)];
+        readFully(readBuf, len);
+        return conf.getObjectInput(readBuf, len).readObject();
+    }
+
+    /**
+     * read and dispatch incoming batches until the connection is closed, then calls sink.sinkClosed.
+     * Runs in a dedicated thread.
+     */
+    public void receiveLoop(ObjectSink sink) {
+        try {
+            while ( true ) {
+                Object o = readObject();
+                sink.receiveObject(o, null, null);
+            }
+        } catch (EOFException e) {
+            // closed
+        } catch (Exception e) {
+            if ( ! isClosed() )
+                Log.Warn(this, e);
+        } finally {
+            close();
+            sink.sinkClosed();
+        }
+    }
+
+    @Override
+    public void close() {
+        if ( ! disposed.compareAndSet(false, true) )
+            return;
+        isClosed = true;
+        in.setClosed();
+        out.setClosed();
+        try {
+            ringDoorbell();
+        } catch (IOException e) {
+            // peer closes on liveness check
+        }
+        DatagramSocket db = doorbell;
+        if ( db != null )
+            db.close();
+        synchronized (this) {
+            if ( bell != null )
+                bell.close();
+        }
+        in.dispose();
+        out.dispose();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isClosed || in.isClosed() || out.isClosed();
+    }
+
+    @Override
+    public void setLastError(Throwable ex) {
+        lastError = ex;
+    }
+
+    @Override
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public void setConf(FSTConfiguration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public FSTConfiguration getConf() {
+        return conf;
+    }
+
+    @Override
+    public void setCompressor(BatchCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public BatchCompressor getCompressor() {
+        return compressor;
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getConnectionIdentifier() {
+        return connectionId;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.shm;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.remoting.base.ActorPublisher;
+import org.nustaq.kontraktor.remoting.base.ActorServer;
+import org.nustaq.kontraktor.remoting.encoding.Coding;
+import org.nustaq.kontraktor.remoting.encoding.SerializerType;
+
+import java.util.function.Consumer;
+
+/**
+ * Publishes actors to processes on the same host via shared memory (see ShmServerConnector)
+ */
+public class ShmPublisher implements ActorPublisher {
+
+    Actor facade;
+    String name;
+    Coding coding = new Coding( SerializerType.FSTSer );
+
+    public ShmPublisher() {
+    }
+
+    public ShmPublisher(Actor facade, String name) {
+        this.facade = facade;
+        this.name = name;
+    }
+
+    @Override
+    public IPromise<ActorServer> publish(Consumer<Actor> disconnectHandler) {
+        return ShmServerConnector.Publish(facade,name,coding,disconnectHandler);
+    }
+
+    public ShmPublisher serType( SerializerType type ) {
+        coding = new Coding(type);
+        return this;
+    }
+
+    public ShmPublisher facade(final Actor facade) {
+        this.facade = facade;
+        return this;
+    }
+
+    public ShmPublisher name(final String name) {
+        this.name = name;
+        return this;
+    }
+
+    public ShmPublisher coding(final Coding coding) {
+        this.coding = coding;
+        return this;
+    }
+
+    public Actor getFacade() {
+        return facade;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Coding getCoding() {
+        return coding;
+    }
+
+    @Override
+    public String toString() {
+        return "ShmPublisher{" +
+                   "facade=" + facade.getClass().getSimpleName() +
+                   ", name=" + name +
+                   ", coding=" + coding +
+                   '}';
+    }
+}
@@ -0,0 +1,243 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.shm;
+
+import org.nustaq.serialization.util.FSTUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+/**
+ * Single producer single consumer byte stream over a memory mapped file (usually in /dev/shm), shared by
+ * two processes or two threads. Writer and reader each own one side, messages are framed by the caller.
+ *
+ * layout: [writePos long][pad][readPos long][pad][closed int][accepted int][sleeping int][doorbell int][pad]
+ * data (capacity, power of two)
+ *
+ * Positions count bytes ever written/read, so free space is capacity - (writePos - readPos). A reader about to
+ * block publishes 'sleeping' and the udp port of its doorbell, the writer rings it after writing (see
+ * ShmObjectSocket).
+ */
+public class ShmRing {
+
+    static final int WRITE_POS = 0;
+    static final int READ_POS = 64;
+    static final int CLOSED = 128;
+    static final int ACCEPTED = 132;
+    static final int SLEEPING = 136;
+    static final int DOORBELL = 140;
+    static final int HEADER_SIZE = 256;
+    static final long LOCK_POS = Long.MAX_VALUE - 1; // file lock of the writing process, outside mapped region
+
+    static volatile int fenceDummy;
+
+    // orders data access against position updates, both for other threads and other processes
+    static void fence() {
+        if ( FSTUtil.unFlaggedUnsafe != null )
+            FSTUtil.unFlaggedUnsafe.fullFence();
+        else
+            fenceDummy++;
+    }
+
+    protected final File file;
+    protected final RandomAccessFile raf;
+    protected final FileChannel channel;
+    protected final MappedByteBuffer header;
+    protected final ByteBuffer data; // own view, position changes are local to the using side
+    protected final int capacity;
+    protected final int mask;
+    protected FileLock writerLock;
+
+    /**
+     * map (and create if create is true) a ring of given capacity (rounded up to a power of two)
+     */
+    public ShmRing(File file, int capacity, boolean create) throws IOException {
+        int cap = Integer.highestOneBit(Math.max(1024, capacity) - 1) << 1;
+        this.file = file;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        if ( create ) {
+            raf.setLength(HEADER_SIZE + cap);
+        } else {
+            cap = (int) (raf.length() - HEADER_SIZE);
+            if ( cap <= 0 || Integer.bitCount(cap) != 1 )
+                throw new IOException("not a ring file " + file);
+        }
+        this.capacity = cap;
+        mask = cap - 1;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + cap);
+        data = header.duplicate();
+    }
+
+    /**
+     * writes as many bytes as there is space for
+     * @return number of bytes written
+     */
+    public int write(byte[] src, int off, int len) {
+        long wp = header.getLong(WRITE_POS);
+        long rp = header.getLong(READ_POS);
+        fence();
+        int n = (int) Math.min(len, capacity - (wp - rp));
+        if ( n <= 0 )
+            return 0;
+        int idx = (int) (wp & mask);
+        int first = Math.min(n, capacity - idx);
+        data.position(HEADER_SIZE + idx);
+        data.put(src, off, first);
+        if ( first < n ) {
+            data.position(HEADER_SIZE);
+            data.put(src, off + first, n - first);
+        }
+        fence();
+        header.putLong(WRITE_POS, wp + n);
+        return n;
+    }
+
+    /**
+     * @return number of bytes read, 0 if none available
+     */
+    public int read(byte[] dst, int off, int len) {
+        long rp = header.getLong(READ_POS);
+        long wp = header.getLong(WRITE_POS);
+        fence();
+        int n = (int) Math.min(len, wp - rp);
+        if ( n <= 0 )
+            return 0;
+        int idx = (int) (rp & mask);
+        int first = Math.min(n, capacity - idx);
+        data.position(HEADER_SIZE + idx);
+        data.get(dst, off, first);
+        if ( first < n ) {
+            data.position(HEADER_SIZE);
+            data.get(dst, off + first, n - first);
+        }
+        fence();
+        header.putLong(READ_POS, rp + n);
+        return n;
+    }
+
+    public int available() {
+        long rp = header.getLong(READ_POS);
+        long wp = header.getLong(WRITE_POS);
+        fence();
+        return (int) (wp - rp);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * reader side: publish the doorbell port and the intention to block
+     * @return false if data has been written meanwhile (or the ring is closed), the reader must not block then
+     */
+    public boolean prepareSleep(int doorbellPort) {
+        header.putInt(DOORBELL, doorbellPort);
+        header.putInt(SLEEPING, 1);
+        fence();
+        return available() == 0 && ! isClosed();
+    }
+
+    /**
+     * reader side: done blocking
+     */
+    public void awake() {
+        header.putInt(SLEEPING, 0);
+        fence();
+    }
+
+    /**
+     * writer side, call after write or setClosed
+     * @return doorbell port of a blocked reader, 0 if the reader does not block
+     */
+    public int getSleepingReaderDoorbell() {
+        fence();
+        return header.getInt(SLEEPING) != 0 ? header.getInt(DOORBELL) : 0;
+    }
+
+    public void setAccepted() {
+        header.putInt(ACCEPTED, 1);
+        fence();
+    }
+
+    public boolean isAccepted() {
+        fence();
+        return header.getInt(ACCEPTED) != 0;
+    }
+
+    /**
+     * marks the ring closed for both sides. Bytes already written can still be read.
+     */
+    public void setClosed() {
+        header.putInt(CLOSED, 1);
+        fence();
+    }
+
+    public boolean isClosed() {
+        fence();
+        return header.getInt(CLOSED) != 0;
+    }
+
+    /**
+     * called by the writing side, the lock is released by the os in case the writing process dies
+     */
+    public void lockWriter() throws IOException {
+        writerLock = channel.lock(LOCK_POS, 1, false);
+    }
+
+    /**
+     * @return false if the writing process has died (its lock has been released)
+     */
+    public boolean isWriterAlive() {
+        try {
+            FileLock lock = channel.tryLock(LOCK_POS, 1, false);
+            if ( lock == null )
+                return true; // held by another process
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            return true; // held inside this vm
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * unmaps lazily (gc) and deletes the file, the peer's mapping stays valid
+     */
+    public void dispose() {
+        try {
+            if ( writerLock != null && writerLock.isValid() )
+                writerLock.release();
+            channel.close();
+            raf.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        file.delete();
+    }
+
+}
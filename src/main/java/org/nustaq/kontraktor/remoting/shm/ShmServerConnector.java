@@ -0,0 +1,166 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+package org.nustaq.kontraktor.remoting.shm;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.remoting.base.ActorServer;
+import org.nustaq.kontraktor.remoting.base.ActorServerConnector;
+import org.nustaq.kontraktor.remoting.base.ObjectSink;
+import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.Coding;
+import org.nustaq.kontraktor.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Publishes an actor to processes on the same host via shared memory (see ShmRing). The server owns a directory
+ * SHM_DIR/kontraktor-[name]. A client creates a pair of rings there plus a [id].con marker, which is picked up by
+ * the acceptor thread. Each connection has a receiver thread.
+ */
+public class ShmServerConnector implements ActorServerConnector {
+
+    public static String SHM_DIR = new File("/dev/shm").isDirectory() ? "/dev/shm" : System.getProperty("java.io.tmpdir");
+    public static long ACCEPT_POLL_MILLIS = 5;
+    public static int DELAY_MS_TILL_CLOSE = 2000;
+
+    public static File getServerDir(String name) {
+        return new File(SHM_DIR, "kontraktor-" + name);
+    }
+
+    public static Promise<ActorServer> Publish(Actor facade, String name, Coding coding) {
+        return Publish(facade,name,coding,null);
+    }
+
+    public static Promise<ActorServer> Publish(Actor facade, String name, Coding coding, Consumer<Actor> disconnectHandler) {
+        Promise finished = new Promise();
+        try {
+            ActorServer publisher = new ActorServer(new ShmServerConnector(name), facade, coding);
+            facade.execute(() -> {
+                try {
+                    publisher.start(disconnectHandler);
+                    finished.resolve(publisher);
+                } catch (Exception e) {
+                    finished.reject(e);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new Promise(null,e);
+        }
+        return finished;
+    }
+
+    protected String name;
+    protected File dir;
+    protected FileChannel lockChannel;
+    protected FileLock serverLock;
+    protected volatile boolean closed;
+    protected ConcurrentLinkedQueue<ShmObjectSocket> sockets = new ConcurrentLinkedQueue<>();
+
+    public ShmServerConnector(String name) {
+        this.name = name;
+        this.dir = getServerDir(name);
+    }
+
+    @Override
+    public void connect(Actor facade, Function<ObjectSocket, ObjectSink> factory) throws Exception {
+        dir.mkdirs();
+        lockChannel = new RandomAccessFile(new File(dir, "server.lock"), "rw").getChannel();
+        serverLock = lockChannel.tryLock();
+        if ( serverLock == null )
+            throw new IOException("shm name already published " + name);
+        File[] stale = dir.listFiles((d, n) -> ! n.equals("server.lock"));
+        if ( stale != null ) { // left by a died server
+            for (File file : stale)
+                file.delete();
+        }
+        Thread acceptor = new Thread(() -> acceptLoop(facade, factory), "shm acceptor " + name);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    protected void acceptLoop(Actor facade, Function<ObjectSocket, ObjectSink> factory) {
+        while ( ! closed ) {
+            File[] markers = dir.listFiles((d, n) -> n.endsWith(".con"));
+            if ( markers != null ) {
+                for (File marker : markers) {
+                    String id = marker.getName().substring(0, marker.getName().length() - ".con".length());
+                    marker.delete();
+                    try {
+                        accept(facade, factory, id);
+                    } catch (Exception e) {
+                        Log.Warn(this, e, "failed to accept shm connection " + id);
+                    }
+                }
+            }
+            try {
+                Thread.sleep(ACCEPT_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    protected void accept(Actor facade, Function<ObjectSocket, ObjectSink> factory, String id) throws IOException {
+        ShmRing in = new ShmRing(new File(dir, id + ".c2s"), 0, false);
+        ShmRing out = new ShmRing(new File(dir, id + ".s2c"), 0, false);
+        out.lockWriter();
+        ShmObjectSocket socket = new ShmObjectSocket(in, out, id);
+        sockets.add(socket);
+        facade.execute(() -> {
+            ObjectSink sink = factory.apply(socket);
+            out.setAccepted();
+            Thread receiver = new Thread(() -> {
+                socket.receiveLoop(sink);
+                sockets.remove(socket);
+            }, "shm receiver " + id);
+            receiver.setDaemon(true);
+            receiver.start();
+        });
+    }
+
+    @Override
+    public IPromise closeServer() {
+        closed = true;
+        sockets.forEach(socket -> {
+            // give time for flush, see TCPServerConnector
+            Actors.SubmitDelayed(DELAY_MS_TILL_CLOSE, () -> {
+                socket.close();
+                dir.delete(); // once empty
+            });
+        });
+        try {
+            serverLock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            return new Promise<>(null,e);
+        }
+        new File(dir, "server.lock").delete();
+        dir.delete();
+        return new Promise<>(null);
+    }
+
+}
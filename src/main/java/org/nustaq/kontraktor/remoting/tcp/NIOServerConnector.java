@@ -37,6 +37,10 @@ import java.util.function.Function;
  * Publishes an actor as a server using non-blocking IO backed TCP.
  * The number of threads does not increase with the number of clients.
  *
+ * With ioThreads > 0 the facade's thread only accepts, connections are spread round robin across
+ * ioThreads reactor threads which read, decode and write (see AsyncServerSocket). Remote calls
+ * are still executed by the facade.
+ *
  */
 public class NIOServerConnector extends AsyncServerSocket implements ActorServerConnector {
 
@@ -45,9 +49,13 @@ public class NIOServerConnector extends AsyncServerSocket implements ActorServer
     }
 
     public static Promise<ActorServer> Publish(Actor facade, int port, Coding coding, Consumer<Actor> disconnectHandler) {
+        return Publish(facade,port,coding,disconnectHandler,0);
+    }
+
+    public static Promise<ActorServer> Publish(Actor facade, int port, Coding coding, Consumer<Actor> disconnectHandler, int ioThreads) {
         Promise finished = new Promise();
         try {
-            ActorServer publisher = new ActorServer(new NIOServerConnector(port), facade, coding);
+            ActorServer publisher = new ActorServer(new NIOServerConnector(port,ioThreads), facade, coding);
             facade.execute(() -> {
                 try {
                     publisher.start(disconnectHandler);
@@ -64,15 +72,24 @@ public class NIOServerConnector extends AsyncServerSocket implements ActorServer
     }
 
     int port;
+    int ioThreads;
 
     public NIOServerConnector(int port) {
+        this(port,0);
+    }
+
+    /**
+     * @param ioThreads - number of reactor threads serving connections, 0 = all io is done on the facade's thread
+     */
+    public NIOServerConnector(int port, int ioThreads) {
         super();
         this.port = port;
+        this.ioThreads = ioThreads;
     }
 
     @Override
     public void connect(Actor facade, Function<ObjectSocket, ObjectSink> factory) throws Exception {
-        connect( port, (key,channel) -> {
+        connect( port, ioThreads, (key,channel) -> {
             MyObjectAsyncSocketConnection sc = new MyObjectAsyncSocketConnection(key,channel);
             ObjectSink sink = factory.apply(sc);
             sc.init(sink);
@@ -80,6 +97,11 @@ public class NIOServerConnector extends AsyncServerSocket implements ActorServer
         });
     }
 
+    @Override
+    public int getIOThreads() {
+        return Math.max(1,ioThreads);
+    }
+
     @Override
     public IPromise closeServer() {
         try {
@@ -22,8 +22,10 @@ import org.nustaq.kontraktor.util.Log;
 import org.nustaq.net.TCPObjectSocket;
 import org.nustaq.serialization.util.FSTUtil;
 
+import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.SocketException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -111,6 +113,8 @@ public class TCPClientConnector implements ActorClientConnector {
         int id = idCount.incrementAndGet();
 
         ArrayList objects = new ArrayList();
+        BatchCompressor compressor;
+        OutputStream frameOut; // with compression frames are encoded by BatchCompressor.writeFrame
 
         public MyTCPSocket(String host, int port) throws IOException {
             super(host, port);
@@ -135,13 +139,30 @@ public class TCPClientConnector implements ActorClientConnector {
             objects.clear();
 
             try {
-                super.writeObject(objArr);
+                if ( compressor != null ) {
+                    if ( frameOut == null )
+                        frameOut = new BufferedOutputStream(getSocket().getOutputStream(), BUFFER_SIZE);
+                    compressor.writeFrame(getConf(), objArr, frameOut);
+                } else
+                    super.writeObject(objArr);
             } catch (Exception e) {
                 Log.Error(this, "** FAILED TO SERIALIZE:"+Arrays.toString(objArr));
                 FSTUtil.<RuntimeException>rethrow(e);
             }
 
             super.flush();
+            if ( frameOut != null )
+                frameOut.flush();
+        }
+
+        @Override
+        public void setCompressor(BatchCompressor compressor) {
+            this.compressor = compressor;
+        }
+
+        @Override
+        public BatchCompressor getCompressor() {
+            return compressor;
         }
 
         @Override
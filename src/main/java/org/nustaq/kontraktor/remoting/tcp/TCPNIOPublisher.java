@@ -35,6 +35,7 @@ public class TCPNIOPublisher implements ActorPublisher {
 
     Actor facade;
     int port = 6543;
+    int ioThreads = 0;
     Coding coding = new Coding( SerializerType.FSTSer );
 
     public TCPNIOPublisher() {
@@ -47,7 +48,7 @@ public class TCPNIOPublisher implements ActorPublisher {
 
     @Override
     public IPromise<ActorServer> publish(Consumer<Actor> disconnectHandler) {
-        return NIOServerConnector.Publish(facade,port,coding,disconnectHandler);
+        return NIOServerConnector.Publish(facade,port,coding,disconnectHandler,ioThreads);
     }
 
     public TCPNIOPublisher serType( SerializerType type ) {
@@ -65,6 +66,14 @@ public class TCPNIOPublisher implements ActorPublisher {
         return this;
     }
 
+    /**
+     * @param ioThreads - spread connections across this many reactor threads (see NIOServerConnector), default 0
+     */
+    public TCPNIOPublisher ioThreads(final int ioThreads) {
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
     public TCPNIOPublisher coding(final Coding coding) {
         this.coding = coding;
         return this;
@@ -78,6 +87,10 @@ public class TCPNIOPublisher implements ActorPublisher {
         return port;
     }
 
+    public int getIOThreads() {
+        return ioThreads;
+    }
+
     public Coding getCoding() {
         return coding;
     }
@@ -87,6 +100,7 @@ public class TCPNIOPublisher implements ActorPublisher {
         return "TCPNIOPublisher{" +
                    "facade=" + facade.getClass().getSimpleName() +
                    ", port=" + port +
+                   ", ioThreads=" + ioThreads +
                    ", coding=" + coding +
                    '}';
     }
@@ -22,14 +22,17 @@ import org.nustaq.kontraktor.IPromise;
 import org.nustaq.kontraktor.Promise;
 import org.nustaq.kontraktor.remoting.base.ActorServer;
 import org.nustaq.kontraktor.remoting.base.ActorServerConnector;
+import org.nustaq.kontraktor.remoting.base.BatchCompressor;
 import org.nustaq.kontraktor.remoting.base.ObjectSink;
 import org.nustaq.kontraktor.remoting.base.ObjectSocket;
 import org.nustaq.kontraktor.remoting.encoding.Coding;
 import org.nustaq.kontraktor.util.Log;
 import org.nustaq.net.TCPObjectSocket;
 
+import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -164,11 +167,45 @@ public class TCPServerConnector implements ActorServerConnector {
     static class MyTCPSocket extends TCPObjectSocket implements ObjectSocket {
         static AtomicInteger idCount = new AtomicInteger(0);
         int id = idCount.incrementAndGet();
+        BatchCompressor compressor;
+        OutputStream frameOut; // with compression frames are encoded by BatchCompressor.writeFrame
 
         public MyTCPSocket(Socket socket) throws IOException {
             super(socket,null);
         }
 
+        @Override
+        public void writeObject(Object toWrite) throws Exception {
+            if ( compressor == null ) {
+                super.writeObject(toWrite);
+                return;
+            }
+            synchronized (this) {
+                if ( frameOut == null )
+                    frameOut = new BufferedOutputStream(getSocket().getOutputStream(), BUFFER_SIZE);
+                compressor.writeFrame(getConf(), toWrite, frameOut);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            super.flush();
+            synchronized (this) {
+                if ( frameOut != null )
+                    frameOut.flush();
+            }
+        }
+
+        @Override
+        public void setCompressor(BatchCompressor compressor) {
+            this.compressor = compressor;
+        }
+
+        @Override
+        public BatchCompressor getCompressor() {
+            return compressor;
+        }
+
         @Override
         public int getId() {
             return id;
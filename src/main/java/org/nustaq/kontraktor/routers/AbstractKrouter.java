@@ -4,6 +4,7 @@ import org.nustaq.kontraktor.*;
 import org.nustaq.kontraktor.annotations.CallerSideMethod;
 import org.nustaq.kontraktor.annotations.Local;
 import org.nustaq.kontraktor.impl.CallbackWrapper;
+import org.nustaq.kontraktor.impl.DispatcherThread;
 import org.nustaq.kontraktor.remoting.base.*;
 import org.nustaq.kontraktor.remoting.encoding.CallbackRefSerializer;
 import org.nustaq.kontraktor.remoting.encoding.RemoteCallEntry;
@@ -122,6 +123,7 @@ public abstract class AbstractKrouter<T extends AbstractKrouter> extends Actor<T
 //            getActor().requestCounter.count();
 //        }
 //        getActor().trafficCounter.count(rce.getSerializedArgs().length);
+        rce.pack(clientRemoteRegistry.getConf()); // sender used inline args, forward packed
         boolean success = dispatchRemoteCall(rce, clientRemoteRegistry);
         if ( ! success ) {
             if (rce.getCB() != null) {
@@ -270,7 +272,7 @@ public abstract class AbstractKrouter<T extends AbstractKrouter> extends Actor<T
                 handleServiceDiscon(remoteRef);
             }
         };
-        if ( Thread.currentThread() != getCurrentDispatcher() )
+        if ( DispatcherThread.current() != getCurrentDispatcher() )
             self().execute(toRun);
         else
             toRun.run();
@@ -338,7 +340,7 @@ public abstract class AbstractKrouter<T extends AbstractKrouter> extends Actor<T
                 handleServiceDiscon(remoteRef);
             }
         };
-        if ( Thread.currentThread() != getCurrentDispatcher() )
+        if ( DispatcherThread.current() != getCurrentDispatcher() )
             self().execute(toRun);
         else
             toRun.run();
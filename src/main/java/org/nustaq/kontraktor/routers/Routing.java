@@ -61,6 +61,8 @@ public class Routing {
         Promise p = promise();
         connectable.connect(null, disconnectCallback ).then( (r,e) -> {
             if ( r != null )  {
+                if ( r.__clientConnection != null )
+                    r.__clientConnection.setInlineArgs(false); // krouter forwards args opaque
                 getPinger().cyclic(CLIENT_PING_INTERVAL_MS, () -> {
                     long[] paids = null;
                     if ( r.__clientConnection != null )
@@ -96,6 +98,8 @@ public class Routing {
                 .connect(null, (Consumer<Actor>) disconnectCallback)
                 .then( (r,e) -> {
                     if ( r != null ) {
+                        if ( r.__clientConnection != null )
+                            r.__clientConnection.setInlineArgs(false); // krouter forwards results opaque
                         try {
                             ((AbstractKrouter) r).router$RegisterService(service.getUntypedRef(), stateful).await();
                         } catch (Exception ex) {
@@ -0,0 +1,276 @@
+/*
+Kontraktor Copyright (c) Ruediger Moeller, All rights reserved.
+
+This library is free software; you can redistribute it and/or
+modify it under the terms of the GNU Lesser General Public
+License as published by the Free Software Foundation; either
+version 3.0 of the License, or (at your option) any later version.
+
+This library is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+Lesser General Public License for more details.
+
+See https://www.gnu.org/licenses/lgpl.txt
+*/
+
+package org.nustaq.kontraktor.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer for large numbers of (mostly short, often obsolete) timeouts. Schedule and cancel are O(1):
+ * scheduling threads just enqueue, a single worker thread sorts tasks into a wheel of tick buckets
+ * and runs them once their tick is due.
+ *
+ * Tasks are run by the timer thread, so they must not block (e.g. enqueue to an actor instead).
+ * Precision is one tick (default 1 millisecond). If no task is due, the worker sleeps until
+ * the next non-empty bucket or a new task is scheduled.
+ */
+public class HashedWheelTimer {
+
+    public static long DEFAULT_TICK_NANOS = 1000 * 1000;
+    public static int DEFAULT_WHEEL_SIZE = 512; // will be alligned to 2^x
+
+    static final int PENDING = 0;
+    static final int CANCELLED = 1;
+    static final int EXPIRED = 2;
+
+    /**
+     * handle of a scheduled task
+     */
+    public static final class Scheduled {
+
+        static final AtomicIntegerFieldUpdater<Scheduled> STATE = AtomicIntegerFieldUpdater.newUpdater(Scheduled.class, "state");
+
+        final HashedWheelTimer timer;
+        final Runnable task;
+        final long deadlineTick;
+        volatile int state = PENDING;
+
+        // owned by worker thread
+        Bucket bucket;
+        Scheduled next, prev;
+
+        Scheduled(HashedWheelTimer timer, Runnable task, long deadlineTick) {
+            this.timer = timer;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * @return false if the task already has been run or cancelled
+         */
+        public boolean cancel() {
+            if ( STATE.compareAndSet(this, PENDING, CANCELLED) ) {
+                timer.pending.decrementAndGet();
+                timer.cancelled.offer(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    // doubly linked list of tasks, worker thread only
+    static final class Bucket {
+
+        Scheduled head, tail;
+
+        void add(Scheduled s) {
+            s.bucket = this;
+            if ( head == null ) {
+                head = tail = s;
+            } else {
+                tail.next = s;
+                s.prev = tail;
+                tail = s;
+            }
+        }
+
+        void remove(Scheduled s) {
+            if ( s.prev != null )
+                s.prev.next = s.next;
+            else
+                head = s.next;
+            if ( s.next != null )
+                s.next.prev = s.prev;
+            else
+                tail = s.prev;
+            s.next = s.prev = null;
+            s.bucket = null;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+    }
+
+    final String name;
+    final long tickNanos;
+    final Bucket wheel[];
+    final int mask;
+    final long startTime = System.nanoTime();
+    final ConcurrentLinkedQueue<Scheduled> added = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<Scheduled> cancelled = new ConcurrentLinkedQueue<>();
+    final AtomicInteger pending = new AtomicInteger();
+
+    volatile Thread worker;
+    volatile boolean stopped;
+    volatile long wakeUpTick = 0; // tick the worker sleeps until, 0 while awake
+    long tick; // next tick to process, worker only
+
+    public HashedWheelTimer(String name) {
+        this(name, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public HashedWheelTimer(String name, long tickNanos, int wheelSize) {
+        this.name = name;
+        this.tickNanos = Math.max(1, tickNanos);
+        int size = 1;
+        while ( size < wheelSize )
+            size <<= 1;
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * run task on the timer thread after given delay. Can be called from any thread.
+     */
+    public Scheduled schedule(Runnable task, long delayMillis) {
+        if ( stopped )
+            throw new IllegalStateException("timer stopped");
+        long deadline = System.nanoTime() - startTime + Math.max(0, delayMillis) * 1000 * 1000;
+        // round up, never run early
+        Scheduled res = new Scheduled(this, task, (deadline + tickNanos - 1) / tickNanos);
+        pending.incrementAndGet();
+        added.offer(res);
+        Thread w = worker;
+        if ( w == null ) {
+            startWorker();
+        } else if ( res.deadlineTick < wakeUpTick ) {
+            LockSupport.unpark(w);
+        }
+        return res;
+    }
+
+    /**
+     * @return number of tasks neither completed nor cancelled
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * stop timer thread. Pending tasks are not run.
+     */
+    public void stop() {
+        stopped = true;
+        Thread w = worker;
+        if ( w != null )
+            LockSupport.unpark(w);
+    }
+
+    synchronized void startWorker() {
+        if ( worker != null )
+            return;
+        Thread w = new Thread(this::run, name);
+        w.setDaemon(true);
+        worker = w;
+        w.start();
+    }
+
+    long currentTick() {
+        return (System.nanoTime() - startTime) / tickNanos;
+    }
+
+    void run() {
+        tick = currentTick();
+        while ( ! stopped ) {
+            long now = currentTick();
+            transferAdded();
+            removeCancelled();
+            // expire due buckets, each bucket is visited at most once
+            for ( long t = Math.max(tick, now - mask); t <= now; t++ ) {
+                expire(wheel[(int) (t & mask)], now);
+            }
+            tick = now + 1;
+            sleepUntil(nextNonEmptyTick());
+        }
+    }
+
+    void transferAdded() {
+        Scheduled s;
+        while ( (s = added.poll()) != null ) {
+            if ( s.state == PENDING ) {
+                // overdue ones go to the next bucket processed
+                wheel[(int) (Math.max(s.deadlineTick, tick) & mask)].add(s);
+            }
+        }
+    }
+
+    void removeCancelled() {
+        Scheduled s;
+        while ( (s = cancelled.poll()) != null ) {
+            if ( s.bucket != null )
+                s.bucket.remove(s);
+        }
+    }
+
+    void expire(Bucket bucket, long now) {
+        Scheduled s = bucket.head;
+        while ( s != null ) {
+            Scheduled next = s.next;
+            if ( s.deadlineTick <= now ) {
+                bucket.remove(s);
+                if ( Scheduled.STATE.compareAndSet(s, PENDING, EXPIRED) ) {
+                    try {
+                        s.task.run();
+                    } catch (Throwable th) {
+                        Log.Warn(this, th, "exception in timer task");
+                    }
+                    pending.decrementAndGet();
+                }
+            }
+            s = next;
+        }
+    }
+
+    // @return tick of next non empty bucket or Long.MAX_VALUE
+    long nextNonEmptyTick() {
+        for (long t = tick; t <= tick + mask; t++) {
+            if ( ! wheel[(int) (t & mask)].isEmpty() )
+                return t;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    void sleepUntil(long wakeTick) {
+        wakeUpTick = wakeTick;
+        // schedule() enqueues before reading wakeUpTick, so either it unparks or the task is seen here
+        while ( ! stopped && added.peek() == null ) {
+            long nanos = wakeTick == Long.MAX_VALUE ? Long.MAX_VALUE : wakeTick * tickNanos - (System.nanoTime() - startTime);
+            if ( nanos <= 0 )
+                break;
+            if ( nanos == Long.MAX_VALUE )
+                LockSupport.park(this);
+            else
+                LockSupport.parkNanos(this, nanos);
+        }
+        wakeUpTick = 0;
+    }
+
+}
@@ -1,5 +1,6 @@
 package kontraktor;
 
+import org.junit.Assume;
 import org.junit.Ignore;
 import org.nustaq.kontraktor.*;
 import org.nustaq.kontraktor.IPromise;
@@ -8,6 +9,11 @@ import org.nustaq.kontraktor.Promise;
 import org.junit.Test;
 import org.nustaq.kontraktor.impl.ActorBlockedException;
 import org.nustaq.kontraktor.impl.DispatcherThread;
+import org.nustaq.kontraktor.impl.ElasticScheduler;
+import org.nustaq.kontraktor.impl.SchedulingReport;
+import org.nustaq.kontraktor.impl.VirtualThreadScheduler;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+import org.nustaq.kontraktor.util.HashedWheelTimer;
 import org.nustaq.kontraktor.util.Log;
 
 import java.net.URL;
@@ -771,4 +777,391 @@ public class BasicTest {
         assertTrue(count.get() == 9);
     }
 
+
+    public static class PrimitiveArgs extends Actor<PrimitiveArgs> {
+
+        public IPromise<String> concat(int i, long l, boolean b, double d, char c, int[] arr, String s) {
+            return new Promise<>(""+i+l+b+d+c+arr.length+s);
+        }
+
+        public IPromise<Boolean> flip(boolean b) {
+            return new Promise<>(!b);
+        }
+
+        public IPromise failFut() {
+            throw new RuntimeException("expected");
+        }
+
+        // not an actor method, shares the name of one
+        public static String concat(String s) {
+            return s;
+        }
+
+    }
+
+    @Test
+    public void testGeneratedInvoker() {
+        PrimitiveArgs act = AsActor(PrimitiveArgs.class);
+        assertTrue(act.__invoker != null);
+        int concatId = act.__invoker.getMethodIndex("concat");
+        assertTrue(concatId >= 0);
+        assertTrue("concat".equals(act.__invoker.getMethod(concatId).getName()));
+        assertTrue(act.__invoker.getMethod(concatId).getParameterCount() == 7); // resolved by signature
+        assertTrue(act.__invoker.getMethodIndex(act.__invoker.getMethod(concatId)) == concatId);
+        assertTrue(act.__invoker.isDirect(concatId));
+        assertTrue(act.__invoker.getMethodIndex("toString") < 0);
+        assertTrue("12true3.0x2s".equals(act.concat(1, 2, true, 3.0, 'x', new int[2], "s").await()));
+        assertTrue(act.flip(false).await());
+        // minbin transmits booleans as byte
+        assertTrue(!((Boolean) act.ask("flip", (byte) 1).await()));
+        try {
+            act.failFut().await();
+            assertTrue(false);
+        } catch (Exception e) {
+            // expected
+        }
+        act.stop();
+    }
+
+
+    public static class ReadyCounter extends Actor<ReadyCounter> {
+
+        int count;
+
+        public void inc() {
+            count++;
+        }
+
+        public IPromise<Integer> getCount() {
+            return resolve(count);
+        }
+
+    }
+
+    @Test
+    public void testReadyQueueScheduling() {
+        boolean prev = DispatcherThread.READY_QUEUE_SCHEDULING;
+        DispatcherThread.READY_QUEUE_SCHEDULING = true;
+        SimpleScheduler scheduler;
+        try {
+            scheduler = new SimpleScheduler();
+        } finally {
+            DispatcherThread.READY_QUEUE_SCHEDULING = prev;
+        }
+        ReadyCounter counters[] = new ReadyCounter[1000];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = AsActor(ReadyCounter.class, scheduler);
+            counters[i].inc(); // likely sent before dispatcher has picked up the actor
+        }
+        assertTrue(counters[0].getCurrentDispatcher().isUseReadyQueue());
+        // few active among many idle actors, repeated idle -> ready transitions
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < counters.length; i += 97) {
+                counters[i].inc();
+            }
+        }
+        int sum = 0;
+        for (int i = 0; i < counters.length; i++) {
+            sum += counters[i].getCount().await();
+        }
+        assertTrue(sum == counters.length + 100 * ((counters.length + 96) / 97));
+        for (int i = 0; i < counters.length; i++) {
+            counters[i].stop();
+        }
+    }
+
+    public static class Sequencer extends Actor<Sequencer> {
+
+        int last = -1;
+        boolean inOrder = true;
+
+        public void next(int seq) {
+            inOrder &= seq == last + 1;
+            last = seq;
+        }
+
+        public IPromise<Integer> forward(Sequencer other, int seq) {
+            other.next(seq);
+            return resolve(seq);
+        }
+
+        public IPromise<Boolean> isInOrder() {
+            return resolve(inOrder);
+        }
+
+        public IPromise<Integer> getLast() {
+            return resolve(last);
+        }
+
+    }
+
+    @Test
+    public void testDrainBudget() {
+        int prev = DispatcherThread.DRAIN_BUDGET;
+        DispatcherThread.DRAIN_BUDGET = 16;
+        SimpleScheduler scheduler;
+        try {
+            scheduler = new SimpleScheduler();
+        } finally {
+            DispatcherThread.DRAIN_BUDGET = prev;
+        }
+        Sequencer a = AsActor(Sequencer.class, scheduler);
+        Sequencer b = AsActor(Sequencer.class, scheduler);
+        assertTrue(a.getCurrentDispatcher().getDrainBudget() == 16);
+        int count = 10_000;
+        AtomicInteger results = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            a.forward(b, i).then(r -> results.incrementAndGet());
+        }
+        a.getLast().await(); // all forward() calls are processed and results delivered once this returns
+        assertTrue(results.get() == count);
+        assertTrue(b.getLast().await() == count - 1);
+        assertTrue(b.isInOrder().await());
+        a.stop();
+        b.stop();
+    }
+
+    public static class MigratingWorker extends Actor<MigratingWorker> {
+
+        AtomicInteger inside = new AtomicInteger();
+        int last = -1;
+        boolean ok = true;
+        Set<Thread> threads = new HashSet<>();
+
+        public void work(int seq) {
+            ok &= inside.incrementAndGet() == 1;
+            ok &= seq == last + 1;
+            last = seq;
+            threads.add(Thread.currentThread());
+            long tim = System.nanoTime();
+            while ( System.nanoTime() - tim < 20_000 ) {
+                // burn
+            }
+            inside.decrementAndGet();
+        }
+
+        public IPromise<Integer> getLast() {
+            return resolve(last);
+        }
+
+        public IPromise<Boolean> isOk() {
+            return resolve(ok);
+        }
+
+        public IPromise<Integer> getThreadCount() {
+            return resolve(threads.size());
+        }
+
+    }
+
+    @Test
+    public void testElasticScheduler() {
+        ElasticScheduler scheduler = new ElasticScheduler(2);
+        MigratingWorker workers[] = new MigratingWorker[4];
+        workers[0] = AsActor(MigratingWorker.class, scheduler);
+        DispatcherThread hot = workers[0].getCurrentDispatcher();
+        for (int i = 1; i < workers.length; i++) {
+            // all workers on the same dispatcher
+            workers[i] = (MigratingWorker) Actors.instance.makeProxy(null, MigratingWorker.class, hot, 0);
+        }
+        MigratingWorker idle = AsActor(MigratingWorker.class, scheduler);
+        assertTrue(idle.getCurrentDispatcher() != hot);
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < workers.length; j++) {
+                workers[j].work(i);
+            }
+        }
+        for (int j = 0; j < workers.length; j++) {
+            assertTrue(workers[j].getLast().await(60_000) == count - 1);
+            assertTrue(workers[j].isOk().await());
+        }
+        assertTrue(scheduler.getMigrations() > 0);
+        // a migrated worker continued on another dispatcher thread
+        assertTrue(Arrays.stream(workers).anyMatch(worker -> worker.getThreadCount().await() > 1));
+        assertTrue(((SchedulingReport) scheduler.getReport().await()).getMigrations() == scheduler.getMigrations());
+        for (int j = 0; j < workers.length; j++) {
+            workers[j].stop();
+        }
+        idle.stop();
+    }
+
+    public static class Session extends Actor<Session> {
+
+        Session peer;
+
+        public void init(Session peer) {
+            this.peer = peer;
+        }
+
+        public IPromise<Integer> echo(int value) {
+            return resolve(value);
+        }
+
+        public IPromise<Integer> askPeer(int value) {
+            // blocks the hosting thread only
+            return resolve(peer.echo(value).await() + 1);
+        }
+
+        // await a promise settled later by a plain thread (resolver == null) or another actor
+        public IPromise<Long> awaitLatency(Session resolver) {
+            IPromise<Long> settled;
+            if ( resolver == null ) {
+                Promise<Long> p = new Promise<>();
+                new Thread(() -> {
+                    LockSupport.parkNanos(100_000_000L);
+                    p.resolve(System.nanoTime());
+                }).start();
+                settled = p;
+            } else
+                settled = resolver.resolveLater(100);
+            long settledAt = settled.await();
+            return resolve(System.nanoTime() - settledAt);
+        }
+
+        // process a result arriving during yield
+        public IPromise<Long> yieldLatency(Session resolver) {
+            long processedAt[] = { 0 };
+            IPromise<Long> settled = resolver.resolveLater(100);
+            settled.then(r -> { processedAt[0] = System.nanoTime(); });
+            yield(300);
+            return resolve(settled.isSettled() ? processedAt[0] - settled.get() : Long.MAX_VALUE);
+        }
+
+        public IPromise<Long> resolveLater(long millis) {
+            Promise<Long> p = new Promise<>();
+            delayed(millis, () -> p.resolve(System.nanoTime()));
+            return p;
+        }
+
+        public IPromise<Boolean> isHosted() {
+            return resolve(DispatcherThread.current() == getCurrentDispatcher() && ! (Thread.currentThread() instanceof DispatcherThread));
+        }
+
+    }
+
+    @Test
+    public void testVirtualThreadScheduler() {
+        VirtualThreadScheduler scheduler = new VirtualThreadScheduler();
+        Session sessions[] = new Session[200];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = AsActor(Session.class, scheduler);
+        }
+        // pre java 21: shared dispatcher thread (SimpleScheduler)
+        boolean virtual = VirtualThreadScheduler.isVirtual();
+        assertTrue(virtual == (sessions[0].getCurrentDispatcher() != sessions[1].getCurrentDispatcher()));
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i].init(sessions[(i + 1) % sessions.length]);
+        }
+        assertTrue(sessions[0].isHosted().await() == virtual);
+        List<IPromise<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < sessions.length; i++) {
+            results.add(sessions[i].askPeer(i));
+        }
+        for (int i = 0; i < sessions.length; i++) {
+            assertTrue(results.get(i).await() == i + 1);
+        }
+        assertTrue(scheduler.getNumActors() == sessions.length);
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i].stop();
+        }
+    }
+
+    @Test
+    public void testParkUntilSignaled() throws InterruptedException {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        scheduler.getBackoffStrategy().setSignalWakeup(true).setIdleNanosToPark(0);
+        Session session = AsActor(Session.class, scheduler);
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(200); // dispatcher parks without timeout
+            long tim = System.currentTimeMillis();
+            assertTrue(session.isHosted().await() != null);
+            assertTrue(System.currentTimeMillis() - tim < 100);
+        }
+        session.stop();
+    }
+
+    // a dispatcher sleeping inside await or yield must not add its park time (set high here) to the latency
+    void checkAwaitLatency(Scheduler scheduler, Scheduler resolverScheduler) {
+        Session session = AsActor(Session.class, scheduler);
+        Session resolver = AsActor(Session.class, resolverScheduler);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(session.awaitLatency(null).await() < 50_000_000L);
+            assertTrue(session.awaitLatency(resolver).await() < 50_000_000L);
+            assertTrue(session.yieldLatency(resolver).await() < 50_000_000L);
+        }
+        session.stop();
+        resolver.stop();
+    }
+
+    @Test
+    public void testAwaitParkUntilSignaled() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        scheduler.getBackoffStrategy().setSignalWakeup(true).setNanosToPark(500_000_000);
+        checkAwaitLatency(scheduler, new SimpleScheduler());
+    }
+
+    @Test
+    public void testVirtualThreadAwait() {
+        Assume.assumeTrue(VirtualThreadScheduler.isVirtual());
+        VirtualThreadScheduler scheduler = new VirtualThreadScheduler();
+        scheduler.getBackoffStrategy().setNanosToPark(500_000_000);
+        checkAwaitLatency(scheduler, scheduler);
+    }
+
+    @Test
+    public void testHashedWheelTimer() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer("test timer");
+        int count = 100_000;
+        AtomicInteger expired = new AtomicInteger();
+        AtomicInteger early = new AtomicInteger();
+        HashedWheelTimer.Scheduled scheduled[] = new HashedWheelTimer.Scheduled[count];
+        Random rand = new Random(13);
+        for (int i = 0; i < count; i++) {
+            long delay = rand.nextInt(1500); // spans several wheel rotations
+            long due = System.nanoTime() + delay * 1000 * 1000;
+            scheduled[i] = timer.schedule(() -> {
+                if ( System.nanoTime() < due )
+                    early.incrementAndGet();
+                expired.incrementAndGet();
+            }, delay);
+        }
+        // typically timeouts get obsolete before expiring
+        int cancelled = 0;
+        for (int i = 0; i < count; i += 2) {
+            if ( scheduled[i].cancel() )
+                cancelled++;
+        }
+        long start = System.currentTimeMillis();
+        while ( timer.getPending() > 0 && System.currentTimeMillis() - start < 10_000 ) {
+            Thread.sleep(10);
+        }
+        assertTrue(timer.getPending() == 0);
+        assertTrue(cancelled > count / 3);
+        assertTrue(cancelled + expired.get() == count);
+        assertTrue(early.get() == 0);
+        // sleeping worker wakes up for new tasks
+        Thread.sleep(100);
+        long tim = System.currentTimeMillis();
+        Promise<Long> p = new Promise<>();
+        timer.schedule(() -> p.resolve(System.currentTimeMillis() - tim), 5);
+        assertTrue(p.await() < 100);
+        timer.stop();
+    }
+
+    @Test
+    public void testTimeoutCancelledOnResolve() {
+        int before = Actors.timer().getPending();
+        for (int i = 0; i < 10_000; i++) {
+            Promise p = new Promise();
+            p.timeoutIn(60_000);
+            p.resolve(i);
+        }
+        assertTrue(Actors.timer().getPending() - before < 100); // settled promises don't keep wheel entries
+        Promise p = new Promise("done");
+        p.timeoutIn(60_000);
+        assertTrue(Actors.timer().getPending() - before < 100);
+        assertTrue(p.get().equals("done") && p.getError() == null);
+    }
+
 }
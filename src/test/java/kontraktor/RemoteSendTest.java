@@ -0,0 +1,475 @@
+package kontraktor;
+
+import org.junit.Test;
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.Callback;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.impl.BackOffStrategy;
+import org.nustaq.kontraktor.remoting.base.AdaptiveBatching;
+import org.nustaq.kontraktor.remoting.base.BatchCompressor;
+import org.nustaq.kontraktor.remoting.base.ConnectionRegistry;
+import org.nustaq.kontraktor.remoting.base.ObjectSocket;
+import org.nustaq.kontraktor.remoting.encoding.Coding;
+import org.nustaq.kontraktor.remoting.encoding.CompactRemoteCallSerializer;
+import org.nustaq.kontraktor.remoting.encoding.RemoteCallEntry;
+import org.nustaq.kontraktor.remoting.encoding.SerializerType;
+import org.nustaq.kontraktor.remoting.base.RemoteRefPolling;
+import org.nustaq.kontraktor.remoting.tcp.TCPConnectable;
+import org.nustaq.kontraktor.remoting.tcp.TCPNIOPublisher;
+import org.nustaq.kontraktor.remoting.tcp.TCPPublisher;
+import org.nustaq.kontraktor.util.HashedWheelTimer;
+import org.nustaq.serialization.FSTConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * outbound remote calls, polled vs. event driven send loop (RemoteRefPolling.EVENT_DRIVEN_SEND),
+ * connections spread across NIO reactor threads, inline call arguments, compact wire coding, adaptive batching,
+ * batch compression, back pressure
+ */
+public class RemoteSendTest {
+
+    public static class Squarer extends Actor<Squarer> {
+
+        public IPromise<Integer> square(int x) {
+            return resolve(x * x);
+        }
+
+        public IPromise<byte[]> mirror(byte[] bytes) {
+            return resolve(bytes);
+        }
+
+        public void squares(int count, Callback<Integer> cb) {
+            for (int i = 0; i < count; i++) {
+                cb.pipe(i * i);
+            }
+            cb.finish();
+        }
+
+    }
+
+    // @return median roundtrip in micros of calls to an idle connection
+    long run(boolean eventDriven, int port) throws InterruptedException {
+        boolean prev = RemoteRefPolling.EVENT_DRIVEN_SEND;
+        boolean prevSignal = BackOffStrategy.SIGNAL_WAKEUP;
+        RemoteRefPolling.EVENT_DRIVEN_SEND = eventDriven;
+        BackOffStrategy.SIGNAL_WAKEUP = eventDriven; // else idle dispatchers add their sleep latency
+        Squarer server = Actors.AsActor(Squarer.class);
+        try {
+            new TCPNIOPublisher(server, port).publish().await();
+            Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", port).connect().await();
+            List<IPromise<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                results.add(client.square(i));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertTrue(results.get(i).await() == i * i);
+            }
+            long micros[] = new long[30];
+            for (int i = 0; i < micros.length; i++) {
+                Thread.sleep(35); // let send loop back off
+                long tim = System.nanoTime();
+                assertTrue(client.square(i).await() == i * i);
+                micros[i] = (System.nanoTime() - tim) / 1000;
+            }
+            Arrays.sort(micros);
+            System.out.println((eventDriven ? "event driven" : "polling") + " send, idle roundtrip median " + micros[micros.length / 2] + "us");
+            client.close();
+            return micros[micros.length / 2];
+        } finally {
+            RemoteRefPolling.EVENT_DRIVEN_SEND = prev;
+            BackOffStrategy.SIGNAL_WAKEUP = prevSignal;
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testEventDrivenSend() throws InterruptedException {
+        long polled = run(false, 7771);
+        long signaled = run(true, 7772);
+        assertTrue(signaled < polled);
+    }
+
+    @Test
+    public void testLargeFrames() {
+        Squarer server = Actors.AsActor(Squarer.class);
+        try {
+            new TCPNIOPublisher(server, 7774).publish().await();
+            Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", 7774).connect().await();
+            List<IPromise<byte[]>> results = new ArrayList<>();
+            int sizes[] = { 10, 5000, 130_000, 2_000_000, 100 };
+            for (int size : sizes) {
+                byte bytes[] = new byte[size];
+                bytes[size - 1] = (byte) size;
+                results.add(client.mirror(bytes));
+            }
+            for (int i = 0; i < sizes.length; i++) {
+                byte res[] = results.get(i).await();
+                assertTrue(res.length == sizes[i] && res[sizes[i] - 1] == (byte) sizes[i]);
+            }
+            client.close();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testInlineArgs() {
+        boolean prev = ConnectionRegistry.INLINE_ARGS;
+        ConnectionRegistry.INLINE_ARGS = true;
+        Squarer server = Actors.AsActor(Squarer.class);
+        try {
+            new TCPNIOPublisher(server, 7775).publish().await();
+            Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", 7775).connect().await();
+            assertTrue(client.__clientConnection.isInlineArgs());
+            assertTrue(client.square(9).await() == 81);
+            assertTrue(client.mirror(new byte[] {1, 2, 3}).await()[2] == 3);
+            List<Integer> received = new ArrayList<>();
+            Promise<List<Integer>> done = new Promise<>();
+            client.squares(5, (r, e) -> {
+                if (Actors.isResult(e))
+                    received.add(r);
+                else
+                    done.resolve(received);
+            });
+            assertTrue(done.await().equals(Arrays.asList(0, 1, 4, 9, 16)));
+            client.close();
+        } finally {
+            ConnectionRegistry.INLINE_ARGS = prev;
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testCompactBinary() {
+        boolean prev = ConnectionRegistry.INLINE_ARGS;
+        Squarer server = Actors.AsActor(Squarer.class);
+        try {
+            Coding coding = new Coding(SerializerType.CompactBinary);
+            new TCPNIOPublisher(server, 7776).coding(coding).publish().await();
+            for (boolean inline : new boolean[] {false, true}) {
+                ConnectionRegistry.INLINE_ARGS = inline;
+                Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", 7776).coding(coding).connect().await();
+                for (int i = 0; i < 3; i++) { // method names are sent once per connection
+                    assertTrue(client.square(9).await() == 81);
+                    assertTrue(client.mirror(new byte[] {1, 2, 3}).await()[2] == 3);
+                    List<Integer> received = new ArrayList<>();
+                    Promise<List<Integer>> done = new Promise<>();
+                    client.squares(5, (r, e) -> {
+                        if (Actors.isResult(e))
+                            received.add(r);
+                        else
+                            done.resolve(received);
+                    });
+                    assertTrue(done.await().equals(Arrays.asList(0, 1, 4, 9, 16)));
+                }
+                client.close();
+            }
+        } finally {
+            ConnectionRegistry.INLINE_ARGS = prev;
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testCompactBinarySize() {
+        int fst = encodedSize(SerializerType.FSTSer);
+        int compact = encodedSize(SerializerType.CompactBinary);
+        System.out.println("second call batch FSTSer " + fst + " bytes, CompactBinary " + compact + " bytes");
+        assertTrue(compact < fst);
+    }
+
+    // size of the second of two identical call batches, decoded by a peer registry
+    int encodedSize(SerializerType type) {
+        ConnectionRegistry sender = registry(type), receiver = registry(type);
+        int size = 0;
+        for (int i = 0; i < 2; i++) {
+            RemoteCallEntry rce = new RemoteCallEntry(123456, 2, "square", new Object[] {i}, null);
+            rce.pack(sender.getConf());
+            byte bytes[] = sender.getConf().asByteArray(new Object[] {assignMethodIndex(sender, rce), 0});
+            RemoteCallEntry read = (RemoteCallEntry) ((Object[]) receiver.getConf().asObject(bytes))[0];
+            read.unpackArgs(receiver.getConf());
+            assertTrue(read.getMethod().equals("square") && read.getFutureKey() == 123456 && read.getArgs()[0].equals(i));
+            size = bytes.length;
+        }
+        return size;
+    }
+
+    @Test
+    public void testCompactBinaryReencode() {
+        ConnectionRegistry sender = registry(SerializerType.CompactBinary), receiver = registry(SerializerType.CompactBinary);
+        FSTConfiguration out = sender.getConf(), in = receiver.getConf();
+        // encoded outside the frame writer (e.g. nested in args): literal name, tables untouched
+        byte outOfBand[] = out.asByteArray(new RemoteCallEntry(0, 1, "square", new Object[] {1}, null));
+        RemoteCallEntry first = assignMethodIndex(sender, new RemoteCallEntry(0, 1, "square", new Object[] {2}, null));
+        byte definition[] = out.asByteArray(first);
+        byte retransmit[] = out.asByteArray(first);
+        byte reference[] = out.asByteArray(assignMethodIndex(sender, new RemoteCallEntry(0, 1, "square", new Object[] {3}, null)));
+        assertTrue(reference.length < definition.length);
+        assertTrue(Arrays.equals(definition, retransmit));
+
+        byte frames[][] = { outOfBand, definition, retransmit, reference, outOfBand };
+        int expected[] = { 1, 2, 2, 3, 1 };
+        for (int i = 0; i < frames.length; i++) {
+            RemoteCallEntry read = (RemoteCallEntry) in.asObject(frames[i]);
+            assertTrue(read.getMethod().equals("square") && read.getArgs()[0].equals(expected[i]));
+        }
+    }
+
+    // what ConnectionRegistry.writeObject does before handing an entry to the socket
+    RemoteCallEntry assignMethodIndex(ConnectionRegistry reg, RemoteCallEntry rce) {
+        Object ser = reg.getConf().getCLInfoRegistry().getSerializerRegistry().getSerializer(RemoteCallEntry.class);
+        return ser instanceof CompactRemoteCallSerializer ? ((CompactRemoteCallSerializer) ser).assignMethodIndex(rce) : rce;
+    }
+
+    ConnectionRegistry registry(SerializerType type) {
+        return new ConnectionRegistry(new Coding(type)) {
+            @Override
+            public Actor getFacadeProxy() {
+                return null;
+            }
+
+            @Override
+            public AtomicReference<ObjectSocket> getWriteObjectSocket() {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testIOThreads() {
+        Squarer server = Actors.AsActor(Squarer.class);
+        try {
+            new TCPNIOPublisher(server, 7773).ioThreads(3).publish().await();
+            List<Squarer> clients = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                clients.add((Squarer) new TCPConnectable(Squarer.class, "localhost", 7773).connect().await());
+            }
+            List<IPromise<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 700; i++) {
+                results.add(clients.get(i % clients.size()).square(i));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertTrue(results.get(i).await() == i * i);
+            }
+            clients.forEach(client -> client.close());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testAdaptiveBatchingPolicy() {
+        AdaptiveBatching batching = new AdaptiveBatching();
+        batching.setMaxAddedLatencyNanos(50_000);
+        long now = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            now += 10_000_000; // request/response: one message each 10 millis, no added latency
+            batching.polled(1, now);
+            assertTrue(batching.shouldFlush() && batching.getTargetBatchSize() == 1);
+            batching.flushed();
+        }
+        batching.setMaxAddedLatencyNanos(1_000_000_000l);
+        for (int i = 0; i < 50; i++) {
+            now += 10_000; // streaming: 64 messages each 10 micros
+            batching.polled(64, now);
+            batching.flushed();
+        }
+        assertTrue(batching.getTargetBatchSize() == ConnectionRegistry.MAX_BATCH_CALLS);
+        batching.polled(3, now + 10_000);
+        assertTrue(batching.isDeferred() && ! batching.shouldFlush() && batching.getFlushDelayNanos() > 0);
+        batching.setMaxAddedLatencyNanos(1);
+        assertTrue(batching.shouldFlush());
+        batching.flushed();
+        assertTrue(! batching.isDeferred() && batching.getFlushDelayNanos() == Long.MAX_VALUE);
+        assertTrue(batching.getHistogram()[6] == 50 && batching.getHistogram()[0] == 50 && batching.getHistogram()[1] == 1);
+    }
+
+    @Test
+    public void testAdaptiveBatching() {
+        long prev = AdaptiveBatching.MAX_ADDED_LATENCY_NANOS;
+        AdaptiveBatching.MAX_ADDED_LATENCY_NANOS = 50_000;
+        Squarer server = Actors.AsActor(Squarer.class);
+        try {
+            new TCPNIOPublisher(server, 7777).publish().await();
+            Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", 7777).connect().await();
+            for (int round = 0; round < 3; round++) {
+                List<IPromise<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < 2000; i++) {
+                    results.add(client.square(i));
+                }
+                for (int i = 0; i < results.size(); i++) {
+                    assertTrue(results.get(i).await() == i * i);
+                }
+                assertTrue(client.square(7).await() == 49); // single call after burst is not held back
+            }
+            long flushes = Arrays.stream(client.__clientConnection.getBatching().getHistogram()).sum();
+            assertTrue(flushes > 0 && flushes < 3 * 2001);
+            client.close();
+        } finally {
+            AdaptiveBatching.MAX_ADDED_LATENCY_NANOS = prev;
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testAdaptiveBatchingLatency() {
+        long prev = AdaptiveBatching.MAX_ADDED_LATENCY_NANOS;
+        boolean prevDriven = RemoteRefPolling.EVENT_DRIVEN_SEND;
+        boolean prevSignal = BackOffStrategy.SIGNAL_WAKEUP;
+        long budget = 200_000; // below timer resolution
+        // a deferred flush is either polled for or scheduled early enough for a timer firing a tick late
+        assertTrue(RemoteRefPolling.isRepollDue(budget));
+        for (long delay = 0; delay < 10_000_000; delay += 10_000) {
+            if ( ! RemoteRefPolling.isRepollDue(delay) )
+                assertTrue(RemoteRefPolling.flushTimerMillis(delay) * 1_000_000 + HashedWheelTimer.DEFAULT_TICK_NANOS <= delay);
+        }
+        AdaptiveBatching.MAX_ADDED_LATENCY_NANOS = budget;
+        try {
+            for (int port = 7782; port <= 7783; port++) {
+                RemoteRefPolling.EVENT_DRIVEN_SEND = port == 7783;
+                BackOffStrategy.SIGNAL_WAKEUP = port == 7783;
+                Squarer server = Actors.AsActor(Squarer.class);
+                try {
+                    new TCPNIOPublisher(server, port).publish().await();
+                    Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", port).connect().await();
+                    for (int round = 0; round < 20; round++) {
+                        // paced stream, so batches are held back and the last one waits for its deadline
+                        List<IPromise<Integer>> results = new ArrayList<>();
+                        for (int i = 0; i < 200; i++) {
+                            results.add(client.square(i));
+                            LockSupport.parkNanos(20_000);
+                        }
+                        for (int i = 0; i < results.size(); i++) {
+                            assertTrue(results.get(i).await() == i * i);
+                        }
+                    }
+                    AdaptiveBatching batching = client.__clientConnection.getBatching();
+                    System.out.println("max added latency " + batching.getMaxAddedNanos() / 1000 + "us " + batching);
+                    // allow for os scheduling jitter (single core machines)
+                    assertTrue(batching.getMaxAddedNanos() < budget + 5_000_000);
+                    client.close();
+                } finally {
+                    server.stop();
+                }
+            }
+        } finally {
+            AdaptiveBatching.MAX_ADDED_LATENCY_NANOS = prev;
+            RemoteRefPolling.EVENT_DRIVEN_SEND = prevDriven;
+            BackOffStrategy.SIGNAL_WAKEUP = prevSignal;
+        }
+    }
+
+    @Test
+    public void testCompression() {
+        for (int port = 7778; port <= 7779; port++) {
+            Squarer server = Actors.AsActor(Squarer.class);
+            try {
+                Coding coding = new Coding(SerializerType.FSTSer).compressAbove(1000);
+                TCPNIOPublisher publisher = port == 7778 ? new TCPNIOPublisher(server, port) : new TCPPublisher(server, port);
+                publisher.coding(coding).publish().await();
+                Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", port).coding(coding).connect().await();
+                byte bytes[] = new byte[100_000];
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = (byte) (i % 10);
+                }
+                byte res[] = client.mirror(bytes).await();
+                assertTrue(Arrays.equals(bytes, res));
+                assertTrue(client.square(9).await() == 81);
+                BatchCompressor compressor = client.__clientConnection.getWriteObjectSocket().get().getCompressor();
+                assertTrue(compressor.getCompressedFrames() == 1 && compressor.getCompressionRatio() < 0.1);
+                client.close();
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testCompactBinaryCompression() {
+        for (int port = 7780; port <= 7781; port++) {
+            Squarer server = Actors.AsActor(Squarer.class);
+            try {
+                // frames below and above the threshold, method names are defined in uncompressed frames
+                Coding coding = new Coding(SerializerType.CompactBinary).compressAbove(1000);
+                TCPNIOPublisher publisher = port == 7780 ? new TCPNIOPublisher(server, port) : new TCPPublisher(server, port);
+                publisher.coding(coding).publish().await();
+                Squarer client = (Squarer) new TCPConnectable(Squarer.class, "localhost", port).coding(coding).connect().await();
+                byte bytes[] = new byte[10_000];
+                for (int round = 0; round < 3; round++) {
+                    assertTrue(client.square(round).await() == round * round);
+                    assertTrue(Arrays.equals(bytes, client.mirror(bytes).await()));
+                    assertTrue(client.mirror(new byte[] {1, 2, 3}).await()[2] == 3);
+                    List<Integer> received = new ArrayList<>();
+                    Promise<List<Integer>> done = new Promise<>();
+                    client.squares(3, (r, e) -> {
+                        if (Actors.isResult(e))
+                            received.add(r);
+                        else
+                            done.resolve(received);
+                    });
+                    assertTrue(done.await().equals(Arrays.asList(0, 1, 4)));
+                }
+                assertTrue(client.__clientConnection.getWriteObjectSocket().get().getCompressor().getCompressedFrames() == 3);
+                client.close();
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        long pending[] = { 0 };
+        ObjectSocket socket = new ObjectSocket() {
+            FSTConfiguration conf;
+            public void writeObject(Object toWrite) {}
+            public void flush() {}
+            public void setLastError(Throwable ex) {}
+            public Throwable getLastError() { return null; }
+            public void setConf(FSTConfiguration conf) { this.conf = conf; }
+            public FSTConfiguration getConf() { return conf; }
+            public void close() {}
+            public boolean isClosed() { return false; }
+            public int getId() { return 1; }
+            public String getConnectionIdentifier() { return "1"; }
+            public long getPendingBytes() { return pending[0]; }
+        };
+        AtomicReference<ObjectSocket> socketRef = new AtomicReference<>(socket);
+        ConnectionRegistry reg = new ConnectionRegistry(new Coding(SerializerType.FSTSer)) {
+            @Override
+            public Actor getFacadeProxy() {
+                return null;
+            }
+
+            @Override
+            public AtomicReference<ObjectSocket> getWriteObjectSocket() {
+                return socketRef;
+            }
+        };
+        reg.setMaxPendingBytes(1000);
+        List<Long> writable = new ArrayList<>();
+        long backlog[] = { 500, 2000, 800, 400 };
+        boolean congested[] = { false, true, true, false };
+        for (int i = 0; i < backlog.length; i++) {
+            pending[0] = backlog[i];
+            reg.pollAndSend2Remote(socketRef);
+            assertTrue(reg.isCongested() == congested[i]);
+            if ( i == 1 )
+                reg.onWritable(() -> writable.add(pending[0]));
+            assertTrue(writable.isEmpty() == (i < 3));
+        }
+        assertTrue(writable.get(0) == 400);
+        assertTrue(reg.getCongestions() == 1 && reg.getCongestedNanos() > 0 && reg.getPeakPendingBytes() == 2000);
+        assertTrue(reg.awaitWritable().isSettled());
+    }
+
+}
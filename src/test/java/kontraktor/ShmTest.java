@@ -0,0 +1,97 @@
+package kontraktor;
+
+import org.junit.Test;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.remoting.base.ActorServer;
+import org.nustaq.kontraktor.remoting.shm.ShmConnectable;
+import org.nustaq.kontraktor.remoting.shm.ShmPublisher;
+import org.nustaq.kontraktor.remoting.shm.ShmRing;
+import org.nustaq.kontraktor.remoting.shm.ShmServerConnector;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * shared memory transport (ShmPublisher/ShmConnectable)
+ */
+public class ShmTest {
+
+    @Test
+    public void testRing() throws Exception {
+        File file = File.createTempFile("ring", ".shm");
+        ShmRing writer = new ShmRing(file, 1000, true);
+        ShmRing reader = new ShmRing(file, 0, false);
+        assertTrue(writer.getCapacity() == 1024 && reader.getCapacity() == 1024);
+        byte src[] = new byte[3000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (byte) i;
+        }
+        byte dst[] = new byte[3000];
+        int written = 0, read = 0;
+        while ( read < src.length ) { // wraps around several times
+            written += writer.write(src, written, Math.min(700, src.length - written));
+            read += reader.read(dst, read, src.length - read);
+        }
+        assertTrue(Arrays.equals(src, dst) && reader.available() == 0);
+        writer.setClosed();
+        assertTrue(reader.isClosed());
+        reader.dispose();
+        writer.dispose();
+    }
+
+    @Test
+    public void testRemoting() throws Exception {
+        RemoteSendTest.Squarer server = Actors.AsActor(RemoteSendTest.Squarer.class);
+        try {
+            ActorServer actorServer = new ShmPublisher(server, "shmtest").publish().await();
+            Promise disconnected = new Promise();
+            RemoteSendTest.Squarer client = (RemoteSendTest.Squarer) new ShmConnectable(RemoteSendTest.Squarer.class, "shmtest")
+                .ringSize(64 * 1024)
+                .connect(null, act -> disconnected.resolve())
+                .await();
+            List<IPromise<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                results.add(client.square(i));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertTrue(results.get(i).await() == i * i);
+            }
+            byte large[] = new byte[1_000_000]; // > ring size
+            large[large.length - 1] = 42;
+            assertTrue(client.mirror(large).await()[large.length - 1] == 42);
+            List<Integer> squares = new ArrayList<>();
+            Promise done = new Promise();
+            client.squares(4, (r, e) -> {
+                if ( Actors.isResult(e) )
+                    squares.add(r);
+                else
+                    done.resolve();
+            });
+            done.await();
+            assertTrue(squares.equals(Arrays.asList(0, 1, 4, 9)));
+            assertTrue(ShmServerConnector.getServerDir("shmtest").listFiles().length == 3); // 2 rings + lock
+            client.close();
+            disconnected.await(5000);
+            actorServer.close();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testNoServer() {
+        try {
+            new ShmConnectable(RemoteSendTest.Squarer.class, "shmtest-none").connect().await(5000);
+            assertTrue(false);
+        } catch (Exception e) {
+            assertTrue(true);
+        }
+    }
+
+}
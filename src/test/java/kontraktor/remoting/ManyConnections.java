@@ -0,0 +1,84 @@
+package kontraktor.remoting;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.remoting.base.ActorServer;
+import org.nustaq.kontraktor.remoting.tcp.TCPConnectable;
+import org.nustaq.kontraktor.remoting.tcp.TCPNIOPublisher;
+import org.nustaq.kontraktor.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives thousands of concurrent localhost connections against a TCPNIOPublisher, comparing all io
+ * on the facade thread (ioThreads 0) against connections spread across reactor threads.
+ *
+ * args: [connections] [rounds] [ioThreads]
+ */
+public class ManyConnections {
+
+    public static class Counter extends Actor<Counter> {
+
+        long count;
+
+        public IPromise<Long> inc(int clientId) {
+            return resolve(++count);
+        }
+
+    }
+
+    static int port = 7790;
+
+    static void run(int connections, int rounds, int ioThreads) throws Exception {
+        Counter server = Actors.AsActor(Counter.class);
+        ActorServer actorServer = new TCPNIOPublisher(server, ++port).ioThreads(ioThreads).publish().await();
+        List<Counter> clients = new ArrayList<>(connections);
+        long tim = System.currentTimeMillis();
+        for (int i = 0; i < connections; i++) {
+            clients.add((Counter) new TCPConnectable(Counter.class, "localhost", port).connect().await());
+        }
+        long connectMillis = System.currentTimeMillis() - tim;
+
+        long callNanos = 0;
+        long worstRound = 0;
+        for (int r = 0; r < rounds; r++) {
+            List<IPromise<Long>> results = new ArrayList<>(connections);
+            long roundStart = System.nanoTime();
+            for (int i = 0; i < clients.size(); i++) {
+                results.add(clients.get(i).inc(i));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).await(60_000);
+            }
+            long dur = System.nanoTime() - roundStart;
+            callNanos += dur;
+            worstRound = Math.max(worstRound, dur);
+        }
+        System.out.println(
+            "ioThreads " + ioThreads + ", " + connections + " connections:" +
+            " connect " + connectMillis + "ms," +
+            " calls/s " + (long) connections * rounds * 1_000_000_000l / Math.max(1, callNanos) + "," +
+            " avg round " + callNanos / rounds / 1000 + "us," +
+            " worst round " + worstRound / 1000 + "us"
+        );
+        clients.forEach(client -> client.close());
+        actorServer.close();
+        server.stop();
+        Thread.sleep(1000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int ioThreads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        Log.setLevel(Log.ERROR); // connect/disconnect per client
+        for (int run = 0; run < 2; run++) {
+            run(connections, rounds, 0);
+            run(connections, rounds, ioThreads);
+        }
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,64 @@
+package kontraktor.remoting;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.remoting.base.ActorServer;
+import org.nustaq.kontraktor.remoting.base.ConnectableActor;
+import org.nustaq.kontraktor.remoting.base.RemoteRefPolling;
+import org.nustaq.kontraktor.impl.BackOffStrategy;
+import org.nustaq.kontraktor.remoting.shm.ShmConnectable;
+import org.nustaq.kontraktor.remoting.shm.ShmPublisher;
+import org.nustaq.kontraktor.remoting.tcp.TCPConnectable;
+import org.nustaq.kontraktor.remoting.tcp.TCPNIOPublisher;
+import org.nustaq.kontraktor.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Roundtrip latency of sequential remote calls over loopback TCP against the shared memory transport.
+ * Both ends run in one process here, which does not change the transport path.
+ *
+ * args: [calls]
+ */
+public class ShmLatency {
+
+    public static class Echo extends Actor<Echo> {
+
+        public IPromise<Integer> echo(int x) {
+            return resolve(x);
+        }
+
+    }
+
+    static void run(String transport, ConnectableActor connectable, int calls) {
+        Echo client = (Echo) connectable.connect().await();
+        long durations[] = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long tim = System.nanoTime();
+            client.echo(i).await();
+            durations[i] = System.nanoTime() - tim;
+        }
+        Arrays.sort(durations);
+        System.out.println(transport + ": median " + durations[calls / 2] / 1000 + "us, 99% " + durations[calls * 99 / 100] / 1000 + "us");
+        client.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Log.setLevel(Log.ERROR);
+        RemoteRefPolling.EVENT_DRIVEN_SEND = true;
+        BackOffStrategy.SIGNAL_WAKEUP = true;
+        Echo server = Actors.AsActor(Echo.class);
+        ActorServer tcp = new TCPNIOPublisher(server, 7801).publish().await();
+        ActorServer shm = new ShmPublisher(server, "shmlatency").publish().await();
+        for (int run = 0; run < 3; run++) {
+            run("tcp", new TCPConnectable(Echo.class, "localhost", 7801), calls);
+            run("shm", new ShmConnectable(Echo.class, "shmlatency"), calls);
+        }
+        tcp.close();
+        shm.close();
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,73 @@
+package kontraktor.scheduling;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.Promise;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Heap allocated per ask-style call (promise returning method) between two actors sharing a dispatcher.
+ * Uses com.sun.management.ThreadMXBean, see the jmh module for a gc profiled variant.
+ */
+public class AskAllocation {
+
+    public static class Responder extends Actor<Responder> {
+
+        public IPromise<Integer> square(int x) {
+            return resolve(x * x);
+        }
+
+    }
+
+    public static class Requester extends Actor<Requester> {
+
+        Responder responder;
+
+        public void init(Responder responder) {
+            this.responder = responder;
+        }
+
+        public IPromise<Long> request(int calls) {
+            Promise<Long> res = new Promise<>();
+            long sum[] = {0};
+            int received[] = {0};
+            for (int i = 0; i < calls; i++) {
+                responder.square(i & 0xff).then(r -> {
+                    sum[0] += r;
+                    if ( ++received[0] == calls )
+                        res.resolve(sum[0]);
+                });
+            }
+            return res;
+        }
+
+        public IPromise<Long> threadId() {
+            return resolve(Thread.currentThread().getId());
+        }
+
+    }
+
+    static final int CALLS = 100_000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SimpleScheduler scheduler = new SimpleScheduler();
+        Requester requester = Actors.AsActor(Requester.class, scheduler);
+        Responder responder = Actors.AsActor(Responder.class, scheduler);
+        requester.init(responder);
+        long dispatcherId = requester.threadId().await();
+        for (int run = 0; run < 10; run++) {
+            long before = mx.getThreadAllocatedBytes(dispatcherId);
+            long tim = System.nanoTime();
+            requester.request(CALLS).await();
+            long dur = System.nanoTime() - tim;
+            long bytes = mx.getThreadAllocatedBytes(dispatcherId) - before;
+            System.out.println("bytes/call: " + bytes / CALLS + " calls/s: " + CALLS * 1000_000_000l / dur);
+        }
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,70 @@
+package kontraktor.scheduling;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.impl.DispatcherThread;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+
+/**
+ * Throughput of chatty actor pairs sharing one dispatcher, comparing different DispatcherThread
+ * drain budgets.
+ */
+public class DrainBudgetThroughput {
+
+    public static class Pinger extends Actor<Pinger> {
+
+        long count;
+
+        public void volley(Pinger other, int remaining) {
+            count++;
+            if ( remaining > 0 )
+                other.volley(self(), remaining - 1);
+        }
+
+        public IPromise<Long> getCount() {
+            return resolve(count);
+        }
+
+    }
+
+    static final int MESSAGES = 2_000_000;
+    static final int PAIRS = 8;
+
+    static long measure(int drainBudget) {
+        DispatcherThread.DRAIN_BUDGET = drainBudget;
+        SimpleScheduler scheduler = new SimpleScheduler();
+        Pinger pingers[] = new Pinger[PAIRS * 2];
+        for (int i = 0; i < pingers.length; i++) {
+            pingers[i] = Actors.AsActor(Pinger.class, scheduler);
+        }
+        long tim = System.nanoTime();
+        for (int i = 0; i < PAIRS; i++) {
+            // several volleys in flight per pair so queues do not run empty
+            for (int j = 0; j < 64; j++)
+                pingers[i * 2].volley(pingers[i * 2 + 1], MESSAGES / PAIRS / 64);
+        }
+        long total = 0;
+        while ( total < MESSAGES ) {
+            total = 0;
+            for (int i = 0; i < pingers.length; i++) {
+                total += pingers[i].getCount().await();
+            }
+        }
+        long dur = System.nanoTime() - tim;
+        for (int i = 0; i < pingers.length; i++) {
+            pingers[i].stop();
+        }
+        return total * 1000_000_000l / dur;
+    }
+
+    public static void main(String[] args) {
+        for (int run = 0; run < 3; run++) {
+            for (int budget : new int[] {1, 8, 32}) {
+                System.out.println("drain budget " + budget + ": " + measure(budget) + " msg/s");
+            }
+        }
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,65 @@
+package kontraktor.scheduling;
+
+import org.nustaq.kontraktor.Actor;
+import org.nustaq.kontraktor.Actors;
+import org.nustaq.kontraktor.IPromise;
+import org.nustaq.kontraktor.impl.SimpleScheduler;
+
+import java.util.Arrays;
+
+/**
+ * Measures latency of the first message sent to an idle (sleeping) dispatcher, comparing
+ * BackOffStrategy's default park/sleep against signal wakeup mode.
+ *
+ * The pause between calls is chosen such that the receiving DispatcherThread has escalated to
+ * its sleep state (parkNanos(BackOffStrategy.SLEEP_NANOS)) before each request arrives.
+ */
+public class WakeupLatency {
+
+    public static class Echo extends Actor<Echo> {
+
+        public IPromise<Long> echo(long sent) {
+            return resolve(sent);
+        }
+
+    }
+
+    static final int ITERATIONS = 200;
+    static final long PAUSE_MILLIS = 30;
+
+    static long[] measure(boolean signalWakeup) throws InterruptedException {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        scheduler.getBackoffStrategy().setSignalWakeup(signalWakeup);
+        Echo echo = Actors.AsActor(Echo.class, scheduler);
+        echo.echo(0).await(); // warmup
+        long latencies[] = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            Thread.sleep(PAUSE_MILLIS);
+            long tim = System.nanoTime();
+            echo.echo(tim).await();
+            latencies[i] = System.nanoTime() - tim;
+        }
+        echo.stop();
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    static void print(String mode, long sortedNanos[]) {
+        System.out.println(
+            mode +
+            " p50:" + sortedNanos[sortedNanos.length / 2] / 1000 + "us" +
+            " p90:" + sortedNanos[sortedNanos.length * 9 / 10] / 1000 + "us" +
+            " p99:" + sortedNanos[sortedNanos.length * 99 / 100] / 1000 + "us" +
+            " max:" + sortedNanos[sortedNanos.length - 1] / 1000 + "us"
+        );
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int run = 0; run < 3; run++) {
+            print("park/sleep   ", measure(false));
+            print("signal wakeup", measure(true));
+        }
+        System.exit(0);
+    }
+
+}